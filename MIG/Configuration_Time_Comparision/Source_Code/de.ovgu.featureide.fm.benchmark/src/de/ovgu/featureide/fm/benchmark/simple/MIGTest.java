@@ -31,8 +31,8 @@ import java.util.Random;
 
 import org.prop4j.Node;
 import org.prop4j.analyses.AConditionallyCoreDeadAnalysis;
-import org.prop4j.analyses.AdjList;
 import org.prop4j.analyses.AdjMatrix;
+import org.prop4j.analyses.CompressedAdjList;
 import org.prop4j.analyses.ConditionallyCoreDeadAnalysisFGImproved2;
 import org.prop4j.analyses.ConditionallyCoreDeadAnalysisFGImproved4;
 import org.prop4j.analyses.ConditionallyCoreDeadAnalysisFGNaive2;
@@ -42,6 +42,7 @@ import org.prop4j.analyses.ConditionallyCoreDeadAnalysisSatNaive;
 import org.prop4j.analyses.ConditionallyCoreDeadAnalysisSplar;
 import org.prop4j.solver.BasicSolver;
 import org.prop4j.solver.SatInstance;
+import org.prop4j.solver.SolverPool;
 import org.sat4j.specs.ContradictionException;
 
 import de.ovgu.featureide.fm.benchmark.ABenchmark;
@@ -83,6 +84,7 @@ public class MIGTest extends ABenchmark {
 	private static final Rounds randomRounds = new Rounds("random_rounds");
 	private static final Rounds trueRounds = new Rounds("true_rounds");
 	private static final Rounds falseRounds = new Rounds("false_rounds");
+	private static final BoolProperty useSolverPool = new BoolProperty("solver_pool");
 
 	private static final int dummyRounds = 1;
 
@@ -90,6 +92,7 @@ public class MIGTest extends ABenchmark {
 	private int[] coreDead;
 
 	private SatInstance satInstance;
+	private SolverPool solverPool;
 	private IFeatureModel fm;
 	private String modelName;
 
@@ -135,23 +138,38 @@ public class MIGTest extends ABenchmark {
 		time = System.nanoTime();
 		final List<String> orderList = getOrderList(fm);
 		initSatInstance(fm, orderList);
+		solverPool = useSolverPool.getValue() ? new SolverPool() : null;
 		printOut("Set Up SatInstance           " + ((System.nanoTime() - time) / 1_000_000) / 1000.0, 1);
 		
 		time = System.nanoTime();
-		final IFeatureGraph2 fg_strong_complete = AdjList.build(AdjMatrix.build(satInstance, true));
+		final IFeatureGraph2 fg_strong_complete = CompressedAdjList.build(AdjMatrix.build(satInstance, true, 1, solverPool));
 		printOut("Init StrongComplete:         " + ((System.nanoTime() - time) / 1_000_000) / 1000.0, 1);
 
 		time = System.nanoTime();
-		final IFeatureGraph2 fg_non_complete = AdjList.build(AdjMatrix.build(satInstance, false));
+		final IFeatureGraph2 fg_non_complete = CompressedAdjList.build(AdjMatrix.build(satInstance, false, 1, solverPool));
 		printOut("Init NonComplete:            " + ((System.nanoTime() - time) / 1_000_000) / 1000.0, 1);
 
 		time = System.nanoTime();
-		coreDead = LongRunningWrapper.runMethod(new ConditionallyCoreDeadAnalysisSatImproved(satInstance));
+		coreDead = computeCoreDead();
 		printOut("Computed Core/Dead Features: " + ((System.nanoTime() - time) / 1_000_000) / 1000.0, 1);
 
 		measureFGStatistic(fg_strong_complete);
 		measureOfflineTime();
 		measureOnlineTime(currentSeed, orderList, fg_strong_complete, fg_non_complete);
+		if (solverPool != null) {
+			printOut("Solver Pool:                 " + solverPool, 1);
+		}
+	}
+
+	private int[] computeCoreDead() {
+		final BasicSolver solver = getSolver();
+		try {
+			return LongRunningWrapper.runMethod(new ConditionallyCoreDeadAnalysisSatImproved(solver));
+		} finally {
+			if (solverPool != null) {
+				solverPool.release(solver);
+			}
+		}
 	}
 
 	private void measureFGStatistic(IFeatureGraph2 fg_strong_complete) {
@@ -217,7 +235,7 @@ public class MIGTest extends ABenchmark {
 			offlineTimeCSVWriter.addValue("FGStrongComplete");
 			offlineTimeCSVWriter.addValue(j);
 			final long localTime = System.nanoTime();
-			AdjList.build(AdjMatrix.build(satInstance, true));
+			CompressedAdjList.build(AdjMatrix.build(satInstance, true));
 			offlineTimeCSVWriter.addValue(System.nanoTime() - localTime);
 			offlineTimeCSVWriter.flush();
 		}
@@ -232,7 +250,7 @@ public class MIGTest extends ABenchmark {
 			offlineTimeCSVWriter.addValue(j);
 
 			final long localTime = System.nanoTime();
-			AdjList.build(AdjMatrix.build(satInstance, false));
+			CompressedAdjList.build(AdjMatrix.build(satInstance, false));
 			offlineTimeCSVWriter.addValue(System.nanoTime() - localTime);
 			offlineTimeCSVWriter.flush();
 		}
@@ -247,7 +265,7 @@ public class MIGTest extends ABenchmark {
 			offlineTimeCSVWriter.addValue(j);
 			final long localTime = System.nanoTime();
 			LongRunningWrapper.runMethod(new ConditionallyCoreDeadAnalysisSatImproved(satInstance));
-			getSolver();
+			createSolver();
 			offlineTimeCSVWriter.addValue(System.nanoTime() - localTime);
 			offlineTimeCSVWriter.flush();
 		}
@@ -373,6 +391,17 @@ public class MIGTest extends ABenchmark {
 	}
 
 	private BasicSolver getSolver() {
+		if (solverPool == null) {
+			return createSolver();
+		}
+		try {
+			return solverPool.acquire(satInstance);
+		} catch (ContradictionException e) {
+			throw new RuntimeException();
+		}
+	}
+
+	private BasicSolver createSolver() {
 		try {
 			return new BasicSolver(satInstance);
 		} catch (ContradictionException e) {
@@ -0,0 +1,148 @@
+package de.ovgu.featureide.fm.benchmark.simple;
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2015  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ * 
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.prop4j.Node;
+import org.prop4j.solver.MultiSolver;
+import org.prop4j.solver.SatInstance;
+import org.sat4j.specs.ContradictionException;
+
+import de.ovgu.featureide.fm.benchmark.ABenchmark;
+import de.ovgu.featureide.fm.benchmark.CSVWriter;
+import de.ovgu.featureide.fm.benchmark.properties.IntProperty;
+import de.ovgu.featureide.fm.benchmark.simple.properties.Rounds;
+import de.ovgu.featureide.fm.core.base.IFeatureModel;
+import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator;
+import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator.CNFType;
+
+/**
+ * Measures the backbone computation of {@link MultiSolver} for 1 to N threads.
+ * In each round, the same random assumptions are used for all thread counts.
+ */
+public class MultiSolverTest extends ABenchmark {
+
+	private static final IntProperty maxThreads = new IntProperty("max_threads");
+	private static final IntProperty assumptionCount = new IntProperty("backbone_assumptions");
+	private static final Rounds backboneRounds = new Rounds("backbone_rounds");
+
+	private static final int dummyRounds = 1;
+
+	private CSVWriter timeCSVWriter;
+
+	public static void main(String[] args) {
+		try {
+			new MultiSolverTest().run();
+		} catch (Throwable e) {
+			printErr(e.getMessage());
+			e.printStackTrace();
+		}
+	}
+
+	public void run() {
+		final long currentSeed = getNextSeed();
+
+		timeCSVWriter = new CSVWriter();
+		timeCSVWriter.setOutputPath(rootOutPath);
+		timeCSVWriter.setFileName("backboneTimes.csv");
+
+		for (String modelName : modelNames) {
+			evaluateFeatureModel(currentSeed, modelName);
+		}
+		printOut("--- Done! ---");
+	}
+
+	private void evaluateFeatureModel(long currentSeed, String modelName) {
+		printOut(modelName);
+		final IFeatureModel fm = init(modelName);
+		modelName = modelName.replace(",", "");
+
+		final AdvancedNodeCreator nc = new AdvancedNodeCreator(fm);
+		nc.setCnfType(CNFType.Regular);
+		nc.setIncludeBooleanValues(false);
+		final Node cnf = nc.createNodes();
+		final SatInstance satInstance = new SatInstance(cnf);
+
+		final List<int[]> assumptionsList = createAssumptions(satInstance.getNumberOfVariables(), new Random(currentSeed));
+		final int numberOfThreads = maxThreads.getValue() > 0 ? maxThreads.getValue() : Runtime.getRuntime().availableProcessors();
+
+		long sequentialTime = 0;
+		for (int threads = 1; threads <= numberOfThreads; threads++) {
+			final MultiSolver solver;
+			try {
+				solver = new MultiSolver(satInstance, threads);
+			} catch (ContradictionException e) {
+				printErr("Unsatisfiable model: " + modelName);
+				return;
+			}
+
+			long time = 0;
+			for (int j = -dummyRounds; j < assumptionsList.size(); j++) {
+				final int[] assumptions = assumptionsList.get(Math.max(j, 0));
+				timeCSVWriter.setDummy(j < 0);
+				timeCSVWriter.createNewLine();
+				timeCSVWriter.addValue(modelName);
+				timeCSVWriter.addValue(threads);
+				timeCSVWriter.addValue(j);
+
+				for (int assumption : assumptions) {
+					solver.assignmentPush(assumption);
+				}
+				final long localTime = System.nanoTime();
+				final int[] backbone = solver.findBackbone();
+				final long elapsedTime = System.nanoTime() - localTime;
+				solver.assignmentClear(0);
+
+				if (j >= 0) {
+					time += elapsedTime;
+				}
+				timeCSVWriter.addValue(elapsedTime);
+				timeCSVWriter.addValue(backbone != null ? backbone.length : -1);
+				timeCSVWriter.flush();
+			}
+			solver.shutdown();
+
+			if (threads == 1) {
+				sequentialTime = time;
+			}
+			printOut(threads + " Thread(s): " + (time / 1_000_000) / 1000.0 + " (Speedup: "
+					+ (time > 0 ? Math.round((100.0 * sequentialTime) / time) / 100.0 : 0) + ")", 1);
+		}
+	}
+
+	private List<int[]> createAssumptions(int numberOfVariables, Random random) {
+		final int rounds = Math.max(1, backboneRounds.getValue());
+		final List<int[]> assumptionsList = new ArrayList<>(rounds);
+		for (int i = 0; i < rounds; i++) {
+			final int[] assumptions = new int[Math.min(assumptionCount.getValue(), numberOfVariables)];
+			for (int j = 0; j < assumptions.length; j++) {
+				final int variable = random.nextInt(numberOfVariables) + 1;
+				assumptions[j] = random.nextBoolean() ? variable : -variable;
+			}
+			assumptionsList.add(assumptions);
+		}
+		return assumptionsList;
+	}
+
+}
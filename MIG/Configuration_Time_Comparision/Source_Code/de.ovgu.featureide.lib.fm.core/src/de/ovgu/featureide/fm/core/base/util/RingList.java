@@ -86,6 +86,10 @@ public class RingList<T> implements Iterable<T> {
 		return ring.size();
 	}
 
+	public int getMaxSize() {
+		return size;
+	}
+
 	public T get(int k) {
 		return ring.get((firstPointer + k) % size);
 	}
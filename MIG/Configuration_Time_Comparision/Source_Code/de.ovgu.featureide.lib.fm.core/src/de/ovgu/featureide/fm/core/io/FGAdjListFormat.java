@@ -20,49 +20,249 @@
  */
 package de.ovgu.featureide.fm.core.io;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
 
 import org.prop4j.analyses.AdjList;
+import org.prop4j.analyses.AdjList.Vertex;
+import org.prop4j.analyses.CompressedAdjList;
 
 import de.ovgu.featureide.fm.core.Logger;
 import de.ovgu.featureide.fm.core.PluginID;
+import de.ovgu.featureide.fm.core.editing.cnf.Clause;
 
 /**
  * Reads / Writes a feature graph.
+ * <p>
+ * Binary layout (version 1, big endian):
+ * <ul>
+ * <li>magic number {@code FGAL} (4 bytes) and version (1 byte)</li>
+ * <li>number of variables n (varint) and the core value of each variable (1 byte each)</li>
+ * <li>number of complex clauses, followed by the length and the literals of each clause</li>
+ * <li>for each of the 2n literals (-1, 1, -2, 2, ...) the number of strong edges and the edges</li>
+ * <li>for each of the 2n literals the number of complex clause indices and the indices</li>
+ * <li>CRC32 checksum of all preceding bytes (4 bytes)</li>
+ * </ul>
+ * Counts and clause indices are stored as unsigned varints, literals as zigzag encoded varints.
+ * <p>
+ * Files are always stored as raw bytes, either by {@link #write(AdjList, Path)} and {@link #read(Path)} or by a file handler,
+ * which uses the methods of {@link IBinaryPersistentFormat}.
+ * The string based methods of {@link IPersistentFormat} map each byte to one ISO-8859-1 character and must not be used for files.
  * 
  * @author Sebastian Krieter
  */
-public class FGAdjListFormat implements IPersistentFormat<AdjList> {
+public class FGAdjListFormat implements IBinaryPersistentFormat<AdjList> {
 
 	public static final String ID = PluginID.PLUGIN_ID + ".format.fg." + FGAdjListFormat.class.getSimpleName();
 
+	private static final int MAGIC_NUMBER = ('F' << 24) | ('G' << 16) | ('A' << 8) | 'L';
+	private static final byte VERSION = 1;
+	private static final Charset CHARSET = Charset.forName("ISO-8859-1");
+
+	public static byte[] toBytes(AdjList adjList) {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		writeInt(out, MAGIC_NUMBER);
+		out.write(VERSION);
+
+		final List<Vertex> vertices = adjList.getAdjList();
+		writeVarInt(out, vertices.size());
+		for (Vertex vertex : vertices) {
+			out.write(vertex.getCore());
+		}
+
+		final List<Clause> complexClauses = adjList.getComplexClauses();
+		writeVarInt(out, complexClauses.size());
+		for (Clause clause : complexClauses) {
+			writeArray(out, clause.getLiterals(), true);
+		}
+
+		for (Vertex vertex : vertices) {
+			writeArray(out, vertex.getNegStrongEdges(), true);
+			writeArray(out, vertex.getPosStrongEdges(), true);
+		}
+		for (Vertex vertex : vertices) {
+			writeArray(out, vertex.getNegComplexClauses(), false);
+			writeArray(out, vertex.getPosComplexClauses(), false);
+		}
+
+		final CRC32 crc = new CRC32();
+		final byte[] content = out.toByteArray();
+		crc.update(content);
+		writeInt(out, (int) crc.getValue());
+		return out.toByteArray();
+	}
+
+	public static CompressedAdjList fromBytes(ByteBuffer buffer) throws IOException {
+		buffer = buffer.slice().order(ByteOrder.BIG_ENDIAN);
+		final int checksumPosition = buffer.limit() - 4;
+		if (checksumPosition < 5) {
+			throw new IOException("Feature graph is truncated");
+		}
+		if (buffer.getInt(0) != MAGIC_NUMBER) {
+			throw new IOException("Not a feature graph");
+		}
+		if (buffer.get(4) != VERSION) {
+			throw new IOException("Unsupported feature graph version " + buffer.get(4));
+		}
+		final CRC32 crc = new CRC32();
+		final ByteBuffer content = buffer.duplicate();
+		content.limit(checksumPosition);
+		crc.update(content);
+		if ((int) crc.getValue() != buffer.getInt(checksumPosition)) {
+			throw new IOException("Feature graph checksum mismatch");
+		}
+
+		try {
+			buffer.position(5);
+			final int numberOfVariables = readLength(buffer, checksumPosition);
+			final byte[] core = new byte[numberOfVariables];
+			buffer.get(core);
+
+			final int complexClauseCount = readLength(buffer, checksumPosition);
+			final List<Clause> complexClauses = new ArrayList<>(complexClauseCount);
+			for (int i = 0; i < complexClauseCount; i++) {
+				final int[] literals = new int[readLength(buffer, checksumPosition)];
+				for (int j = 0; j < literals.length; j++) {
+					literals[j] = readSignedVarInt(buffer);
+				}
+				complexClauses.add(new Clause(literals));
+			}
+
+			final int[] strongEdgeStart = new int[(numberOfVariables << 1) + 1];
+			final int[] strongEdges = readArrays(buffer, strongEdgeStart, true, checksumPosition);
+			final int[] complexClauseStart = new int[(numberOfVariables << 1) + 1];
+			final int[] complexClauseIndices = readArrays(buffer, complexClauseStart, false, checksumPosition);
+
+			if (buffer.position() != checksumPosition) {
+				throw new IOException("Feature graph contains unexpected data");
+			}
+			return new CompressedAdjList(core, strongEdgeStart, strongEdges, complexClauseStart, complexClauseIndices, complexClauses);
+		} catch (RuntimeException e) {
+			throw new IOException("Corrupt feature graph", e);
+		}
+	}
+
+	/**
+	 * Maps the given file into memory and builds the graph directly from its content.
+	 */
+	public static CompressedAdjList read(Path path) throws IOException {
+		try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			return fromBytes(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+	}
+
+	public static void write(AdjList adjList, Path path) throws IOException {
+		FileSystem.write(path, toBytes(adjList));
+	}
+
+	private static void writeInt(ByteArrayOutputStream out, int value) {
+		out.write(value >>> 24);
+		out.write(value >>> 16);
+		out.write(value >>> 8);
+		out.write(value);
+	}
+
+	private static void writeVarInt(ByteArrayOutputStream out, int value) {
+		while ((value & ~0x7f) != 0) {
+			out.write((value & 0x7f) | 0x80);
+			value >>>= 7;
+		}
+		out.write(value);
+	}
+
+	private static void writeArray(ByteArrayOutputStream out, int[] array, boolean signed) {
+		writeVarInt(out, array.length);
+		for (int value : array) {
+			writeVarInt(out, signed ? (value << 1) ^ (value >> 31) : value);
+		}
+	}
+
+	private static int readVarInt(ByteBuffer buffer) throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 32; shift += 7) {
+			final byte b = buffer.get();
+			value |= (b & 0x7f) << shift;
+			if (b >= 0) {
+				return value;
+			}
+		}
+		throw new IOException("Malformed varint in feature graph");
+	}
+
+	private static int readSignedVarInt(ByteBuffer buffer) throws IOException {
+		final int value = readVarInt(buffer);
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	/**
+	 * Reads a number of elements and checks that the remaining content is large enough, as each element needs at least one byte.
+	 */
+	private static int readLength(ByteBuffer buffer, int limit) throws IOException {
+		final int length = readVarInt(buffer);
+		if (length < 0 || length > limit - buffer.position()) {
+			throw new IOException("Corrupt feature graph");
+		}
+		return length;
+	}
+
+	/**
+	 * Reads one array per literal into a single array and stores the start of each array in {@code start}.
+	 */
+	private static int[] readArrays(ByteBuffer buffer, int[] start, boolean signed, int limit) throws IOException {
+		int[] values = new int[16];
+		int size = 0;
+		for (int i = 1; i < start.length; i++) {
+			final int length = readLength(buffer, limit);
+			if (size + length > values.length) {
+				values = Arrays.copyOf(values, Math.max(values.length << 1, size + length));
+			}
+			for (int j = 0; j < length; j++) {
+				values[size++] = signed ? readSignedVarInt(buffer) : readVarInt(buffer);
+			}
+			start[i] = size;
+		}
+		return Arrays.copyOf(values, size);
+	}
+
 	@Override
-	public ProblemList read(AdjList object, CharSequence source) {
+	public ProblemList read(AdjList object, byte[] source) {
 		ProblemList problems = new ProblemList();
-		try (final ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(source.toString().getBytes(Charset.forName("UTF-8"))))) {
-			object.copyValues((AdjList) in.readObject());
-		} catch (IOException | ClassNotFoundException e) {
+		try {
+			object.copyValues(fromBytes(ByteBuffer.wrap(source)));
+		} catch (IOException e) {
 			problems.add(new Problem(e));
 		}
 		return problems;
 	}
 
+	@Override
+	public byte[] writeBytes(AdjList object) {
+		return toBytes(object);
+	}
+
+	@Override
+	public ProblemList read(AdjList object, CharSequence source) {
+		return read(object, source.toString().getBytes(CHARSET));
+	}
+
 	@Override
 	public String write(AdjList object) {
-		final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-		String ret = null;
-		try (final ObjectOutputStream out = new ObjectOutputStream(byteArrayOutputStream)) {
-			out.writeObject(object);
-			ret = byteArrayOutputStream.toString("UTF-8");
-		} catch (IOException e) {
+		try {
+			return new String(toBytes(object), CHARSET);
+		} catch (RuntimeException e) {
 			Logger.logError(e);
+			return null;
 		}
-		return ret;
 	}
 
 	@Override
@@ -92,7 +292,7 @@ public class FGAdjListFormat implements IPersistentFormat<AdjList> {
 
 	@Override
 	public boolean supportsContent(CharSequence content) {
-		return supportsRead();
+		return content.length() >= 5 && content.charAt(0) == 'F' && content.charAt(1) == 'G' && content.charAt(2) == 'A' && content.charAt(3) == 'L';
 	}
 
 }
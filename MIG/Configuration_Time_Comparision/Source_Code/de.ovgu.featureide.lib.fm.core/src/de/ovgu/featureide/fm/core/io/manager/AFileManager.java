@@ -41,6 +41,7 @@ import de.ovgu.featureide.fm.core.base.event.IEventListener;
 import de.ovgu.featureide.fm.core.base.event.IEventManager;
 import de.ovgu.featureide.fm.core.base.impl.FormatManager;
 import de.ovgu.featureide.fm.core.io.FileSystem;
+import de.ovgu.featureide.fm.core.io.IBinaryPersistentFormat;
 import de.ovgu.featureide.fm.core.io.IPersistentFormat;
 import de.ovgu.featureide.fm.core.io.Problem;
 import de.ovgu.featureide.fm.core.io.ProblemList;
@@ -116,7 +117,11 @@ public abstract class AFileManager<T> implements IFileManager, IEventManager {
 					final T featureModel = objectCreator.createObject(path, format);
 					fileHandler.setObject(featureModel);
 					fileHandler.setFormat(format);
-					fileHandler.parse(content);
+					if (format.getInstance() instanceof IBinaryPersistentFormat) {
+						fileHandler.read();
+					} else {
+						fileHandler.parse(content);
+					}
 				} catch (NoSuchExtensionException e) {
 					fileHandler.getLastProblems().add(new Problem(e));
 				}
@@ -264,10 +269,12 @@ public abstract class AFileManager<T> implements IFileManager, IEventManager {
 		}
 		lastProblems.clear();
 		try {
-			final String content = new String(FileSystem.read(path), DEFAULT_CHARSET);
+			final IPersistentFormat<T> instance = format.getInstance();
+			final byte[] content = FileSystem.read(path);
 			List<Problem> problemList;
 			synchronized (saveSyncObject) {
-				problemList = format.getInstance().read(variableObject, content);
+				problemList = (instance instanceof IBinaryPersistentFormat) ? ((IBinaryPersistentFormat<T>) instance).read(variableObject, content)
+					: instance.read(variableObject, new String(content, DEFAULT_CHARSET));
 			}
 			if (problemList != null) {
 				lastProblems.addAll(problemList);
@@ -288,7 +295,9 @@ public abstract class AFileManager<T> implements IFileManager, IEventManager {
 	public boolean save() {
 		lastProblems.clear();
 		try {
-			final byte[] content = format.getInstance().write(variableObject).getBytes(DEFAULT_CHARSET);
+			final IPersistentFormat<T> instance = format.getInstance();
+			final byte[] content = (instance instanceof IBinaryPersistentFormat) ? ((IBinaryPersistentFormat<T>) instance).writeBytes(variableObject)
+				: instance.write(variableObject).getBytes(DEFAULT_CHARSET);
 			synchronized (saveSyncObject) {
 				FileSystem.write(path, content);
 			}
@@ -21,6 +21,7 @@
 package de.ovgu.featureide.fm.core.io.manager;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -31,6 +32,7 @@ import java.util.List;
 
 import de.ovgu.featureide.fm.core.base.impl.FormatManager;
 import de.ovgu.featureide.fm.core.io.FileSystem;
+import de.ovgu.featureide.fm.core.io.IBinaryPersistentFormat;
 import de.ovgu.featureide.fm.core.io.IPersistentFormat;
 import de.ovgu.featureide.fm.core.io.Problem;
 import de.ovgu.featureide.fm.core.io.ProblemList;
@@ -82,7 +84,11 @@ public class SimpleFileHandler<T> {
 						.add(new Problem(new FormatManager.NoSuchExtensionException("No format found for file \"" + fileName + "\"!")));
 			} else {
 				fileHandler.setFormat(format);
-				fileHandler.parse(content);
+				if (format.getInstance() instanceof IBinaryPersistentFormat) {
+					fileHandler.read();
+				} else {
+					fileHandler.parse(content);
+				}
 			}
 		}
 		return fileHandler.getLastProblems();
@@ -150,14 +156,61 @@ public class SimpleFileHandler<T> {
 
 	public boolean read() {
 		problemList.clear();
+		final IPersistentFormat<T> instance = format.getInstance();
+		if (instance instanceof IBinaryPersistentFormat) {
+			return parse((IBinaryPersistentFormat<T>) instance, getBytes());
+		}
 		return parse(getContent());
 	}
 
 	public boolean read(InputStream inputStream) {
 		problemList.clear();
+		final IPersistentFormat<T> instance = format.getInstance();
+		if (instance instanceof IBinaryPersistentFormat) {
+			return parse((IBinaryPersistentFormat<T>) instance, getBytes(inputStream));
+		}
 		return parse(getContent(inputStream));
 	}
 
+	private byte[] getBytes() {
+		if (!Files.exists(path)) {
+			problemList.add(new Problem(new FileNotFoundException(path.toString())));
+			return null;
+		}
+
+		try {
+			return FileSystem.read(path);
+		} catch (final Exception e) {
+			problemList.add(new Problem(e));
+			return null;
+		}
+	}
+
+	private byte[] getBytes(InputStream inputStream) {
+		try (final ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+			final byte[] buffer = new byte[8192];
+			for (int length; (length = inputStream.read(buffer)) != -1;) {
+				out.write(buffer, 0, length);
+			}
+			return out.toByteArray();
+		} catch (final Exception e) {
+			problemList.add(new Problem(e));
+			return null;
+		}
+	}
+
+	private boolean parse(IBinaryPersistentFormat<T> binaryFormat, byte[] content) {
+		if (content != null) {
+			try {
+				problemList.addAll(binaryFormat.read(object, content));
+			} catch (final Exception e) {
+				problemList.add(new Problem(e));
+			}
+		}
+
+		return !problemList.containsError();
+	}
+
 	String getContent() {
 		if (!Files.exists(path)) {
 			problemList.add(new Problem(new FileNotFoundException(path.toString())));
@@ -206,7 +259,9 @@ public class SimpleFileHandler<T> {
 	public boolean write() {
 		problemList.clear();
 		try {
-			final byte[] content = format.getInstance().write(object).getBytes(DEFAULT_CHARSET);
+			final IPersistentFormat<T> instance = format.getInstance();
+			final byte[] content = (instance instanceof IBinaryPersistentFormat) ? ((IBinaryPersistentFormat<T>) instance).writeBytes(object)
+				: instance.write(object).getBytes(DEFAULT_CHARSET);
 			FileSystem.write(path, content);
 		} catch (final Exception e) {
 			problemList.add(new Problem(e));
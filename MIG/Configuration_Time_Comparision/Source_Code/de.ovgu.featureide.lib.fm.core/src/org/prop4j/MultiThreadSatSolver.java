@@ -20,26 +20,150 @@
  */
 package org.prop4j;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.prop4j.solver.ISatSolver.SelectionStrategy;
+import org.prop4j.solver.VarOrderHeap2;
 import org.sat4j.core.VecInt;
 import org.sat4j.minisat.SolverFactory;
+import org.sat4j.minisat.core.RestartStrategy;
+import org.sat4j.minisat.orders.NegativeLiteralSelectionStrategy;
+import org.sat4j.minisat.orders.PositiveLiteralSelectionStrategy;
+import org.sat4j.minisat.orders.RSATPhaseSelectionStrategy;
+import org.sat4j.minisat.orders.RandomLiteralSelectionStrategy;
+import org.sat4j.minisat.restarts.ArminRestarts;
+import org.sat4j.minisat.restarts.LubyRestarts;
+import org.sat4j.minisat.restarts.MiniSATRestarts;
+import org.sat4j.minisat.restarts.NoRestarts;
 import org.sat4j.specs.ContradictionException;
 import org.sat4j.specs.ISolver;
+import org.sat4j.specs.ISolverService;
 import org.sat4j.specs.IVecInt;
 import org.sat4j.specs.TimeoutException;
+import org.sat4j.tools.SearchListenerAdapter;
 
 import de.ovgu.featureide.fm.core.Logger;
 
 /**
- * SatSolver wrapper for multi-thread usage.
+ * SatSolver wrapper for multi-thread usage.<br>
+ * Besides splitting work between its solvers, it can run a portfolio of differently configured solvers on the same
+ * query (see {@link #initPortfolio(PortfolioConfiguration...)} and {@link #isSatisfiable(List)}).
  * 
  * @author Sebastian Krieter
  */
 public class MultiThreadSatSolver {
 
+	public static enum Restarts {
+		DEFAULT, ARMIN, LUBY, MINISAT, NONE
+	}
+
+	/**
+	 * Configuration of one portfolio solver.
+	 * The seed is used to shuffle the initial variable order of the heap, a seed of {@code 0} keeps the natural order.
+	 */
+	public static final class PortfolioConfiguration {
+		private final SelectionStrategy strategy;
+		private final Restarts restarts;
+		private final long seed;
+
+		public PortfolioConfiguration(SelectionStrategy strategy, Restarts restarts, long seed) {
+			this.strategy = strategy;
+			this.restarts = restarts;
+			this.seed = seed;
+		}
+
+		public SelectionStrategy getStrategy() {
+			return strategy;
+		}
+
+		public Restarts getRestarts() {
+			return restarts;
+		}
+
+		public long getSeed() {
+			return seed;
+		}
+
+		private void configure(org.sat4j.minisat.core.Solver<?> solver, int numberOfVars) {
+			final int[] order = new int[numberOfVars];
+			for (int i = 0; i < order.length; i++) {
+				order[i] = i + 1;
+			}
+			if (seed != 0) {
+				final Random rnd = new Random(seed);
+				for (int i = order.length - 1; i >= 0; i--) {
+					final int index = rnd.nextInt(i + 1);
+					final int a = order[index];
+					order[index] = order[i];
+					order[i] = a;
+				}
+			}
+
+			switch (strategy) {
+			case NEGATIVE:
+				solver.setOrder(new VarOrderHeap2(new NegativeLiteralSelectionStrategy(), order));
+				break;
+			case ORG:
+				solver.setOrder(new VarOrderHeap2(new RSATPhaseSelectionStrategy(), order));
+				break;
+			case POSITIVE:
+				solver.setOrder(new VarOrderHeap2(new PositiveLiteralSelectionStrategy(), order));
+				break;
+			case RANDOM:
+				solver.setOrder(new VarOrderHeap2(new RandomLiteralSelectionStrategy(), order));
+				break;
+			default:
+				break;
+			}
+
+			final RestartStrategy restartStrategy;
+			switch (restarts) {
+			case ARMIN:
+				restartStrategy = new ArminRestarts();
+				break;
+			case LUBY:
+				restartStrategy = new LubyRestarts();
+				break;
+			case MINISAT:
+				restartStrategy = new MiniSATRestarts();
+				break;
+			case NONE:
+				restartStrategy = new NoRestarts();
+				break;
+			case DEFAULT:
+			default:
+				restartStrategy = null;
+				break;
+			}
+			if (restartStrategy != null) {
+				solver.setRestartStrategy(restartStrategy);
+			}
+		}
+
+		@Override
+		public String toString() {
+			return strategy + "/" + restarts + "/" + seed;
+		}
+	}
+
+	public static PortfolioConfiguration[] getDefaultPortfolio() {
+		return new PortfolioConfiguration[] { //
+				new PortfolioConfiguration(SelectionStrategy.ORG, Restarts.DEFAULT, 0), //
+				new PortfolioConfiguration(SelectionStrategy.NEGATIVE, Restarts.LUBY, 0), //
+				new PortfolioConfiguration(SelectionStrategy.POSITIVE, Restarts.MINISAT, 0), //
+				new PortfolioConfiguration(SelectionStrategy.RANDOM, Restarts.ARMIN, 1), //
+		};
+	}
+
 	private static final class Solver {
 		private final ISolver solver;
 		private IVecInt backbone = new VecInt();
@@ -55,8 +179,74 @@ public class MultiThreadSatSolver {
 		}
 	}
 
+	/**
+	 * Stops the search of a portfolio solver as soon as another solver has answered the current query.
+	 */
+	private final class CancelListener extends SearchListenerAdapter<ISolverService> {
+		private static final long serialVersionUID = 1L;
+
+		private final ISolver solver;
+
+		public CancelListener(ISolver solver) {
+			this.solver = solver;
+		}
+
+		@Override
+		public void beginLoop() {
+			if (portfolioAnswered) {
+				solver.expireTimeout();
+			}
+		}
+	}
+
+	private final class PortfolioTask implements Runnable {
+		private final int index;
+		private Boolean result = null;
+
+		public PortfolioTask(int index) {
+			this.index = index;
+		}
+
+		@Override
+		public void run() {
+			result = null;
+			if (portfolioAnswered) {
+				return;
+			}
+			try {
+				result = portfolioSolvers[index].isSatisfiable();
+			} catch (TimeoutException e) {
+				return;
+			}
+			synchronized (MultiThreadSatSolver.this) {
+				if (!portfolioAnswered) {
+					portfolioAnswered = true;
+					portfolioWinner = index;
+					if (result) {
+						final int[] solverModel = portfolioSolvers[index].solver.model();
+						portfolioModel = Arrays.copyOf(solverModel, portfolioSolvers[index].solver.nVars());
+					} else {
+						portfolioModel = null;
+					}
+				}
+			}
+		}
+	}
+
 	private final Solver[] solvers;
 
+	private PortfolioConfiguration[] portfolio = null;
+	private Solver[] portfolioSolvers = null;
+	private PortfolioTask[] portfolioTasks = null;
+	private long[] portfolioWins = null;
+	private long portfolioTimeouts = 0;
+	private ExecutorService executor = null;
+
+	private boolean portfolioConsistent = true;
+	private volatile boolean portfolioAnswered = false;
+	private int portfolioWinner = -1;
+	private int[] portfolioModel = null;
+
 	protected final Map<Object, Integer> varToInt = new HashMap<>();
 
 	private int[] model = null;
@@ -79,7 +269,9 @@ public class MultiThreadSatSolver {
 
 	public boolean initSolver(int id) {
 		solvers[id] = new Solver(varToInt.size(), timeout);
-		addClauses(node.clone(), id);
+		if (!addClauses(node.clone(), solvers[id])) {
+			satisfiable = false;
+		}
 
 		if (literals != null) {
 			solvers[id].backbone = newCopiedVecInt(literals, 10);
@@ -130,35 +322,36 @@ public class MultiThreadSatSolver {
 		}
 	}
 
-	private void addClauses(Node root, int id) {
+	private boolean addClauses(Node root, Solver solver) {
 		try {
 			if (root instanceof And) {
 				for (Node node : root.getChildren()) {
-					addClause(node, id);
+					addClause(node, solver);
 				}
 			} else {
-				addClause(root, id);
+				addClause(root, solver);
 			}
+			return true;
 		} catch (ContradictionException e) {
-			satisfiable = false;
+			return false;
 		}
 	}
 
-	private void addClause(Node node, int id) throws ContradictionException {
+	private void addClause(Node node, Solver solver) throws ContradictionException {
 		if (node instanceof Or) {
 			final int[] clause = new int[node.children.length];
 			int i = 0;
 			for (Node child : node.getChildren()) {
 				clause[i++] = getIntOfLiteral(child);
 			}
-			addClause(clause, id);
+			addClause(clause, solver);
 		} else {
-			addClause(new int[] { getIntOfLiteral(node) }, id);
+			addClause(new int[] { getIntOfLiteral(node) }, solver);
 		}
 	}
 
-	private void addClause(int[] literals, int id) throws ContradictionException {
-		solvers[id].solver.addClause(new VecInt(literals));
+	private void addClause(int[] literals, Solver solver) throws ContradictionException {
+		solver.solver.addClause(new VecInt(literals));
 	}
 
 	private VecInt newCopiedVecInt(int[] literals, int additionalSpace) {
@@ -238,6 +431,166 @@ public class MultiThreadSatSolver {
 		return 0;
 	}
 
+	/**
+	 * Creates one solver for each given configuration.
+	 * All following calls of {@link #isSatisfiable(List)} run these solvers as a portfolio.
+	 * 
+	 * @param configurations the portfolio (see {@link #getDefaultPortfolio()})
+	 * @return {@code false} if the formula is already contradictory, {@code true} otherwise
+	 * @throws IllegalArgumentException if no configuration is given
+	 */
+	public boolean initPortfolio(PortfolioConfiguration... configurations) {
+		if (configurations.length == 0) {
+			throw new IllegalArgumentException("Portfolio must contain at least one configuration");
+		}
+		shutdown();
+		portfolio = configurations;
+		portfolioSolvers = new Solver[configurations.length];
+		portfolioTasks = new PortfolioTask[configurations.length];
+		portfolioWins = new long[configurations.length];
+		portfolioTimeouts = 0;
+
+		boolean consistent = true;
+		for (int i = 0; i < configurations.length; i++) {
+			final Solver solver = new Solver(varToInt.size(), timeout);
+			final org.sat4j.minisat.core.Solver<?> sat4jSolver = (org.sat4j.minisat.core.Solver<?>) solver.solver;
+			configurations[i].configure(sat4jSolver, varToInt.size());
+			sat4jSolver.setSearchListener(new CancelListener(sat4jSolver));
+			consistent &= addClauses(node.clone(), solver);
+			portfolioSolvers[i] = solver;
+			portfolioTasks[i] = new PortfolioTask(i);
+		}
+		portfolioConsistent = consistent;
+		return consistent;
+	}
+
+	/**
+	 * Runs the same query on all solvers of the portfolio and returns the first result.
+	 * The remaining solvers are cancelled as soon as one of them has finished.
+	 * Must not be called concurrently.
+	 * 
+	 * @param assumptions the literals that are assumed to be true
+	 * @return {@code true} if the formula is satisfiable under the given assumptions
+	 * @throws TimeoutException if all solvers of the portfolio time out
+	 */
+	public boolean isSatisfiable(List<Literal> assumptions) throws TimeoutException {
+		if (portfolioSolvers == null) {
+			throw new IllegalStateException("Portfolio not initialized");
+		}
+		portfolioAnswered = false;
+		portfolioWinner = -1;
+		portfolioModel = null;
+		if (!portfolioConsistent) {
+			return false;
+		}
+
+		final int[] assumptionLiterals = new int[assumptions.size()];
+		int i = 0;
+		for (Literal node : assumptions) {
+			assumptionLiterals[i++] = getIntOfLiteral(node);
+		}
+		for (Solver solver : portfolioSolvers) {
+			solver.backbone = newCopiedVecInt(assumptionLiterals, 0);
+		}
+
+		final Future<?>[] futures = new Future<?>[portfolioTasks.length - 1];
+		for (int j = 1; j < portfolioTasks.length; j++) {
+			futures[j - 1] = getExecutor().submit(portfolioTasks[j]);
+		}
+		portfolioTasks[0].run();
+		for (Future<?> future : futures) {
+			try {
+				future.get();
+			} catch (InterruptedException | ExecutionException e) {
+				Logger.logError(e);
+			}
+		}
+
+		synchronized (this) {
+			if (portfolioWinner < 0) {
+				portfolioTimeouts++;
+				throw new TimeoutException();
+			}
+			portfolioWins[portfolioWinner]++;
+			return portfolioTasks[portfolioWinner].result;
+		}
+	}
+
+	/**
+	 * @return the model found by the last portfolio query or {@code null} if it was not satisfiable
+	 */
+	public synchronized int[] getPortfolioModel() {
+		return portfolioModel == null ? null : Arrays.copyOf(portfolioModel, portfolioModel.length);
+	}
+
+	/**
+	 * @return the index of the configuration that answered the last portfolio query or {@code -1}
+	 */
+	public synchronized int getPortfolioWinner() {
+		return portfolioWinner;
+	}
+
+	public PortfolioConfiguration[] getPortfolio() {
+		return portfolio;
+	}
+
+	/**
+	 * @return the number of queries answered by each configuration of the portfolio
+	 */
+	public synchronized long[] getPortfolioWins() {
+		return portfolioWins == null ? new long[0] : Arrays.copyOf(portfolioWins, portfolioWins.length);
+	}
+
+	public synchronized long getPortfolioTimeouts() {
+		return portfolioTimeouts;
+	}
+
+	public synchronized void resetPortfolioStatistics() {
+		if (portfolioWins != null) {
+			Arrays.fill(portfolioWins, 0);
+		}
+		portfolioTimeouts = 0;
+	}
+
+	public synchronized String getPortfolioStatistics() {
+		final StringBuilder sb = new StringBuilder();
+		if (portfolio != null) {
+			for (int i = 0; i < portfolio.length; i++) {
+				sb.append(portfolio[i]);
+				sb.append(": ");
+				sb.append(portfolioWins[i]);
+				sb.append('\n');
+			}
+			sb.append("Timeouts: ");
+			sb.append(portfolioTimeouts);
+		}
+		return sb.toString();
+	}
+
+	private ExecutorService getExecutor() {
+		if (executor == null) {
+			executor = Executors.newFixedThreadPool(Math.max(1, portfolioTasks.length - 1), new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					final Thread thread = new Thread(r);
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		return executor;
+	}
+
+	/**
+	 * Stops the portfolio threads. They are started again on the next call of {@link #isSatisfiable(List)}.
+	 */
+	public void shutdown() {
+		if (executor != null) {
+			executor.shutdown();
+			executor = null;
+		}
+	}
+
 	private synchronized void updateModel(final int[] tempModel, int start) {
 		for (int j = start; j < tempModel.length; j++) {
 			if (model[j] != tempModel[j]) {
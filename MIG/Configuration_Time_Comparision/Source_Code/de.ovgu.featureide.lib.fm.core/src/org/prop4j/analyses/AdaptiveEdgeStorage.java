@@ -0,0 +1,91 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2016  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ * 
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.analyses;
+
+/**
+ * Starts with a {@link SparseEdgeStorage} and switches to a {@link DenseEdgeStorage} as soon as the sparse storage becomes larger than a dense one.
+ * The number of edges depends on the transitive closure of the feature graph, which cannot be estimated reliably from the clauses,
+ * so the decision is based on the actual footprint of the sparse storage.
+ * While switching, both storages are kept in memory.
+ */
+public class AdaptiveEdgeStorage implements EdgeStorage {
+
+	private static final long serialVersionUID = -3306151950806357302L;
+
+	private final int numVariables;
+	private final long denseSize;
+
+	private EdgeStorage storage;
+	private boolean dense = false;
+
+	public AdaptiveEdgeStorage(int numVariables) {
+		this.numVariables = numVariables;
+		denseSize = DenseEdgeStorage.estimateSize(numVariables);
+		storage = new SparseEdgeStorage(numVariables);
+	}
+
+	@Override
+	public byte get(int fromIndex, int toIndex) {
+		return storage.get(fromIndex, toIndex);
+	}
+
+	@Override
+	public void set(int fromIndex, int toIndex, byte edge) {
+		storage.set(fromIndex, toIndex, edge);
+		if (!dense && storage.size() > denseSize) {
+			switchToDense();
+		}
+	}
+
+	private void switchToDense() {
+		final DenseEdgeStorage denseStorage = new DenseEdgeStorage(numVariables);
+		for (int i = 0; i < numVariables; i++) {
+			for (int j = storage.getNextEdge(i, 0); j >= 0; j = storage.getNextEdge(i, j + 1)) {
+				denseStorage.set(i, j, storage.get(i, j));
+			}
+		}
+		storage = denseStorage;
+		dense = true;
+	}
+
+	@Override
+	public int getNextEdge(int fromIndex, int toIndex) {
+		return storage.getNextEdge(fromIndex, toIndex);
+	}
+
+	@Override
+	public void clear() {
+		storage.clear();
+	}
+
+	@Override
+	public long size() {
+		return storage.size();
+	}
+
+	/**
+	 * @return {@code true} if the edges are stored in a {@link DenseEdgeStorage}
+	 */
+	public boolean isDense() {
+		return dense;
+	}
+
+}
@@ -21,7 +21,6 @@
 package org.prop4j.analyses;
 
 import java.io.Serializable;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -30,7 +29,6 @@ import java.util.ListIterator;
 
 import org.sat4j.core.VecInt;
 import org.sat4j.specs.IVecInt;
-import org.sat4j.specs.IteratorInt;
 
 import de.ovgu.featureide.fm.core.conf.AFeatureGraph2;
 import de.ovgu.featureide.fm.core.editing.cnf.Clause;
@@ -224,23 +222,55 @@ public class AdjList extends AFeatureGraph2 {
 
 	}
 
-	public static class Traverser implements ITraverser {
-		private final ArrayDeque<Integer> changed = new ArrayDeque<>();
-		private final byte[] dfsMark;
-		private final byte[] dfsMark2;
+	/**
+	 * Traverser for an adjacency list that does not allocate memory after its construction.
+	 * Marks are stored as epoch numbers per literal, such that resetting them costs constant time.
+	 * The recursion is replaced by explicit stacks and the unassigned literals of a clause are collected in a reusable buffer.
+	 */
+	public static class EpochTraverser implements ITraverser {
 		private final AdjList adjList;
+
+		private final int[] changed;
+		private final int[] calculationStack;
+		private final int[] weakClauseBuffer;
+		private final int[] calculationClauseBuffer;
+
+		// Marks of the current traversal
+		private final int[] dfsMark;
+		// Marks since the last call of clear()
+		private final int[] dfsMark2;
+		private final int[] relevantVariables;
+
+		private int epoch = 0;
+		private int epoch2 = 0;
+		private int relevantVariableCount = 0;
 		private int[] model = null;
 
-		public Traverser(AdjList adjList) {
+		public EpochTraverser(AdjList adjList) {
 			this.adjList = adjList;
-			this.dfsMark = new byte[adjList.adjList.size()];
-			this.dfsMark2 = new byte[adjList.adjList.size()];
+			final int numberOfVariables = adjList.getNumberOfVariables();
+			changed = new int[numberOfVariables + 1];
+			calculationStack = new int[numberOfVariables << 1];
+			dfsMark = new int[numberOfVariables << 1];
+			dfsMark2 = new int[numberOfVariables << 1];
+			relevantVariables = new int[numberOfVariables];
+			int maxClauseLength = 0;
+			for (Clause clause : adjList.complexClauses) {
+				maxClauseLength = Math.max(maxClauseLength, clause.getLiterals().length);
+			}
+			weakClauseBuffer = new int[maxClauseLength];
+			calculationClauseBuffer = new int[maxClauseLength];
+			clear();
 		}
 
+		private static int getLiteralIndex(int literal) {
+			return ((Math.abs(literal) - 1) << 1) + (literal > 0 ? 1 : 0);
+		}
+
+		@Override
 		public void traverse2(int curVar, int[] model, IVecInt vecInt) {
-			final Vertex vertex = adjList.adjList.get(Math.abs(curVar) - 1);
-			final int[] strongEdges = (curVar > 0) ? vertex.posStrongEdges : vertex.negStrongEdges;
-			for (int i = 0; i < strongEdges.length; i++) {
+			final int[] strongEdges = adjList.getStrongEdgeArray(curVar);
+			for (int i = adjList.getStrongEdgeBegin(curVar), end = adjList.getStrongEdgeEnd(curVar); i < end; i++) {
 				final int literal = strongEdges[i];
 				final int j = Math.abs(literal) - 1;
 				if (model[j] != 0) {
@@ -250,19 +280,27 @@ public class AdjList extends AFeatureGraph2 {
 			}
 		}
 
+		@Override
 		public void clear() {
-			Arrays.fill(dfsMark, (byte) 0);
-			Arrays.fill(dfsMark2, (byte) 0);
+			if (epoch2 == Integer.MAX_VALUE) {
+				Arrays.fill(dfsMark2, 0);
+				epoch2 = 0;
+			}
+			epoch2++;
+			relevantVariableCount = 0;
 		}
 
+		@Override
 		public VecInt getRelevantVariables() {
+			Arrays.sort(relevantVariables, 0, relevantVariableCount);
 			final VecInt vecInt = new VecInt();
-			for (int i = 0; i < dfsMark2.length; i++) {
+			for (int k = 0; k < relevantVariableCount; k++) {
+				final int i = relevantVariables[k];
 				if (model[i] == 0) {
-					if ((dfsMark2[i] & 8) != 0) {
+					if (dfsMark2[(i << 1) + 1] == epoch2) {
 						vecInt.push((i + 1));
 					}
-					if ((dfsMark2[i] & 4) != 0) {
+					if (dfsMark2[i << 1] == epoch2) {
 						vecInt.push(-(i + 1));
 					}
 				}
@@ -270,30 +308,32 @@ public class AdjList extends AFeatureGraph2 {
 			return vecInt;
 		}
 
+		@Override
 		public void traverse(int curVar, int[] model) {
 			this.model = model;
-			Arrays.fill(dfsMark, (byte) 0);
-			changed.clear();
-			changed.push(curVar);
-			traverseStrong(curVar);
-			while (!changed.isEmpty()) {
-				traverseWeak(changed.pop());
+			if (epoch == Integer.MAX_VALUE) {
+				Arrays.fill(dfsMark, 0);
+				epoch = 0;
+			}
+			epoch++;
+
+			int changedSize = 0;
+			changed[changedSize++] = curVar;
+			changedSize = traverseStrong(curVar, changedSize);
+			while (changedSize > 0) {
+				changedSize = traverseWeak(changed[--changedSize], changedSize);
 			}
 		}
 
-		private void traverseWeak(int curVar) {
+		private int traverseWeak(int curVar, int changedSize) {
 			final int curIndex = Math.abs(curVar) - 1;
-
-			final Vertex vertex = adjList.adjList.get(curIndex);
-			final int[] complexClauses = (curVar > 0) ? vertex.posComplexClauses : vertex.negComplexClauses;
+			final int[] complexClauses = adjList.getComplexClauseArray(curVar);
 
 			// Weak Edges
-			final VecInt v = new VecInt();
-			outerLoop: for (int i = 0; i < complexClauses.length; i++) {
-				final Clause clause = adjList.complexClauses.get(complexClauses[i]);
+			outerLoop: for (int i = adjList.getComplexClauseBegin(curVar), end = adjList.getComplexClauseEnd(curVar); i < end; i++) {
+				final int[] literals = adjList.complexClauses.get(complexClauses[i]).getLiterals();
 
-				v.clear();
-				final int[] literals = clause.getLiterals();
+				int size = 0;
 				for (int j = 0; j < literals.length; j++) {
 					final int literal = literals[j];
 					final int index = Math.abs(literal) - 1;
@@ -303,122 +343,103 @@ public class AdjList extends AFeatureGraph2 {
 					final int value = model[index];
 
 					if (value == 0) {
-						// add literal to list
-						v.push(literal);
-					} else {
-						if (value == literal) {
-							// Clause is satisfied
-							continue outerLoop;
-						} else {
-							// Do nothing
-						}
+						weakClauseBuffer[size++] = literal;
+					} else if (value == literal) {
+						// Clause is satisfied
+						continue outerLoop;
 					}
 				}
 
 				// if list size == 1 -> strong edge
-				if (v.size() == 1) {
-					final int literal = v.get(0);
-					markStrong(literal);
-					traverseStrong(literal);
+				if (size == 1) {
+					final int literal = weakClauseBuffer[0];
+					changedSize = markStrong(literal, changedSize);
+					changedSize = traverseStrong(literal, changedSize);
 				} else {
-					for (IteratorInt iterator = v.iterator(); iterator.hasNext();) {
-						markForCalculation(iterator.next());
+					for (int j = 0; j < size; j++) {
+						markForCalculation(weakClauseBuffer[j]);
 					}
 				}
 			}
+			return changedSize;
 		}
 
-		private void traverseStrong(int curVar) {
-			final int curIndex = Math.abs(curVar) - 1;
-
-			final Vertex vertex = adjList.adjList.get(curIndex);
-			final int[] strongEdges = curVar > 0 ? vertex.posStrongEdges : vertex.negStrongEdges;
-
-			// Strong Edges
-			for (int i = 0; i < strongEdges.length; i++) {
-				markStrong(strongEdges[i]);
+		private int traverseStrong(int curVar, int changedSize) {
+			final int[] strongEdges = adjList.getStrongEdgeArray(curVar);
+			for (int i = adjList.getStrongEdgeBegin(curVar), end = adjList.getStrongEdgeEnd(curVar); i < end; i++) {
+				changedSize = markStrong(strongEdges[i], changedSize);
 			}
+			return changedSize;
 		}
 
-		private void markStrong(final int literal) {
+		private int markStrong(final int literal, int changedSize) {
 			final int index = Math.abs(literal) - 1;
 			if (model[index] == 0) {
 				model[index] = literal;
-				changed.push(literal);
-			} else {
-				if (model[index] == -literal) {
-					throw new RuntimeException();
-				}
+				changed[changedSize++] = literal;
+			} else if (model[index] == -literal) {
+				throw new RuntimeException();
 			}
+			return changedSize;
 		}
 
-		// Transitive closure for strong edges
-		private void markForCalculation(int curVar) {
-			final int curIndex = Math.abs(curVar) - 1;
-			if (model[curIndex] != 0) {
-				return;
-			}
-
-			final int[] strongEdges;
-			final int[] complexClauses;
-			if (curVar > 0) {
-				if ((dfsMark[curIndex] & 8) != 0) {
-					return;
-				}
-				dfsMark[curIndex] |= 8;
-				dfsMark2[curIndex] |= 8;
-				final Vertex vertex = adjList.adjList.get(curIndex);
-				strongEdges = vertex.posStrongEdges;
-				complexClauses = vertex.posComplexClauses;
-			} else {
-				if ((dfsMark[curIndex] & 4) != 0) {
-					return;
+		// Transitive closure over all unassigned literals
+		private void markForCalculation(int startVar) {
+			int stackSize = mark(startVar, 0);
+			while (stackSize > 0) {
+				final int curVar = calculationStack[--stackSize];
+				final int curIndex = Math.abs(curVar) - 1;
+
+				// Strong Edges
+				final int[] strongEdges = adjList.getStrongEdgeArray(curVar);
+				for (int i = adjList.getStrongEdgeBegin(curVar), end = adjList.getStrongEdgeEnd(curVar); i < end; i++) {
+					stackSize = mark(strongEdges[i], stackSize);
 				}
-				dfsMark[curIndex] |= 4;
-				dfsMark2[curIndex] |= 4;
-				final Vertex vertex = adjList.adjList.get(curIndex);
-				strongEdges = vertex.negStrongEdges;
-				complexClauses = vertex.negComplexClauses;
-			}
-
-			// Strong Edges
-			for (int i = 0; i < strongEdges.length; i++) {
-				markForCalculation(strongEdges[i]);
-			}
-
-			// Weak Edges
-			final VecInt v = new VecInt();
-			outerLoop: for (int i = 0; i < complexClauses.length; i++) {
-				final Clause clause = adjList.complexClauses.get(complexClauses[i]);
 
-				v.clear();
-				final int[] literals = clause.getLiterals();
-				for (int j = 0; j < literals.length; j++) {
-					final int literal = literals[j];
-					final int index = Math.abs(literal) - 1;
-					if (index == curIndex) {
-						continue;
-					}
-					final int value = model[index];
+				// Weak Edges
+				final int[] complexClauses = adjList.getComplexClauseArray(curVar);
+				outerLoop: for (int i = adjList.getComplexClauseBegin(curVar), end = adjList.getComplexClauseEnd(curVar); i < end; i++) {
+					final int[] literals = adjList.complexClauses.get(complexClauses[i]).getLiterals();
+
+					int size = 0;
+					for (int j = 0; j < literals.length; j++) {
+						final int literal = literals[j];
+						final int index = Math.abs(literal) - 1;
+						if (index == curIndex) {
+							continue;
+						}
+						final int value = model[index];
 
-					if (value == 0) {
-						// add literal to list
-						v.push(literal);
-					} else {
-						if (value == literal) {
+						if (value == 0) {
+							calculationClauseBuffer[size++] = literal;
+						} else if (value == literal) {
 							// Clause is satisfied
 							continue outerLoop;
-						} else {
-							// Do nothing
 						}
 					}
-				}
 
-				for (IteratorInt iterator = v.iterator(); iterator.hasNext();) {
-					markForCalculation(iterator.next());
+					for (int j = 0; j < size; j++) {
+						stackSize = mark(calculationClauseBuffer[j], stackSize);
+					}
 				}
+			}
+		}
 
+		private int mark(int literal, int stackSize) {
+			final int index = Math.abs(literal) - 1;
+			final int literalIndex = getLiteralIndex(literal);
+			if (model[index] != 0 || dfsMark[literalIndex] == epoch) {
+				return stackSize;
+			}
+			dfsMark[literalIndex] = epoch;
+			if (dfsMark2[literalIndex] != epoch2) {
+				if (dfsMark2[literalIndex ^ 1] != epoch2) {
+					relevantVariables[relevantVariableCount++] = index;
+				}
+				dfsMark2[literalIndex] = epoch2;
 			}
+			calculationStack[stackSize++] = literal;
+			return stackSize;
 		}
 
 	}
@@ -428,7 +449,7 @@ public class AdjList extends AFeatureGraph2 {
 	}
 
 	private final List<Vertex> adjList;
-	private final List<Clause> complexClauses = new ArrayList<>(0);
+	protected final List<Clause> complexClauses = new ArrayList<>(0);
 
 	public AdjList() {
 		adjList = new ArrayList<>(0);
@@ -439,13 +460,45 @@ public class AdjList extends AFeatureGraph2 {
 	}
 
 	public void copyValues(AdjList other) {
-		adjList.addAll(other.adjList);
+		adjList.addAll(other.getAdjList());
 		complexClauses.addAll(other.complexClauses);
 	}
 
+	public int getNumberOfVariables() {
+		return adjList.size();
+	}
+
+	// The following methods give access to the edges of a literal as a range within an array.
+
+	int[] getStrongEdgeArray(int literal) {
+		final Vertex vertex = adjList.get(Math.abs(literal) - 1);
+		return literal > 0 ? vertex.posStrongEdges : vertex.negStrongEdges;
+	}
+
+	int getStrongEdgeBegin(int literal) {
+		return 0;
+	}
+
+	int getStrongEdgeEnd(int literal) {
+		return getStrongEdgeArray(literal).length;
+	}
+
+	int[] getComplexClauseArray(int literal) {
+		final Vertex vertex = adjList.get(Math.abs(literal) - 1);
+		return literal > 0 ? vertex.posComplexClauses : vertex.negComplexClauses;
+	}
+
+	int getComplexClauseBegin(int literal) {
+		return 0;
+	}
+
+	int getComplexClauseEnd(int literal) {
+		return getComplexClauseArray(literal).length;
+	}
+
 	@Override
 	public ITraverser traverse() {
-		return new Traverser(this);
+		return new EpochTraverser(this);
 	}
 
 	public List<Vertex> getAdjList() {
@@ -28,6 +28,13 @@ import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import org.prop4j.Literal;
 import org.prop4j.Node;
@@ -35,6 +42,7 @@ import org.prop4j.solver.BasicSolver;
 import org.prop4j.solver.ISatSolver;
 import org.prop4j.solver.ISatSolver.SelectionStrategy;
 import org.prop4j.solver.SatInstance;
+import org.prop4j.solver.SolverPool;
 import org.sat4j.core.VecInt;
 import org.sat4j.specs.ContradictionException;
 import org.sat4j.specs.IVecInt;
@@ -68,6 +76,102 @@ public class AdjMatrix extends AFeatureGraph2 {
 		}
 	};
 
+	/**
+	 * Ring buffer of solutions that can be read and written by multiple threads.
+	 * A slot is reserved before the solution is stored, so a reader may see an empty slot that is not yet written.
+	 */
+	private static class SharedSolutionList {
+		private final AtomicReferenceArray<int[]> solutions;
+		private final AtomicLong count = new AtomicLong();
+
+		private SharedSolutionList(int size) {
+			solutions = new AtomicReferenceArray<>(size);
+		}
+
+		private void add(int[] solution) {
+			solutions.set((int) (count.getAndIncrement() % solutions.length()), solution);
+		}
+
+		/**
+		 * @return the solution in the given slot or {@code null}, if the slot is not yet written
+		 */
+		private int[] get(int index) {
+			return solutions.get(index);
+		}
+
+		private int size() {
+			return (int) Math.min(count.get(), solutions.length());
+		}
+	}
+
+	/**
+	 * Sorted column indices of all non-empty entries of each row, separately for the selected (upper four bits) and unselected (lower four bits) case.
+	 */
+	private static class AdjacencyIndex {
+		private final int[][] columns;
+		private final int[] sizes;
+
+		private AdjacencyIndex(AdjMatrix adjMatrix) {
+			final int numVariables = adjMatrix.getNumVariables();
+			columns = new int[numVariables << 1][];
+			sizes = new int[numVariables << 1];
+			for (int i = 0; i < columns.length; i++) {
+				columns[i] = new int[4];
+			}
+			final EdgeStorage edges = adjMatrix.edges;
+			for (int i = 0; i < numVariables; i++) {
+				for (int j = edges.getNextEdge(i, 0); j >= 0; j = edges.getNextEdge(i, j + 1)) {
+					final byte edge = edges.get(i, j);
+					if ((edge & 0x0f) != 0) {
+						append((i << 1), j);
+					}
+					if ((edge & 0xf0) != 0) {
+						append((i << 1) + 1, j);
+					}
+				}
+			}
+		}
+
+		private void append(int list, int column) {
+			if (sizes[list] == columns[list].length) {
+				columns[list] = Arrays.copyOf(columns[list], sizes[list] << 1);
+			}
+			columns[list][sizes[list]++] = column;
+		}
+
+		private void add(int row, int column, byte edge) {
+			if ((edge & 0x0f) != 0) {
+				insert((row << 1), column);
+			}
+			if ((edge & 0xf0) != 0) {
+				insert((row << 1) + 1, column);
+			}
+		}
+
+		private void insert(int list, int column) {
+			final int index = Arrays.binarySearch(columns[list], 0, sizes[list], column);
+			if (index < 0) {
+				final int insertionPoint = -(index + 1);
+				append(list, column);
+				final int[] listColumns = columns[list];
+				System.arraycopy(listColumns, insertionPoint, listColumns, insertionPoint + 1, sizes[list] - insertionPoint - 1);
+				listColumns[insertionPoint] = column;
+			}
+		}
+
+		/**
+		 * @return the smallest column greater than the given one or {@code -1}
+		 */
+		private int getNextColumn(int row, boolean selected, int lastColumn) {
+			final int list = (row << 1) + (selected ? 1 : 0);
+			int index = Arrays.binarySearch(columns[list], 0, sizes[list], lastColumn + 1);
+			if (index < 0) {
+				index = -(index + 1);
+			}
+			return index < sizes[list] ? columns[list][index] : -1;
+		}
+	}
+
 	private static class Builder implements LongRunningMethod<AdjMatrix> {
 		private final Set<Clause> cleanClauseSet = new HashSet<>();
 		private final List<Clause> newClauseList = new ArrayList<>();
@@ -76,20 +180,38 @@ public class AdjMatrix extends AFeatureGraph2 {
 		private final AdjMatrix adjMatrix;
 		private final SatInstance satInstance;
 		private final boolean detectStrong;
+		private final int threads;
+		private final SolverPool solverPool;
 
 		private ISatSolver solver;
+		private AdjacencyIndex adjacencyIndex;
+
+		private Builder(SatInstance satInstance, boolean detectStrong, int threads, SolverPool solverPool, EdgeStorage edges) {
+			this(new AdjMatrix(satInstance.getNumberOfVariables(), edges), satInstance, detectStrong, threads, solverPool);
+		}
 
-		private Builder(SatInstance satInstance, boolean detectStrong) {
+		private Builder(AdjMatrix adjMatrix, SatInstance satInstance, boolean detectStrong, int threads, SolverPool solverPool) {
+			this.adjMatrix = adjMatrix;
 			this.satInstance = satInstance;
 			this.detectStrong = detectStrong;
-			final int numVariables = satInstance.getNumberOfVariables();
-			dfsMark = new byte[numVariables];
-			adjMatrix = new AdjMatrix(numVariables);
+			this.threads = threads;
+			this.solverPool = solverPool;
+			dfsMark = new byte[adjMatrix.getNumVariables()];
 		}
 
 		@Override
 		public AdjMatrix execute(IMonitor monitor) throws Exception {
 			monitor.setRemainingWork(detectStrong ? 7 : 4);
+			try {
+				return build(monitor);
+			} finally {
+				if (solverPool != null && solver != null) {
+					solverPool.release((BasicSolver) solver);
+				}
+			}
+		}
+
+		private AdjMatrix build(IMonitor monitor) throws Exception {
 			if (!init()) {
 				return null;
 			}
@@ -102,7 +224,11 @@ public class AdjMatrix extends AFeatureGraph2 {
 				dfsWeak();
 				monitor.step();
 
-				dfsDetectStrongEdges();
+				if (threads > 1) {
+					dfsDetectStrongEdgesParallel();
+				} else {
+					dfsDetectStrongEdges();
+				}
 				monitor.step();
 			}
 			cleanClauseList();
@@ -117,44 +243,245 @@ public class AdjMatrix extends AFeatureGraph2 {
 		}
 
 		public void dfsDetectStrongEdges() {
+			dfsDetectStrongEdges(null);
+		}
+
+		/**
+		 * @param impliedLiterals the precomputed implied literals of each literal (see {@link #dfsDetectStrongEdgesParallel()}) or {@code null} to use the solver
+		 */
+		private void dfsDetectStrongEdges(int[][] impliedLiterals) {
 			dfsStack.clear();
 			Arrays.fill(dfsMark, (byte) 0);
 			for (int i = 0; i < adjMatrix.getNumVariables(); i++) {
 				dfsStack.add((i + 1));
-				testVariable();
+				testVariable(impliedLiterals);
 				dfsStack.add(-(i + 1));
-				testVariable();
+				testVariable(impliedLiterals);
 				//				System.out.println(adjMatrix.getNumVariables() - i);
 			}
 		}
 
-		public void dfsStrong() {
-			dfsStack.clear();
-			Arrays.fill(dfsMark, (byte) 0);
-			for (int nextIndex = 1; nextIndex <= adjMatrix.getNumVariables(); nextIndex++) {
-				dfsStrong(nextIndex);
-				mark();
-				dfsStrong(-nextIndex);
-				mark();
-				dfsMark[nextIndex - 1] = 2;
+		/**
+		 * Multi-threaded version of {@link #dfsDetectStrongEdges()}.
+		 * Variables are distributed dynamically among the workers. Each worker uses its own solver and tests every literal of its variables independently.
+		 * Solutions found by any worker are shared to skip unnecessary satisfiability checks.
+		 * The edge matrix is only read by the workers.
+		 * Afterwards, the recursion of {@link #dfsDetectStrongEdges()} is replayed on the calling thread with the found implications instead of the solver.
+		 * As edges are only removed from the candidates during the recursion, every implication it tests was already tested by a worker,
+		 * so the resulting edges and clauses are the same as in the sequential version.
+		 */
+		public void dfsDetectStrongEdgesParallel() throws InterruptedException, ExecutionException {
+			final int numVariables = adjMatrix.getNumVariables();
+			final SharedSolutionList sharedSolutions = new SharedSolutionList(ISatSolver.MAX_SOLUTION_BUFFER);
+			for (int[] solution : solver.getSolutionList()) {
+				sharedSolutions.add(solution);
+			}
+
+			final int[][] impliedLiterals = new int[numVariables << 1][];
+			final AtomicInteger nextIndex = new AtomicInteger();
+			final ExecutorService executor = Executors.newFixedThreadPool(threads);
+			try {
+				final List<Future<?>> futures = new ArrayList<>(threads);
+				for (int t = 0; t < threads; t++) {
+					final ISatSolver workerSolver = solver.clone();
+					workerSolver.initSolutionList(ISatSolver.MAX_SOLUTION_BUFFER);
+					workerSolver.setSelectionStrategy(SelectionStrategy.POSITIVE);
+					futures.add(executor.submit(new Runnable() {
+						@Override
+						public void run() {
+							for (int i = nextIndex.getAndIncrement(); i < numVariables; i = nextIndex.getAndIncrement()) {
+								impliedLiterals[(i << 1) + 1] = testLiteral(workerSolver, sharedSolutions, i + 1);
+								impliedLiterals[i << 1] = testLiteral(workerSolver, sharedSolutions, -(i + 1));
+							}
+						}
+					}));
+				}
+				for (Future<?> future : futures) {
+					future.get();
+				}
+			} finally {
+				executor.shutdownNow();
 			}
+
+			dfsDetectStrongEdges(impliedLiterals);
 		}
 
+		/**
+		 * Finds all literals of variables with a higher index that are implied by the given literal.
+		 * 
+		 * @return the implied literals or {@code null}, if the variable is core or dead
+		 */
+		private int[] testLiteral(ISatSolver workerSolver, SharedSolutionList sharedSolutions, int mx1) {
+			final int i = Math.abs(mx1) - 1;
+			if (adjMatrix.core[i] != 0) {
+				return null;
+			}
+			final boolean positive = mx1 > 0;
+
+			int[] xModel1 = findSolution(workerSolver, sharedSolutions, i, mx1);
+			workerSolver.assignmentPush(mx1);
+			try {
+				if (xModel1 == null) {
+					xModel1 = workerSolver.findModel();
+					if (xModel1 == null) {
+						return null;
+					}
+					sharedSolutions.add(xModel1);
+				}
+
+				final VecInt impliedLiterals = new VecInt();
+				int c = 0;
+				for (int j = i + 1; j < xModel1.length; j++) {
+					final byte b = adjMatrix.edges.get(i, j);
+					if (adjMatrix.core[j] == 0 && ((positive && (b & EDGE_WEAK_POSITIVE) != 0) || (!positive && (b & EDGE_WEAK_NEGATIVE) != 0))) {
+						final int my1 = xModel1[j];
+						if (hasCounterExample(workerSolver, sharedSolutions, i, mx1, j, my1)) {
+							continue;
+						}
+
+						workerSolver.assignmentPush(-my1);
+						workerSolver.setSelectionStrategy((c++ % 2 != 0) ? SelectionStrategy.POSITIVE : SelectionStrategy.NEGATIVE);
+
+						switch (workerSolver.isSatisfiable()) {
+						case FALSE:
+							impliedLiterals.push(my1);
+							break;
+						case TIMEOUT:
+							break;
+						case TRUE:
+							sharedSolutions.add(workerSolver.getModel());
+							workerSolver.shuffleOrder();
+							break;
+						}
+						workerSolver.assignmentPop();
+					}
+				}
+				return Arrays.copyOf(impliedLiterals.toArray(), impliedLiterals.size());
+			} finally {
+				workerSolver.assignmentPop();
+			}
+		}
+
+		private int[] findSolution(ISatSolver workerSolver, SharedSolutionList sharedSolutions, int i, int mx1) {
+			for (int[] solution : workerSolver.getSolutionList()) {
+				if (mx1 == solution[i]) {
+					return solution;
+				}
+			}
+			for (int k = 0, size = sharedSolutions.size(); k < size; k++) {
+				final int[] solution = sharedSolutions.get(k);
+				if (solution != null && mx1 == solution[i]) {
+					return solution;
+				}
+			}
+			return null;
+		}
+
+		private boolean hasCounterExample(ISatSolver workerSolver, SharedSolutionList sharedSolutions, int i, int mx1, int j, int my1) {
+			for (int[] solution : workerSolver.getSolutionList()) {
+				if ((mx1 == solution[i]) && (my1 != solution[j])) {
+					return true;
+				}
+			}
+			for (int k = 0, size = sharedSolutions.size(); k < size; k++) {
+				final int[] solution = sharedSolutions.get(k);
+				if (solution != null && (mx1 == solution[i]) && (my1 != solution[j])) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		// Transitive closure for strong edges
+		public void dfsStrong() {
+			dfs(true);
+		}
+
+		// Transitive closure for weak edges
 		public void dfsWeak() {
-			dfsStack.clear();
-			Arrays.fill(dfsMark, (byte) 0);
-			for (int nextIndex = 1; nextIndex <= adjMatrix.getNumVariables(); nextIndex++) {
-				dfsWeak(nextIndex);
-				mark();
-				dfsWeak(-nextIndex);
-				mark();
-				dfsMark[nextIndex - 1] = 2;
+			dfs(false);
+		}
+
+		/**
+		 * Starts a depth-first search from every literal and connects the start literal with every literal reached via at least one intermediate literal.
+		 * If a literal of an already processed variable is reached, only its direct neighbors are visited, as it is already connected to all literals it can reach.
+		 * The search uses an explicit stack and an index of the non-empty entries of each row, which is updated whenever an edge is added.
+		 */
+		private void dfs(boolean strong) {
+			final int numVariables = adjMatrix.getNumVariables();
+			adjacencyIndex = new AdjacencyIndex(adjMatrix);
+			final int[] visited = new int[numVariables];
+			final boolean[] processed = new boolean[numVariables];
+			final int[] stackLiterals = new int[numVariables];
+			final int[] stackColumns = new int[numVariables];
+			int epoch = 0;
+			try {
+				for (int nextIndex = 1; nextIndex <= numVariables; nextIndex++) {
+					for (int sign = 0; sign < 2; sign++) {
+						final int root = sign == 0 ? nextIndex : -nextIndex;
+						epoch++;
+						visited[nextIndex - 1] = epoch;
+						stackLiterals[0] = root;
+						stackColumns[0] = -1;
+						int top = 0;
+						while (top >= 0) {
+							final int curVar = stackLiterals[top];
+							final int curIndex = Math.abs(curVar) - 1;
+							// Note: the weak traversal considers the row of the first variable as unselected and all others as selected
+							final boolean curSelected = strong ? curVar > 0 : curIndex > 0;
+							final int nextColumn = adjacencyIndex.getNextColumn(curIndex, curSelected, stackColumns[top]);
+							if (nextColumn < 0) {
+								top--;
+								continue;
+							}
+							stackColumns[top] = nextColumn;
+
+							final int nextVar = getNextLiteral(strong, adjMatrix.getValue(curIndex, nextColumn, curSelected), nextColumn);
+							if (nextVar == 0 || visited[nextColumn] == epoch) {
+								continue;
+							}
+							visited[nextColumn] = epoch;
+							if (top > 0) {
+								// Note the minus (we construct a virtual clause)
+								if (strong) {
+									addStrongRelation(-root, nextVar);
+								} else {
+									addWeakRelation(-root, nextVar);
+								}
+							}
+							if (!processed[curIndex]) {
+								top++;
+								stackLiterals[top] = nextVar;
+								stackColumns[top] = -1;
+							}
+						}
+					}
+					processed[nextIndex - 1] = true;
+				}
+			} finally {
+				adjacencyIndex = null;
 			}
 		}
 
+		private int getNextLiteral(boolean strong, byte bitMask, int nextIndex) {
+			if ((bitMask & EDGE_00) != 0) {
+				return -(nextIndex + 1);
+			} else if ((bitMask & EDGE_01) != 0) {
+				return (nextIndex + 1);
+			} else if (!strong) {
+				if ((bitMask & EDGE_00Q) != 0) {
+					return -(nextIndex + 1);
+				}
+				if ((bitMask & EDGE_01Q) != 0) {
+					return (nextIndex + 1);
+				}
+			}
+			return 0;
+		}
+
 		public boolean init() throws ContradictionException {
 			// Init solver
-			solver = new BasicSolver(satInstance);
+			solver = solverPool != null ? solverPool.acquire(satInstance) : new BasicSolver(satInstance);
 			solver.initSolutionList(1000);
 			solver.setSelectionStrategy(SelectionStrategy.POSITIVE);
 
@@ -251,9 +578,7 @@ public class AdjMatrix extends AFeatureGraph2 {
 		}
 
 		public void readdEdges() {
-			for (int i = 0; i < adjMatrix.edges.length; i++) {
-				adjMatrix.edges[i] = 0;
-			}
+			adjMatrix.edges.clear();
 			for (Clause clause : adjMatrix.clauseList) {
 				addRelation(clause.getLiterals());
 			}
@@ -265,31 +590,37 @@ public class AdjMatrix extends AFeatureGraph2 {
 			if (indexX == indexY) {
 				return false;
 			}
-			final int combinationIndexXY = adjMatrix.getIndex(indexX, indexY);
-			final int combinationIndexYX = adjMatrix.getIndex(indexY, indexX);
-
-			final byte oldXY = adjMatrix.edges[combinationIndexXY];
-			final byte oldYX = adjMatrix.edges[combinationIndexYX];
+			final EdgeStorage edges = adjMatrix.edges;
+			final byte oldXY = edges.get(indexX, indexY);
+			final byte oldYX = edges.get(indexY, indexX);
 
+			final byte newXY;
+			final byte newYX;
 			if (signedVarX > 0) {
 				if (signedVarY > 0) {
-					adjMatrix.edges[combinationIndexXY] = (byte) ((oldXY & (~EDGE_NEGATIVE)) | EDGE_01);
-					adjMatrix.edges[combinationIndexYX] = (byte) ((oldYX & (~EDGE_NEGATIVE)) | EDGE_01);
+					newXY = (byte) ((oldXY & (~EDGE_NEGATIVE)) | EDGE_01);
+					newYX = (byte) ((oldYX & (~EDGE_NEGATIVE)) | EDGE_01);
 				} else {
-					adjMatrix.edges[combinationIndexXY] = (byte) ((oldXY & (~EDGE_NEGATIVE)) | EDGE_00);
-					adjMatrix.edges[combinationIndexYX] = (byte) ((oldYX & (~EDGE_POSITIVE)) | EDGE_11);
+					newXY = (byte) ((oldXY & (~EDGE_NEGATIVE)) | EDGE_00);
+					newYX = (byte) ((oldYX & (~EDGE_POSITIVE)) | EDGE_11);
 				}
 			} else {
 				if (signedVarY > 0) {
-					adjMatrix.edges[combinationIndexXY] = (byte) ((oldXY & (~EDGE_POSITIVE)) | EDGE_11);
-					adjMatrix.edges[combinationIndexYX] = (byte) ((oldYX & (~EDGE_NEGATIVE)) | EDGE_00);
+					newXY = (byte) ((oldXY & (~EDGE_POSITIVE)) | EDGE_11);
+					newYX = (byte) ((oldYX & (~EDGE_NEGATIVE)) | EDGE_00);
 				} else {
-					adjMatrix.edges[combinationIndexXY] = (byte) ((oldXY & (~EDGE_POSITIVE)) | EDGE_10);
-					adjMatrix.edges[combinationIndexYX] = (byte) ((oldYX & (~EDGE_POSITIVE)) | EDGE_10);
+					newXY = (byte) ((oldXY & (~EDGE_POSITIVE)) | EDGE_10);
+					newYX = (byte) ((oldYX & (~EDGE_POSITIVE)) | EDGE_10);
 				}
 			}
+			edges.set(indexX, indexY, newXY);
+			edges.set(indexY, indexX, newYX);
+			if (adjacencyIndex != null) {
+				adjacencyIndex.add(indexX, indexY, newXY);
+				adjacencyIndex.add(indexY, indexX, newYX);
+			}
 
-			return oldXY != adjMatrix.edges[combinationIndexXY] || oldYX != adjMatrix.edges[combinationIndexYX];
+			return oldXY != newXY || oldYX != newYX;
 		}
 
 		private void addWeakRelation(final int signedVarX, final int signedVarY) {
@@ -298,45 +629,47 @@ public class AdjMatrix extends AFeatureGraph2 {
 			if (indexX == indexY) {
 				return;
 			}
-			final int combinationIndexXY = adjMatrix.getIndex(indexX, indexY);
-			final int combinationIndexYX = adjMatrix.getIndex(indexY, indexX);
-
-			final byte oldXY = adjMatrix.edges[combinationIndexXY];
-			final byte oldYX = adjMatrix.edges[combinationIndexYX];
+			final EdgeStorage edges = adjMatrix.edges;
+			final byte oldXY = edges.get(indexX, indexY);
+			final byte oldYX = edges.get(indexY, indexX);
 
 			if (signedVarX > 0) {
 				if (signedVarY > 0) {
 					if ((oldXY & EDGE_STRONG_NEGATIVE) == 0) {
-						adjMatrix.edges[combinationIndexXY] |= EDGE_01Q;
+						edges.set(indexX, indexY, (byte) (oldXY | EDGE_01Q));
 					}
 					if ((oldYX & EDGE_STRONG_NEGATIVE) == 0) {
-						adjMatrix.edges[combinationIndexYX] |= EDGE_01Q;
+						edges.set(indexY, indexX, (byte) (oldYX | EDGE_01Q));
 					}
 				} else {
 					if ((oldXY & EDGE_STRONG_NEGATIVE) == 0) {
-						adjMatrix.edges[combinationIndexXY] |= EDGE_00Q;
+						edges.set(indexX, indexY, (byte) (oldXY | EDGE_00Q));
 					}
 					if ((oldYX & EDGE_STRONG_POSITIVE) == 0) {
-						adjMatrix.edges[combinationIndexYX] |= EDGE_11Q;
+						edges.set(indexY, indexX, (byte) (oldYX | EDGE_11Q));
 					}
 				}
 			} else {
 				if (signedVarY > 0) {
 					if ((oldXY & EDGE_STRONG_POSITIVE) == 0) {
-						adjMatrix.edges[combinationIndexXY] |= EDGE_11Q;
+						edges.set(indexX, indexY, (byte) (oldXY | EDGE_11Q));
 					}
 					if ((oldYX & EDGE_STRONG_NEGATIVE) == 0) {
-						adjMatrix.edges[combinationIndexYX] |= EDGE_00Q;
+						edges.set(indexY, indexX, (byte) (oldYX | EDGE_00Q));
 					}
 				} else {
 					if ((oldXY & EDGE_STRONG_POSITIVE) == 0) {
-						adjMatrix.edges[combinationIndexXY] |= EDGE_10Q;
+						edges.set(indexX, indexY, (byte) (oldXY | EDGE_10Q));
 					}
 					if ((oldYX & EDGE_STRONG_POSITIVE) == 0) {
-						adjMatrix.edges[combinationIndexYX] |= EDGE_10Q;
+						edges.set(indexY, indexX, (byte) (oldYX | EDGE_10Q));
 					}
 				}
 			}
+			if (adjacencyIndex != null) {
+				adjacencyIndex.add(indexX, indexY, edges.get(indexX, indexY));
+				adjacencyIndex.add(indexY, indexX, edges.get(indexY, indexX));
+			}
 		}
 
 		private int[] convert(Literal[] newChildren) {
@@ -359,79 +692,6 @@ public class AdjMatrix extends AFeatureGraph2 {
 			return literalArray;
 		}
 
-		// Transitive closure for strong edges
-		private void dfsStrong(int curVar) {
-			final int curIndex = Math.abs(curVar) - 1;
-			final boolean curSelected = curVar > 0;
-
-			if ((dfsMark[curIndex] & 1) != 0) {
-				return;
-			}
-			dfsMark[curIndex] |= 1;
-
-			final int size = dfsStack.size();
-			if (size > 1) {
-				// Note the minus (we construct a virtual clause)
-				addStrongRelation(-dfsStack.getFirst(), curVar);
-			}
-
-			if (size > 0 && (dfsMark[Math.abs(dfsStack.getLast()) - 1] & 2) != 0) {
-				return;
-			}
-			dfsStack.addLast(curVar);
-
-			for (int nextIndex = 0; nextIndex < adjMatrix.getNumVariables(); nextIndex++) {
-				final byte relation = adjMatrix.getEdge(curIndex, nextIndex);
-				final byte bitMask = (byte) (curSelected ? relation >>> 4 : relation);
-				if ((bitMask & EDGE_00) != 0) {
-					dfsStrong(-(nextIndex + 1));
-				} else if ((bitMask & EDGE_01) != 0) {
-					dfsStrong((nextIndex + 1));
-				}
-			}
-			dfsStack.removeLast();
-		}
-
-		// Transitive closure for weak edges
-		private void dfsWeak(int curVar) {
-			final int curIndex = Math.abs(curVar) - 1;
-			final boolean curSelected = curIndex > 0;
-
-			if ((dfsMark[curIndex] & 1) != 0) {
-				return;
-			}
-			dfsMark[curIndex] |= 1;
-
-			final int size = dfsStack.size();
-			if (size > 1) {
-				// Note the minus (we construct a virtual clause)
-				addWeakRelation(-dfsStack.getFirst(), curVar);
-			}
-
-			if (size > 0 && (dfsMark[Math.abs(dfsStack.getLast()) - 1] & 2) != 0) {
-				return;
-			}
-			dfsStack.addLast(curVar);
-
-			for (int nextIndex = 0; nextIndex < adjMatrix.getNumVariables(); nextIndex++) {
-				final byte relation = adjMatrix.getEdge(curIndex, nextIndex);
-				final byte bitMask = (byte) (curSelected ? relation >>> 4 : relation);
-				if ((bitMask & EDGE_00) != 0) {
-					dfsWeak(-(nextIndex + 1));
-				} else if ((bitMask & EDGE_01) != 0) {
-					dfsWeak((nextIndex + 1));
-				} else {
-					if ((bitMask & EDGE_00Q) != 0) {
-						dfsWeak(-(nextIndex + 1));
-					}
-					if ((bitMask & EDGE_01Q) != 0) {
-						dfsWeak((nextIndex + 1));
-					}
-				}
-			}
-			dfsStack.removeLast();
-		}
-
 		private boolean getCoreFeatures() {
 			// satisfiable?
 			final int[] firstSolution = solver.findModel();
@@ -467,13 +727,7 @@ public class AdjMatrix extends AFeatureGraph2 {
 			return false;
 		}
 
-		private void mark() {
-			for (int i = 0; i < dfsMark.length; i++) {
-				dfsMark[i] &= 2;
-			}
-		}
-
-		private void testVariable() {
+		private void testVariable(int[][] impliedLiterals) {
 			final int mx1 = dfsStack.peek();
 			final int i = Math.abs(mx1) - 1;
 			final boolean positive = mx1 > 0;
@@ -482,6 +736,21 @@ public class AdjMatrix extends AFeatureGraph2 {
 			if (adjMatrix.core[i] == 0 && (dfsMark[i] & compareB) == 0) {
 				dfsMark[i] |= compareB;
 
+				if (impliedLiterals != null) {
+					final int[] literals = impliedLiterals[positive ? (i << 1) + 1 : i << 1];
+					if (literals != null) {
+						for (int my1 : literals) {
+							final int j = Math.abs(my1) - 1;
+							final byte b = adjMatrix.edges.get(i, j);
+							if (adjMatrix.core[j] == 0 && ((positive && (b & EDGE_WEAK_POSITIVE) != 0) || (!positive && (b & EDGE_WEAK_NEGATIVE) != 0))) {
+								addImplication(my1, impliedLiterals);
+							}
+						}
+					}
+					dfsStack.pop();
+					return;
+				}
+
 				int[] xModel1 = null;
 				for (int[] solution : solver.getSolutionList()) {
 					if (mx1 == solution[i]) {
@@ -496,10 +765,8 @@ public class AdjMatrix extends AFeatureGraph2 {
 
 				int c = 0;
 
-				final int rowIndex = i * adjMatrix.getNumVariables();
-
 				inner1: for (int j = i + 1; j < xModel1.length; j++) {
-					final byte b = adjMatrix.edges[rowIndex + j];
+					final byte b = adjMatrix.edges.get(i, j);
 					if (adjMatrix.core[j] == 0 && ((positive && (b & EDGE_WEAK_POSITIVE) != 0) || (!positive && (b & EDGE_WEAK_NEGATIVE) != 0))) {
 
 						final int my1 = xModel1[j];
@@ -516,15 +783,9 @@ public class AdjMatrix extends AFeatureGraph2 {
 
 						switch (solver.isSatisfiable()) {
 						case FALSE:
-							for (int mx0 : dfsStack) {
-								if (addStrongRelation(-mx0, my1)) {
-									addClause(-mx0, my1);
-								}
-							}
-							dfsStack.push(my1);
 							solver.assignmentPop();
 							solver.assignmentPop();
-							testVariable();
+							addImplication(my1, null);
 							solver.assignmentPush(mx1);
 							break;
 						case TIMEOUT:
@@ -542,6 +803,19 @@ public class AdjMatrix extends AFeatureGraph2 {
 			dfsStack.pop();
 		}
 
+		/**
+		 * Connects all literals on the stack with a literal that is implied by the top of the stack and continues the search from this literal.
+		 */
+		private void addImplication(int my1, int[][] impliedLiterals) {
+			for (int mx0 : dfsStack) {
+				if (addStrongRelation(-mx0, my1)) {
+					addClause(-mx0, my1);
+				}
+			}
+			dfsStack.push(my1);
+			testVariable(impliedLiterals);
+		}
+
 	}
 
 	private static class Traverser implements ITraverser {
@@ -565,28 +839,86 @@ public class AdjMatrix extends AFeatureGraph2 {
 
 	}
 
+	/**
+	 * Maximum size of a dense edge storage that is used regardless of the number of edges (64 MiB).
+	 */
+	public static final long DENSE_STORAGE_LIMIT = 1L << 26;
+
+	/**
+	 * Chooses a dense storage if it is small enough, a sparse storage if a dense one cannot be allocated,
+	 * and otherwise an {@link AdaptiveEdgeStorage} that switches to a dense storage when the sparse one becomes larger.
+	 */
+	public static EdgeStorage createEdgeStorage(SatInstance satInstance) {
+		final int numVariables = satInstance.getNumberOfVariables();
+		final long denseSize = DenseEdgeStorage.estimateSize(numVariables);
+		if (denseSize <= DENSE_STORAGE_LIMIT) {
+			return new DenseEdgeStorage(numVariables);
+		} else if (denseSize <= Integer.MAX_VALUE) {
+			return new AdaptiveEdgeStorage(numVariables);
+		} else {
+			return new SparseEdgeStorage(numVariables);
+		}
+	}
+
 	public static AdjMatrix build(SatInstance satInstance, boolean detectStrong) {
 		//		return LongRunningWrapper.runMethod(new Builder(satInstance, detectStrong), new ConsoleTimeMonitor());
-		return LongRunningWrapper.runMethod(new Builder(satInstance, detectStrong));
+		return build(satInstance, detectStrong, 1);
+	}
+
+	/**
+	 * @param threads the number of threads used to detect strong edges (a value greater than 1 enables the parallel detection)
+	 */
+	public static AdjMatrix build(SatInstance satInstance, boolean detectStrong, int threads) {
+		return build(satInstance, detectStrong, threads, null);
+	}
+
+	/**
+	 * @param solverPool the pool from which the solver for the construction is taken (may be {@code null})
+	 */
+	public static AdjMatrix build(SatInstance satInstance, boolean detectStrong, int threads, SolverPool solverPool) {
+		return build(satInstance, detectStrong, threads, solverPool, createEdgeStorage(satInstance));
+	}
+
+	/**
+	 * @param edges the (empty) storage for the edges instead of the one chosen by {@link #createEdgeStorage(SatInstance)}
+	 */
+	static AdjMatrix build(SatInstance satInstance, boolean detectStrong, int threads, SolverPool solverPool, EdgeStorage edges) {
+		return LongRunningWrapper.runMethod(new Builder(satInstance, detectStrong, threads, solverPool, edges));
+	}
+
+	/**
+	 * Computes the transitive closure of the strong or the weak edges of the given matrix in place, as done during {@link #build(SatInstance, boolean)}.
+	 */
+	static void computeClosure(AdjMatrix adjMatrix, boolean strong) {
+		final Builder builder = new Builder(adjMatrix, null, false, 1, null);
+		if (strong) {
+			builder.dfsStrong();
+		} else {
+			builder.dfsWeak();
+		}
 	}
 
 	private final List<Clause> clauseList = new ArrayList<>();
 
-	private final byte[] edges;
+	private final EdgeStorage edges;
 	private final byte[] core;
 	private final int numVariables;
 
 	public AdjMatrix(int numVariables) {
+		this(numVariables, new DenseEdgeStorage(numVariables));
+	}
+
+	public AdjMatrix(int numVariables, EdgeStorage edges) {
 		this.numVariables = numVariables;
+		this.edges = edges;
 		core = new byte[numVariables];
-		edges = new byte[numVariables * numVariables];
 	}
 
 	public List<Clause> getClauseList() {
 		return clauseList;
 	}
 
-	public byte[] getEdges() {
+	public EdgeStorage getEdges() {
 		return edges;
 	}
 
@@ -597,7 +929,7 @@ public class AdjMatrix extends AFeatureGraph2 {
 	public long size() {
 		long sum = 0;
 
-		sum += edges.length;
+		sum += edges.size();
 		sum += core.length;
 
 		return sum;
@@ -609,19 +941,15 @@ public class AdjMatrix extends AFeatureGraph2 {
 
 	@Override
 	public byte getEdge(int fromIndex, int toIndex) {
-		return edges[getIndex(fromIndex, toIndex)];
+		return edges.get(fromIndex, toIndex);
 	}
 
 	@Override
 	public byte getValue(int fromIndex, int toIndex, boolean fromSelected) {
-		final byte edge = edges[getIndex(fromIndex, toIndex)];
+		final byte edge = edges.get(fromIndex, toIndex);
 		return (byte) (fromSelected ? edge >>> 4 : edge);
 	}
 
-	private int getIndex(final int indexX, final int indexY) {
-		return indexX * numVariables + indexY;
-	}
-
 	@Override
 	public ITraverser traverse() {
 		return new Traverser();
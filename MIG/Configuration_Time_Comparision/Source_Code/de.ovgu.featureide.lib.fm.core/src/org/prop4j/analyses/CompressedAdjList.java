@@ -0,0 +1,284 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2016  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ * 
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.analyses;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import de.ovgu.featureide.fm.core.editing.cnf.Clause;
+import de.ovgu.featureide.fm.core.job.LongRunningMethod;
+import de.ovgu.featureide.fm.core.job.LongRunningWrapper;
+import de.ovgu.featureide.fm.core.job.monitor.IMonitor;
+
+/**
+ * Adjacency list implementation for a feature graph in compressed sparse row format.
+ * For each kind of edge, all literals share one contiguous array and their edges are located via an offset array.
+ * Literal {@code l} is stored at index {@code 2 * (|l| - 1) + (l > 0 ? 1 : 0)}.
+ */
+public class CompressedAdjList extends AdjList {
+
+	private static final long serialVersionUID = -1392049452262838706L;
+
+	private static class Builder implements LongRunningMethod<CompressedAdjList> {
+
+		private final AdjMatrix adjMatrix;
+		private final int numberOfVariables;
+
+		private Builder(AdjMatrix adjMatrix) {
+			this.adjMatrix = adjMatrix;
+			numberOfVariables = adjMatrix.getNumVariables();
+		}
+
+		@Override
+		public CompressedAdjList execute(IMonitor monitor) throws Exception {
+			final CompressedAdjList adjList = new CompressedAdjList(numberOfVariables);
+			for (int i = 0; i < numberOfVariables; i++) {
+				adjList.core[i] = adjMatrix.getCore(i);
+			}
+			initStrongEdges(adjList);
+			initComplexClauses(adjList);
+			return adjList;
+		}
+
+		private void initStrongEdges(CompressedAdjList adjList) {
+			final EdgeStorage edges = adjMatrix.getEdges();
+			final int[] strongEdgeStart = adjList.strongEdgeStart;
+
+			// Count edges per literal
+			for (int i = 0; i < numberOfVariables; i++) {
+				for (int j = edges.getNextEdge(i, 0); j >= 0; j = edges.getNextEdge(i, j + 1)) {
+					final byte relation = edges.get(i, j);
+					if ((relation & (EDGE_00 | EDGE_01)) != 0) {
+						strongEdgeStart[(i << 1) + 1]++;
+					}
+					if ((relation & (EDGE_10 | EDGE_11)) != 0) {
+						strongEdgeStart[(i << 1) + 2]++;
+					}
+				}
+			}
+			for (int i = 1; i < strongEdgeStart.length; i++) {
+				strongEdgeStart[i] += strongEdgeStart[i - 1];
+			}
+
+			// Fill edges in ascending order
+			final int[] strongEdges = new int[strongEdgeStart[strongEdgeStart.length - 1]];
+			final int[] position = Arrays.copyOf(strongEdgeStart, strongEdgeStart.length - 1);
+			for (int i = 0; i < numberOfVariables; i++) {
+				for (int j = edges.getNextEdge(i, 0); j >= 0; j = edges.getNextEdge(i, j + 1)) {
+					final byte relation = edges.get(i, j);
+					if ((relation & EDGE_00) != 0) {
+						strongEdges[position[i << 1]++] = -(j + 1);
+					} else if ((relation & EDGE_01) != 0) {
+						strongEdges[position[i << 1]++] = (j + 1);
+					}
+					if ((relation & EDGE_10) != 0) {
+						strongEdges[position[(i << 1) + 1]++] = -(j + 1);
+					} else if ((relation & EDGE_11) != 0) {
+						strongEdges[position[(i << 1) + 1]++] = (j + 1);
+					}
+				}
+			}
+			adjList.strongEdges = strongEdges;
+		}
+
+		private void initComplexClauses(CompressedAdjList adjList) {
+			// Add clauses with 3 or more literals
+			final List<Clause> clauseList = adjMatrix.getClauseList();
+			int firstComplexClause = 0;
+			while (firstComplexClause < clauseList.size() && clauseList.get(firstComplexClause).getLiterals().length <= 2) {
+				firstComplexClause++;
+			}
+			final List<Clause> complexClauses = clauseList.subList(firstComplexClause, clauseList.size());
+			adjList.complexClauses.addAll(complexClauses);
+
+			// A clause becomes relevant when the complement of one of its literals is selected
+			final int[] complexClauseStart = adjList.complexClauseStart;
+			for (Clause clause : complexClauses) {
+				for (int literal : clause.getLiterals()) {
+					complexClauseStart[getLiteralIndex(-literal) + 1]++;
+				}
+			}
+			for (int i = 1; i < complexClauseStart.length; i++) {
+				complexClauseStart[i] += complexClauseStart[i - 1];
+			}
+
+			// Fill clauses in descending order (like AdjList)
+			final int[] complexClauseIndices = new int[complexClauseStart[complexClauseStart.length - 1]];
+			final int[] position = Arrays.copyOfRange(complexClauseStart, 1, complexClauseStart.length);
+			for (int i = 0; i < complexClauses.size(); i++) {
+				for (int literal : complexClauses.get(i).getLiterals()) {
+					complexClauseIndices[--position[getLiteralIndex(-literal)]] = i;
+				}
+			}
+			adjList.complexClauseIndices = complexClauseIndices;
+		}
+
+	}
+
+	public static CompressedAdjList build(AdjMatrix adjMatrix) {
+		return LongRunningWrapper.runMethod(new Builder(adjMatrix));
+	}
+
+	private static int getLiteralIndex(int literal) {
+		return ((Math.abs(literal) - 1) << 1) + (literal > 0 ? 1 : 0);
+	}
+
+	private byte[] core;
+	private int[] strongEdgeStart;
+	private int[] complexClauseStart;
+	private int[] strongEdges;
+	private int[] complexClauseIndices;
+
+	public CompressedAdjList(int numVariables) {
+		core = new byte[numVariables];
+		strongEdgeStart = new int[(numVariables << 1) + 1];
+		complexClauseStart = new int[(numVariables << 1) + 1];
+		strongEdges = new int[0];
+		complexClauseIndices = new int[0];
+	}
+
+	/**
+	 * Creates an adjacency list from existing arrays (e.g., when reading a stored feature graph).
+	 * The arrays are used directly and must have the layout described in the class comment.
+	 */
+	public CompressedAdjList(byte[] core, int[] strongEdgeStart, int[] strongEdges, int[] complexClauseStart, int[] complexClauseIndices,
+			List<Clause> complexClauses) {
+		this.core = core;
+		this.strongEdgeStart = strongEdgeStart;
+		this.strongEdges = strongEdges;
+		this.complexClauseStart = complexClauseStart;
+		this.complexClauseIndices = complexClauseIndices;
+		this.complexClauses.addAll(complexClauses);
+	}
+
+	/**
+	 * Replaces the content of this list with the content of the given list.
+	 * The arrays of another {@link CompressedAdjList} are shared, any other {@link AdjList} is converted.
+	 */
+	@Override
+	public void copyValues(AdjList other) {
+		if (other instanceof CompressedAdjList) {
+			final CompressedAdjList otherAdjList = (CompressedAdjList) other;
+			core = otherAdjList.core;
+			strongEdgeStart = otherAdjList.strongEdgeStart;
+			complexClauseStart = otherAdjList.complexClauseStart;
+			strongEdges = otherAdjList.strongEdges;
+			complexClauseIndices = otherAdjList.complexClauseIndices;
+		} else {
+			final List<Vertex> vertices = other.getAdjList();
+			final int numVariables = vertices.size();
+			core = new byte[numVariables];
+			strongEdgeStart = new int[(numVariables << 1) + 1];
+			complexClauseStart = new int[(numVariables << 1) + 1];
+			for (int i = 0; i < numVariables; i++) {
+				final Vertex vertex = vertices.get(i);
+				core[i] = vertex.getCore();
+				strongEdgeStart[(i << 1) + 1] = strongEdgeStart[i << 1] + vertex.getNegStrongEdges().length;
+				strongEdgeStart[(i << 1) + 2] = strongEdgeStart[(i << 1) + 1] + vertex.getPosStrongEdges().length;
+				complexClauseStart[(i << 1) + 1] = complexClauseStart[i << 1] + vertex.getNegComplexClauses().length;
+				complexClauseStart[(i << 1) + 2] = complexClauseStart[(i << 1) + 1] + vertex.getPosComplexClauses().length;
+			}
+			strongEdges = new int[strongEdgeStart[numVariables << 1]];
+			complexClauseIndices = new int[complexClauseStart[numVariables << 1]];
+			for (int i = 0; i < numVariables; i++) {
+				final Vertex vertex = vertices.get(i);
+				copy(vertex.getNegStrongEdges(), strongEdges, strongEdgeStart[i << 1]);
+				copy(vertex.getPosStrongEdges(), strongEdges, strongEdgeStart[(i << 1) + 1]);
+				copy(vertex.getNegComplexClauses(), complexClauseIndices, complexClauseStart[i << 1]);
+				copy(vertex.getPosComplexClauses(), complexClauseIndices, complexClauseStart[(i << 1) + 1]);
+			}
+		}
+		complexClauses.clear();
+		complexClauses.addAll(other.complexClauses);
+	}
+
+	private static void copy(int[] source, int[] target, int position) {
+		System.arraycopy(source, 0, target, position, source.length);
+	}
+
+	@Override
+	public int getNumberOfVariables() {
+		return core.length;
+	}
+
+	@Override
+	int[] getStrongEdgeArray(int literal) {
+		return strongEdges;
+	}
+
+	@Override
+	int getStrongEdgeBegin(int literal) {
+		return strongEdgeStart[getLiteralIndex(literal)];
+	}
+
+	@Override
+	int getStrongEdgeEnd(int literal) {
+		return strongEdgeStart[getLiteralIndex(literal) + 1];
+	}
+
+	@Override
+	int[] getComplexClauseArray(int literal) {
+		return complexClauseIndices;
+	}
+
+	@Override
+	int getComplexClauseBegin(int literal) {
+		return complexClauseStart[getLiteralIndex(literal)];
+	}
+
+	@Override
+	int getComplexClauseEnd(int literal) {
+		return complexClauseStart[getLiteralIndex(literal) + 1];
+	}
+
+	/**
+	 * Creates the vertices on demand. Should not be used during traversal.
+	 */
+	@Override
+	public List<Vertex> getAdjList() {
+		final List<Vertex> vertices = new ArrayList<>(core.length);
+		for (int var = 1; var <= core.length; var++) {
+			vertices.add(new Vertex(core[var - 1], var, //
+					Arrays.copyOfRange(strongEdges, getStrongEdgeBegin(var), getStrongEdgeEnd(var)), //
+					Arrays.copyOfRange(strongEdges, getStrongEdgeBegin(-var), getStrongEdgeEnd(-var)), //
+					Arrays.copyOfRange(complexClauseIndices, getComplexClauseBegin(var), getComplexClauseEnd(var)), //
+					Arrays.copyOfRange(complexClauseIndices, getComplexClauseBegin(-var), getComplexClauseEnd(-var))));
+		}
+		return Collections.unmodifiableList(vertices);
+	}
+
+	@Override
+	public long size() {
+		long sum = 0;
+
+		sum += 20;
+		sum += 5 * 16;
+		sum += core.length;
+		sum += 4 * strongEdgeStart.length;
+		sum += 4 * complexClauseStart.length;
+		sum += 4 * strongEdges.length;
+		sum += 4 * complexClauseIndices.length;
+		return sum;
+	}
+
+}
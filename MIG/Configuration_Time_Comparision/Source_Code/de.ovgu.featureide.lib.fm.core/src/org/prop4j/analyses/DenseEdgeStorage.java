@@ -0,0 +1,79 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2016  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ * 
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.analyses;
+
+import java.util.Arrays;
+
+/**
+ * Stores all edges in a single array with one byte per pair of variables.
+ */
+public class DenseEdgeStorage implements EdgeStorage {
+
+	private static final long serialVersionUID = -2785398311366541023L;
+
+	public static long estimateSize(int numVariables) {
+		return (long) numVariables * numVariables;
+	}
+
+	private final byte[] edges;
+	private final int numVariables;
+
+	public DenseEdgeStorage(int numVariables) {
+		this.numVariables = numVariables;
+		edges = new byte[numVariables * numVariables];
+	}
+
+	@Override
+	public byte get(int fromIndex, int toIndex) {
+		return edges[fromIndex * numVariables + toIndex];
+	}
+
+	@Override
+	public void set(int fromIndex, int toIndex, byte edge) {
+		edges[fromIndex * numVariables + toIndex] = edge;
+	}
+
+	@Override
+	public int getNextEdge(int fromIndex, int toIndex) {
+		final int rowOffset = fromIndex * numVariables;
+		for (int i = toIndex; i < numVariables; i++) {
+			if (edges[rowOffset + i] != 0) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(edges, (byte) 0);
+	}
+
+	@Override
+	public long size() {
+		return edges.length;
+	}
+
+	public byte[] getEdges() {
+		return edges;
+	}
+
+}
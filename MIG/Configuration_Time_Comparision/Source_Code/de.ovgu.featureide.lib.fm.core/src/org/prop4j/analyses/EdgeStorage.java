@@ -0,0 +1,50 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2016  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ * 
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.analyses;
+
+import java.io.Serializable;
+
+/**
+ * Storage for the edges of an {@link AdjMatrix}.
+ * Each entry contains the EDGE_* flags between two variables.
+ */
+public interface EdgeStorage extends Serializable {
+
+	byte get(int fromIndex, int toIndex);
+
+	void set(int fromIndex, int toIndex, byte edge);
+
+	/**
+	 * @return the smallest index greater than or equal to {@code toIndex} with a non-zero entry in the row {@code fromIndex} or {@code -1} if there is none.
+	 */
+	int getNextEdge(int fromIndex, int toIndex);
+
+	/**
+	 * Removes all edges.
+	 */
+	void clear();
+
+	/**
+	 * @return the (approximated) memory footprint in bytes.
+	 */
+	long size();
+
+}
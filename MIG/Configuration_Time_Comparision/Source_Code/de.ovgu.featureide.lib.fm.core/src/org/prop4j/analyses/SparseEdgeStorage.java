@@ -0,0 +1,170 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2016  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ * 
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.analyses;
+
+import java.util.Arrays;
+
+/**
+ * Stores edges in square blocks of {@link #BLOCK_SIZE} x {@link #BLOCK_SIZE} entries.
+ * A block is only allocated when one of its entries is set to a value other than zero.
+ * Allocated blocks are found via a hash directory (open addressing with linear probing).
+ * <p>
+ * As in {@link DenseEdgeStorage}, an entry is one byte with the eight EDGE_* flags of a pair.
+ * The flags of a pair can take 36 different combinations (six for each value of the source variable), so they do not fit into less than six bits.
+ * Memory is saved by not allocating empty blocks instead.
+ */
+public class SparseEdgeStorage implements EdgeStorage {
+
+	private static final long serialVersionUID = 6097431227380425016L;
+
+	private static final int BLOCK_SHIFT = 4;
+	public static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+	private static final int BLOCK_MASK = BLOCK_SIZE - 1;
+	private static final int BLOCK_BYTES = BLOCK_SIZE * BLOCK_SIZE;
+
+	/** Approximated overhead of an array object in bytes. */
+	private static final int ARRAY_OVERHEAD = 16;
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	private static int getBlocksPerRow(int numVariables) {
+		return (numVariables + BLOCK_MASK) >>> BLOCK_SHIFT;
+	}
+
+	private final int blocksPerRow;
+
+	private long[] keys;
+	private byte[][] blocks;
+	private int numBlocks;
+
+	public SparseEdgeStorage(int numVariables) {
+		blocksPerRow = getBlocksPerRow(numVariables);
+		init(INITIAL_CAPACITY);
+	}
+
+	private void init(int capacity) {
+		keys = new long[capacity];
+		Arrays.fill(keys, -1);
+		blocks = new byte[capacity][];
+		numBlocks = 0;
+	}
+
+	@Override
+	public byte get(int fromIndex, int toIndex) {
+		final byte[] block = blocks[find(getKey(fromIndex, toIndex))];
+		return block == null ? 0 : block[getOffset(fromIndex, toIndex)];
+	}
+
+	@Override
+	public void set(int fromIndex, int toIndex, byte edge) {
+		final long key = getKey(fromIndex, toIndex);
+		int slot = find(key);
+		byte[] block = blocks[slot];
+		if (block == null) {
+			if (edge == 0) {
+				return;
+			}
+			if ((numBlocks + 1) << 1 > keys.length) {
+				rehash(keys.length << 1);
+				slot = find(key);
+			}
+			block = new byte[BLOCK_BYTES];
+			keys[slot] = key;
+			blocks[slot] = block;
+			numBlocks++;
+		}
+		block[getOffset(fromIndex, toIndex)] = edge;
+	}
+
+	@Override
+	public int getNextEdge(int fromIndex, int toIndex) {
+		final int rowOffset = (fromIndex & BLOCK_MASK) << BLOCK_SHIFT;
+		for (int blockColumn = toIndex >>> BLOCK_SHIFT; blockColumn < blocksPerRow; blockColumn++) {
+			final byte[] block = blocks[find(getKey(fromIndex, blockColumn << BLOCK_SHIFT))];
+			if (block != null) {
+				for (int i = Math.max(toIndex - (blockColumn << BLOCK_SHIFT), 0); i < BLOCK_SIZE; i++) {
+					if (block[rowOffset + i] != 0) {
+						return (blockColumn << BLOCK_SHIFT) + i;
+					}
+				}
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public void clear() {
+		init(INITIAL_CAPACITY);
+	}
+
+	@Override
+	public long size() {
+		return (long) keys.length * (8 + 8) + (long) numBlocks * (BLOCK_BYTES + ARRAY_OVERHEAD);
+	}
+
+	public int getNumBlocks() {
+		return numBlocks;
+	}
+
+	private long getKey(int fromIndex, int toIndex) {
+		return (long) (fromIndex >>> BLOCK_SHIFT) * blocksPerRow + (toIndex >>> BLOCK_SHIFT);
+	}
+
+	private static int getOffset(int fromIndex, int toIndex) {
+		return ((fromIndex & BLOCK_MASK) << BLOCK_SHIFT) | (toIndex & BLOCK_MASK);
+	}
+
+	/**
+	 * @return the slot that contains the given key or the empty slot where it would be inserted.
+	 */
+	private int find(long key) {
+		final int mask = keys.length - 1;
+		int slot = hash(key) & mask;
+		while (true) {
+			final long slotKey = keys[slot];
+			if (slotKey == key || slotKey < 0) {
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	private static int hash(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+
+	private void rehash(int capacity) {
+		final long[] oldKeys = keys;
+		final byte[][] oldBlocks = blocks;
+		final int oldNumBlocks = numBlocks;
+		init(capacity);
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] >= 0) {
+				final int slot = find(oldKeys[i]);
+				keys[slot] = oldKeys[i];
+				blocks[slot] = oldBlocks[i];
+			}
+		}
+		numBlocks = oldNumBlocks;
+	}
+
+}
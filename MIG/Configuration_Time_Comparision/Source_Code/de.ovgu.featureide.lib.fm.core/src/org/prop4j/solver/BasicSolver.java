@@ -29,6 +29,7 @@ import org.prop4j.Literal;
 import org.prop4j.Node;
 import org.sat4j.core.VecInt;
 import org.sat4j.minisat.SolverFactory;
+import org.sat4j.minisat.core.IOrder;
 import org.sat4j.minisat.core.Solver;
 import org.sat4j.minisat.orders.NegativeLiteralSelectionStrategy;
 import org.sat4j.minisat.orders.PositiveLiteralSelectionStrategy;
@@ -55,8 +56,14 @@ public class BasicSolver implements ISatSolver {
 	protected final Solver<?> solver;
 	protected final int[] order;
 	protected final VecInt assignment;
+	protected final IOrder defaultOrder;
 	protected RingList<int[]> solutionList = null;
 
+	// Used by SolverPool to detect solvers with additional clauses
+	SolverPool pool = null;
+	int acquiredConstraintCount = 0;
+	int addedClauseCount = 0;
+
 	public BasicSolver(SatInstance satInstance) throws ContradictionException {
 		this.satInstance = satInstance;
 		final int numberOfVariables = satInstance.getNumberOfVariables();
@@ -64,6 +71,7 @@ public class BasicSolver implements ISatSolver {
 		this.assignment = new VecInt(numberOfVariables);
 
 		solver = initSolver();
+		defaultOrder = solver.getOrder();
 		addVariables();
 	}
 
@@ -74,6 +82,7 @@ public class BasicSolver implements ISatSolver {
 		oldSolver.assignment.copyTo(this.assignment);
 
 		solver = initSolver();
+		defaultOrder = solver.getOrder();
 		try {
 			addVariables();
 		} catch (ContradictionException e) {
@@ -100,6 +109,7 @@ public class BasicSolver implements ISatSolver {
 
 	@Override
 	public List<IConstr> addClauses(Node constraint) throws ContradictionException {
+		addedClauseCount++;
 		return addCNF(constraint.getChildren());
 	}
 
@@ -257,4 +267,19 @@ public class BasicSolver implements ISatSolver {
 		solutionList = new RingList<>(size);
 	}
 
+	/**
+	 * Removes the assignment, restores the initial variable order and selection strategy, and optionally removes all stored solutions.
+	 * Learned clauses are kept, as they are implied by the formula.
+	 * 
+	 * @param keepSolutions whether the solution list should be kept
+	 */
+	public void reset(boolean keepSolutions) {
+		assignment.clear();
+		fixOrder();
+		solver.setOrder(defaultOrder);
+		if (!keepSolutions) {
+			solutionList = null;
+		}
+	}
+
 }
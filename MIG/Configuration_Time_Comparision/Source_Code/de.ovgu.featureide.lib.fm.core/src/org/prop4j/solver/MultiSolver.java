@@ -20,168 +20,177 @@
  */
 package org.prop4j.solver;
 
+import java.util.Arrays;
 import java.util.List;
-import java.util.Random;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.Semaphore;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.prop4j.Node;
 import org.sat4j.core.VecInt;
-import org.sat4j.minisat.core.Heap;
-import org.sat4j.minisat.core.IPhaseSelectionStrategy;
-import org.sat4j.minisat.core.Solver;
-import org.sat4j.minisat.orders.NegativeLiteralSelectionStrategy;
-import org.sat4j.minisat.orders.PositiveLiteralSelectionStrategy;
-import org.sat4j.minisat.orders.RSATPhaseSelectionStrategy;
-import org.sat4j.minisat.orders.RandomLiteralSelectionStrategy;
-import org.sat4j.minisat.orders.VarOrderHeap;
+import org.sat4j.minisat.core.IOrder;
 import org.sat4j.specs.ContradictionException;
-import org.sat4j.specs.IVecInt;
+import org.sat4j.specs.IConstr;
 import org.sat4j.specs.TimeoutException;
 
 import de.ovgu.featureide.fm.core.base.IFeature;
 
 /**
  * Finds certain solutions of propositional formulas.
+ * Computes the backbone of a formula (i.e., all literals that are implied by the formula and the current assignment) with multiple threads.
+ * <p>
+ * The variables are divided into one index range per thread. Each thread tests the variables of its own range and steals half of the range of
+ * another thread when its own range is empty. Ranges, remaining candidate literals, and new solutions are shared via atomic variables and
+ * lock-free queues.
  * 
  * @author Sebastian Krieter
  */
 public class MultiSolver extends BasicSolver {
 
-	public class Consumer extends Thread {
+	public static final int DEFAULT_NUMBER_OF_THREADS;
+	static {
+		final int processors = Runtime.getRuntime().availableProcessors();
+		DEFAULT_NUMBER_OF_THREADS = (processors == 1) ? processors : processors >> 1;
+	}
 
-		private final IVecInt backbone = new VecInt();
-		private boolean run = true;
-		private final Solver<?> solver;
+	/**
+	 * Shared state of one backbone computation.
+	 */
+	private static class BackboneTask {
+
+		/** Literals that may still be part of the backbone (0 if a solution contains the complementary literal). */
+		private final AtomicIntegerArray candidates;
+		/** Index range of each worker, packed as (next index << 32 | end index). */
+		private final AtomicLong[] ranges;
+		private final ConcurrentLinkedQueue<int[]> newSolutions = new ConcurrentLinkedQueue<>();
+		private final int[] initialCandidates;
+		private final int[] implied;
+
+		private BackboneTask(int[] candidates, int numberOfWorkers) {
+			this.candidates = new AtomicIntegerArray(candidates);
+			initialCandidates = candidates;
+			implied = new int[candidates.length];
+			ranges = new AtomicLong[numberOfWorkers];
+			for (int i = 0; i < numberOfWorkers; i++) {
+				final int from = (int) (((long) candidates.length * i) / numberOfWorkers);
+				final int to = (int) (((long) candidates.length * (i + 1)) / numberOfWorkers);
+				ranges[i] = new AtomicLong(pack(from, to));
+			}
+		}
 
-		public Consumer(Solver<?> solver) {
-			this.solver = solver;
+		private static long pack(int from, int to) {
+			return ((long) from << 32) | (to & 0xffffffffL);
 		}
 
-		@Override
-		public void run() {
-			consume();
+		private int next(int worker) {
+			final AtomicLong range = ranges[worker];
+			while (true) {
+				final long bounds = range.get();
+				final int from = (int) (bounds >>> 32);
+				final int to = (int) bounds;
+				if (from >= to) {
+					return steal(worker) ? next(worker) : -1;
+				}
+				if (range.compareAndSet(bounds, pack(from + 1, to))) {
+					return from;
+				}
+			}
 		}
 
-		public final void consume() {
-			try {
-				while (run) {
-					final Integer var = varQueue.take();
-					if (!run) {
+		/**
+		 * Moves the upper half of the range of another worker to the (empty) range of the given worker.
+		 */
+		private boolean steal(int worker) {
+			for (int i = 1; i < ranges.length; i++) {
+				final AtomicLong victim = ranges[(worker + i) % ranges.length];
+				while (true) {
+					final long bounds = victim.get();
+					final int from = (int) (bounds >>> 32);
+					final int to = (int) bounds;
+					if (from >= to) {
 						break;
 					}
-					synchronized (orderLock) {
-						switch (curSelectionStrategy) {
-						case NEGATIVE:
-							solver.setOrder(new VarOrderHeap2(new NegativeLiteralSelectionStrategy(), order, orderLock));
-							break;
-						case ORG:
-							solver.setOrder(new VarOrderHeap(new RSATPhaseSelectionStrategy()));
-							break;
-						case POSITIVE:
-							solver.setOrder(new VarOrderHeap2(new PositiveLiteralSelectionStrategy(), order, orderLock));
-							break;
-						case RANDOM:
-							solver.setOrder(new VarOrderHeap2(new RandomLiteralSelectionStrategy(), order, orderLock));
-							break;
-						}
-					}
-					final int index = backbone.size();
-					synchronized (assignment) {
-						for (int i = index; i < assignment.size(); i++) {
-							backbone.push(assignment.get(i));
-						}
-					}
-					backbone.push(var);
-					try {
-						if (this.solver.isSatisfiable(backbone, false)) {
-							synchronized (solutionList) {
-								solutionList.add(solver.model());
-							}
-							shuffleOrder();
-							//								handleTrue();
-						} else {
-							assignmentPush(-var);
-							//								handleFalse();
-						}
-					} catch (final TimeoutException e) {
-						e.printStackTrace();
-						//							handleTimeout();
-					} finally {
-						backbone.pop();
+					final int mid = from + ((to - from) >>> 1);
+					if (victim.compareAndSet(bounds, pack(from, mid))) {
+						ranges[worker].set(pack(mid, to));
+						return true;
 					}
-					semaphore.release();
 				}
-			} catch (final InterruptedException e) {
 			}
+			return false;
 		}
 
-		public void stopComsumer() {
-			run = false;
-			interrupt();
+		/**
+		 * Removes all candidates that are not contained in the given solution.
+		 */
+		private void publish(int[] solution) {
+			for (int i = 0; i < implied.length; i++) {
+				final int candidate = candidates.get(i);
+				if (candidate != 0 && candidate != solution[i]) {
+					candidates.compareAndSet(i, candidate, 0);
+				}
+			}
+			newSolutions.add(solution);
 		}
 
 	}
 
-	public static class VarOrderHeap2 extends VarOrderHeap {
+	private class Worker implements Runnable {
 
-		private static final long serialVersionUID = 1L;
+		private final int id;
+		private final BasicSolver workerSolver;
+		private BackboneTask task;
 
-		private final Object orderLock;
-		private final int[] order;
-
-		public VarOrderHeap2(IPhaseSelectionStrategy strategy, int[] order, Object orderLock) {
-			super(strategy);
-			this.order = order;
-			this.orderLock = orderLock;
+		private Worker(int id, BasicSolver workerSolver) {
+			this.id = id;
+			this.workerSolver = workerSolver;
 		}
 
 		@Override
-		public void init() {
-			int nlength = lits.nVars() + 1;
-			if ((activity == null) || (activity.length < nlength)) {
-				activity = new double[nlength];
-			}
-			phaseStrategy.init(nlength);
-			activity[0] = -1;
-			heap = new Heap(activity);
-			heap.setBounds(nlength);
-			nlength--;
-			synchronized (orderLock) {
-				for (int i = 0; i < nlength; i++) {
-					final int x = order[i];
-					activity[x] = 0.0;
-					if (lits.belongsToPool(x)) {
-						heap.insert(x);
+		public void run() {
+			final BackboneTask task = this.task;
+			final VecInt assumptions = new VecInt(assignment.size() + 1);
+			assignment.copyTo(assumptions);
+			final int[] candidates = task.initialCandidates.clone();
+			workerSolver.solver.setOrder(new VarOrderHeap2(new FixedLiteralSelectionStrategy(candidates, true), workerSolver.order));
+
+			for (int i = task.next(id); i >= 0; i = task.next(id)) {
+				final int literal = task.candidates.get(i);
+				if (literal == 0) {
+					continue;
+				}
+				assumptions.push(-literal);
+				try {
+					if (workerSolver.solver.isSatisfiable(assumptions, false)) {
+						assumptions.pop();
+						final int[] solution = workerSolver.solver.model();
+						task.publish(solution);
+						SatInstance.updateModel(candidates, solution);
+						workerSolver.shuffleOrder();
+					} else {
+						// Implied literals can be used as additional assumptions by this worker
+						assumptions.pop().push(literal);
+						task.implied[i] = literal;
 					}
+				} catch (TimeoutException e) {
+					assumptions.pop();
 				}
 			}
 		}
 
 	}
 
-	protected static int NUMBER_OF_THREADS = 1;
-	static {
-		final int processors = Runtime.getRuntime().availableProcessors();
-		NUMBER_OF_THREADS = (processors == 1) ? processors : processors >> 1;
-	}
-
-	protected final Consumer[] solvers;
-
-	private final Object orderLock = new Object();
-	private final BlockingQueue<Integer> varQueue = new LinkedBlockingQueue<>();
-
-	private Semaphore semaphore;
+	private final Worker[] workers;
+	private ExecutorService executor = null;
 
 	public MultiSolver(MultiSolver oldSolver) {
 		super(oldSolver);
-		solvers = new Consumer[oldSolver.solvers.length];
-		for (int i = 0; i < solvers.length; i++) {
-			final Consumer solver = new Consumer(initSolver());
-			solver.solver.setOrder(oldSolver.solvers[i].solver.getOrder());
-			solvers[i] = solver;
-		}
+		workers = createWorkers(oldSolver.workers.length);
 	}
 
 	public MultiSolver(Node cnf, List<IFeature> featureList) throws ContradictionException {
@@ -189,95 +198,128 @@ public class MultiSolver extends BasicSolver {
 	}
 
 	public MultiSolver(SatInstance satInstance) throws ContradictionException {
-		super(satInstance);
-		solvers = new Consumer[NUMBER_OF_THREADS];
-		for (int i = 0; i < solvers.length; i++) {
-			solvers[i] = new Consumer(initSolver());
-		}
+		this(satInstance, DEFAULT_NUMBER_OF_THREADS);
 	}
 
-	public void assignmentClear(int fromIndex) {
-		synchronized (assignment) {
-			assignment.shrinkTo(fromIndex);
-		}
+	public MultiSolver(SatInstance satInstance, int numberOfThreads) throws ContradictionException {
+		super(satInstance);
+		workers = createWorkers(Math.max(1, numberOfThreads));
 	}
 
-	public void assignmentPop() {
-		synchronized (assignment) {
-			assignment.pop();
+	private Worker[] createWorkers(int numberOfThreads) {
+		final Worker[] workers = new Worker[numberOfThreads];
+		// The calling thread uses this solver
+		workers[0] = new Worker(0, this);
+		for (int i = 1; i < numberOfThreads; i++) {
+			workers[i] = new Worker(i, new BasicSolver(this));
 		}
+		return workers;
 	}
 
-	public void assignmentPush(int x) {
-		synchronized (assignment) {
-			assignment.push(x);
+	/**
+	 * Adds the clauses to this solver and to the solvers of all other workers, such that every worker solves the same formula.
+	 * The returned constraints belong to this solver only, so the clauses must not be removed again.
+	 */
+	@Override
+	public List<IConstr> addClauses(Node constraint) throws ContradictionException {
+		final List<IConstr> constraints = super.addClauses(constraint);
+		for (int i = 1; i < workers.length; i++) {
+			workers[i].workerSolver.addClauses(constraint);
 		}
+		return constraints;
 	}
 
-	public MultiSolver clone() {
-		return new MultiSolver(this);
+	public int getNumberOfThreads() {
+		return workers.length;
 	}
 
-	public void fixOrder() {
-		synchronized (order) {
-			for (int i = 0; i < order.length; i++) {
-				order[i] = i + 1;
+	/**
+	 * Computes all literals that are implied by the formula and the current assignment.
+	 * 
+	 * @return the assignment followed by the implied literals (ordered by variable) or {@code null} if there is no solution
+	 */
+	public int[] findBackbone() {
+		final int[] model1 = findModel();
+		if (model1 == null) {
+			return null;
+		}
+		final IOrder previousOrder = solver.getOrder();
+		final int[] previousVariableOrder = order.clone();
+		// The complementary literal of each candidate is preferred, such that every solution removes as many candidates as possible
+		solver.setOrder(new VarOrderHeap2(new FixedLiteralSelectionStrategy(model1, true), order));
+		final int[] model2 = findModel();
+		if (model2 != null) {
+			SatInstance.updateModel(model1, model2);
+		}
+		for (int i = 0; i < assignment.size(); i++) {
+			model1[Math.abs(assignment.get(i)) - 1] = 0;
+		}
+
+		final BackboneTask task = new BackboneTask(model1, workers.length);
+		for (Worker worker : workers) {
+			worker.task = task;
+		}
+		final Future<?>[] futures = new Future<?>[workers.length - 1];
+		for (int i = 1; i < workers.length; i++) {
+			futures[i - 1] = getExecutor().submit(workers[i]);
+		}
+		workers[0].run();
+		for (Future<?> future : futures) {
+			try {
+				future.get();
+			} catch (InterruptedException | ExecutionException e) {
+				throw new RuntimeException(e);
 			}
 		}
-	}
+		for (Worker worker : workers) {
+			worker.task = null;
+		}
+		System.arraycopy(previousVariableOrder, 0, order, 0, order.length);
+		solver.setOrder(previousOrder);
 
-	public SatResult isSatisfiable() {
-		try {
-			if (solver.isSatisfiable(assignment, false)) {
-				synchronized (solutionList) {
-					solutionList.add(solver.model());
-				}
-				return SatResult.TRUE;
-			} else {
-				return SatResult.FALSE;
+		if (solutionList != null) {
+			for (int[] solution : task.newSolutions) {
+				solutionList.add(solution);
 			}
-		} catch (TimeoutException e) {
-			e.printStackTrace();
-			return SatResult.TIMEOUT;
 		}
-	}
 
-	public void setOrder(List<IFeature> orderList) {
-		int i = -1;
-		synchronized (orderLock) {
-			for (IFeature feature : orderList) {
-				order[++i] = satInstance.varToInt.get(feature.getName());
+		final int[] backbone = Arrays.copyOf(assignment.toArray(), assignment.size() + task.implied.length);
+		int size = assignment.size();
+		for (int literal : task.implied) {
+			if (literal != 0) {
+				backbone[size++] = literal;
 			}
 		}
+		return Arrays.copyOf(backbone, size);
 	}
 
-	private SelectionStrategy curSelectionStrategy = SelectionStrategy.ORG;
-
-	public void setSelectionStrategy(SelectionStrategy strategy) {
-		super.setSelectionStrategy(strategy);
-
-		synchronized (orderLock) {
-			curSelectionStrategy = strategy;
+	private ExecutorService getExecutor() {
+		if (executor == null) {
+			executor = Executors.newFixedThreadPool(workers.length - 1, new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					final Thread thread = new Thread(r);
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
 		}
+		return executor;
 	}
 
-	public void shuffleOrder() {
-		final Random rnd = new Random();
-		synchronized (orderLock) {
-			for (int i = order.length - 1; i >= 0; i--) {
-				final int index = rnd.nextInt(i + 1);
-				final int a = order[index];
-				order[index] = order[i];
-				order[i] = a;
-			}
+	/**
+	 * Stops the worker threads. They are started again on the next call of {@link #findBackbone()}.
+	 */
+	public void shutdown() {
+		if (executor != null) {
+			executor.shutdown();
+			executor = null;
 		}
 	}
 
 	@Override
-	public int getNumberOfSolutions() {
-		synchronized (solutionList) {
-			return solutionList.size();
-		}
+	public MultiSolver clone() {
+		return new MultiSolver(this);
 	}
 
 }
@@ -0,0 +1,175 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2016  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ * 
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.solver;
+
+import java.util.ArrayDeque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.sat4j.specs.ContradictionException;
+
+import de.ovgu.featureide.fm.core.base.util.RingList;
+
+/**
+ * Keeps pre-built solvers per {@link SatInstance}, such that the clauses of a formula do not have to be added to a new solver for every query.
+ * <p>
+ * A solver obtained via {@link #acquire(SatInstance)} or {@link #copy(ISatSolver)} should be given back with {@link #release(BasicSolver)} when it is not
+ * needed anymore. Solvers to which additional clauses were added are not pooled again. A solver is considered modified, if clauses were added via
+ * {@link BasicSolver#addClauses(org.prop4j.Node)} or if its internal solver contains more constraints than at the time it was acquired.
+ * As Sat4J removes satisfied clauses when simplifying its database, a clause that is added directly to the internal solver is only detected, if the number
+ * of constraints does not decrease by the same amount during the same use.
+ */
+public class SolverPool {
+
+	public static final int DEFAULT_MAX_IDLE_SOLVERS = 8;
+
+	private final Map<SatInstance, ArrayDeque<BasicSolver>> idleSolvers = new IdentityHashMap<>();
+	private final int maxIdleSolvers;
+
+	private long hits = 0;
+	private long misses = 0;
+	private long discarded = 0;
+
+	public SolverPool() {
+		this(DEFAULT_MAX_IDLE_SOLVERS);
+	}
+
+	/**
+	 * @param maxIdleSolvers the maximum number of idle solvers that are kept per {@link SatInstance}
+	 */
+	public SolverPool(int maxIdleSolvers) {
+		this.maxIdleSolvers = maxIdleSolvers;
+	}
+
+	public BasicSolver acquire(SatInstance satInstance) throws ContradictionException {
+		return acquire(satInstance, false);
+	}
+
+	/**
+	 * Returns an idle solver for the given formula or creates a new one.
+	 * The solver has no assignment and uses the initial variable order and selection strategy.
+	 * 
+	 * @param satInstance the formula
+	 * @param keepSolutions whether the solutions found by previous users of the solver should be kept
+	 */
+	public BasicSolver acquire(SatInstance satInstance, boolean keepSolutions) throws ContradictionException {
+		BasicSolver solver = null;
+		synchronized (this) {
+			final ArrayDeque<BasicSolver> solvers = idleSolvers.get(satInstance);
+			if (solvers != null) {
+				solver = solvers.pollLast();
+			}
+			if (solver != null) {
+				hits++;
+			} else {
+				misses++;
+			}
+		}
+		if (solver == null) {
+			solver = new BasicSolver(satInstance);
+		} else if (!keepSolutions) {
+			solver.reset(false);
+		}
+		solver.pool = this;
+		solver.acquiredConstraintCount = solver.solver.nConstraints();
+		return solver;
+	}
+
+	/**
+	 * Creates a snapshot of the given solver, i.e., a solver for the same formula with a copy of its assignment, variable order, and solutions.
+	 * In contrast to {@link ISatSolver#clone()}, an idle solver is reused if available.
+	 */
+	public BasicSolver copy(ISatSolver original) throws ContradictionException {
+		final BasicSolver copy = acquire(original.getSatInstance(), false);
+		original.getAssignment().copyTo(copy.assignment);
+		final int[] order = original.getOrder();
+		System.arraycopy(order, 0, copy.order, 0, order.length);
+		final RingList<int[]> solutionList = original.getSolutionList();
+		if (solutionList != null) {
+			copy.initSolutionList(solutionList.getMaxSize());
+			for (int[] solution : solutionList) {
+				copy.solutionList.add(solution);
+			}
+		}
+		return copy;
+	}
+
+	/**
+	 * Gives a solver back to the pool. Its assignment, variable order, and selection strategy are reset.
+	 * Instances of subclasses of {@link BasicSolver}, solvers that were not acquired from this pool, and solvers with additional clauses are not pooled.
+	 */
+	public void release(BasicSolver solver) {
+		if (solver.getClass() != BasicSolver.class || solver.pool != this || solver.addedClauseCount != 0
+			|| solver.solver.nConstraints() > solver.acquiredConstraintCount) {
+			synchronized (this) {
+				discarded++;
+			}
+			return;
+		}
+		solver.pool = null;
+		solver.reset(true);
+		synchronized (this) {
+			ArrayDeque<BasicSolver> solvers = idleSolvers.get(solver.getSatInstance());
+			if (solvers == null) {
+				solvers = new ArrayDeque<>();
+				idleSolvers.put(solver.getSatInstance(), solvers);
+			}
+			if (solvers.size() < maxIdleSolvers) {
+				solvers.addLast(solver);
+			} else {
+				discarded++;
+			}
+		}
+	}
+
+	/**
+	 * Removes all idle solvers.
+	 */
+	public synchronized void clear() {
+		idleSolvers.clear();
+	}
+
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	public synchronized long getDiscarded() {
+		return discarded;
+	}
+
+	public synchronized int getIdleSolvers() {
+		int count = 0;
+		for (ArrayDeque<BasicSolver> solvers : idleSolvers.values()) {
+			count += solvers.size();
+		}
+		return count;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "SolverPool [hits=" + hits + ", misses=" + misses + ", discarded=" + discarded + ", idle=" + getIdleSolvers() + "]";
+	}
+
+}
@@ -0,0 +1,138 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2016  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ * 
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.prop4j.And;
+import org.prop4j.Literal;
+import org.prop4j.Node;
+import org.prop4j.Or;
+import org.prop4j.analyses.AdjList;
+import org.prop4j.analyses.AdjMatrix;
+import org.prop4j.analyses.CompressedAdjList;
+import org.prop4j.solver.SatInstance;
+
+import de.ovgu.featureide.fm.core.io.manager.FileHandler;
+
+/**
+ * Tests that feature graphs written by a file handler are stored in the binary format and can be read again.
+ * 
+ * @author Sebastian Krieter
+ */
+public class FGAdjListFormatTest {
+
+	private static final int NUMBER_OF_VARIABLES = 200;
+
+	private Path directory;
+
+	@Before
+	public void createDirectory() throws IOException {
+		directory = Files.createTempDirectory("fg");
+	}
+
+	@After
+	public void deleteDirectory() throws IOException {
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+			for (Path file : files) {
+				Files.delete(file);
+			}
+		}
+		Files.delete(directory);
+	}
+
+	/**
+	 * Creates a feature graph with implication chains and ternary clauses, such that the encoded graph contains bytes above 0x7f.
+	 */
+	private static AdjList createAdjList() {
+		final List<Node> clauses = new ArrayList<>();
+		for (int i = 1; i < NUMBER_OF_VARIABLES; i++) {
+			clauses.add(new Or(new Literal("x" + (i - 1), false), new Literal("x" + i)));
+		}
+		for (int i = 2; i < NUMBER_OF_VARIABLES; i += 3) {
+			clauses.add(new Or(new Literal("y" + i), new Literal("y" + (i - 1), false), new Literal("x" + (i - 2), false)));
+		}
+		final AdjMatrix adjMatrix = AdjMatrix.build(new SatInstance(new And(clauses.toArray(new Node[0]))), true);
+		return AdjList.build(adjMatrix);
+	}
+
+	private static boolean containsHighBytes(byte[] bytes) {
+		for (byte b : bytes) {
+			if (b < 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Test
+	public void fileHandlerRoundTrip() throws IOException {
+		final AdjList adjList = createAdjList();
+		final byte[] expected = FGAdjListFormat.toBytes(adjList);
+		assertTrue(containsHighBytes(expected));
+
+		final Path path = directory.resolve("model.fg");
+		assertTrue(new FileHandler<>(path, adjList, new FGAdjListFormat()).write());
+		assertArrayEquals(expected, Files.readAllBytes(path));
+
+		final CompressedAdjList compressedAdjList = new CompressedAdjList(0);
+		assertTrue(new FileHandler<AdjList>(path, compressedAdjList, new FGAdjListFormat()).read());
+		assertArrayEquals(expected, FGAdjListFormat.toBytes(compressedAdjList));
+
+		final AdjList copy = new AdjList(0);
+		assertTrue(new FileHandler<>(path, copy, new FGAdjListFormat()).read());
+		assertArrayEquals(expected, FGAdjListFormat.toBytes(copy));
+
+		assertArrayEquals(expected, FGAdjListFormat.toBytes(FGAdjListFormat.read(path)));
+	}
+
+	@Test
+	public void fileHandlerReadsDirectWrite() throws IOException {
+		final AdjList adjList = createAdjList();
+		final Path path = directory.resolve("model.fg");
+		FGAdjListFormat.write(adjList, path);
+
+		final CompressedAdjList compressedAdjList = new CompressedAdjList(0);
+		assertTrue(new FileHandler<AdjList>(path, compressedAdjList, new FGAdjListFormat()).read());
+		assertArrayEquals(FGAdjListFormat.toBytes(adjList), FGAdjListFormat.toBytes(compressedAdjList));
+	}
+
+	@Test
+	public void stringRoundTrip() {
+		final AdjList adjList = createAdjList();
+		final FGAdjListFormat format = new FGAdjListFormat();
+		final CompressedAdjList compressedAdjList = new CompressedAdjList(0);
+		assertTrue(format.read(compressedAdjList, format.write(adjList)).isEmpty());
+		assertArrayEquals(FGAdjListFormat.toBytes(adjList), FGAdjListFormat.toBytes(compressedAdjList));
+	}
+
+}
@@ -0,0 +1,114 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2016  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ * 
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.prop4j.MultiThreadSatSolver.PortfolioConfiguration;
+import org.prop4j.analyses.AdjMatrixParallelTest;
+import org.prop4j.solver.ISatSolver.SelectionStrategy;
+import org.sat4j.specs.TimeoutException;
+
+/**
+ * Tests that the portfolio of the {@link MultiThreadSatSolver} gives the same answers as a single {@link SatSolver}.
+ * 
+ * @author Sebastian Krieter
+ */
+public class MultiThreadSatSolverTest {
+
+	private static final int NUMBER_OF_VARIABLES = 200;
+	private static final int NUMBER_OF_QUERIES = 60;
+	private static final long TIMEOUT = 60000;
+
+	@Test
+	public void defaultPortfolio() throws TimeoutException {
+		testPortfolio(MultiThreadSatSolver.getDefaultPortfolio());
+	}
+
+	@Test
+	public void singleConfiguration() throws TimeoutException {
+		testPortfolio(new PortfolioConfiguration(SelectionStrategy.ORG, MultiThreadSatSolver.Restarts.DEFAULT, 3));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void emptyPortfolio() {
+		final Node cnf = AdjMatrixParallelTest.createCNF(NUMBER_OF_VARIABLES, 0);
+		new MultiThreadSatSolver(cnf, TIMEOUT, 1, false).initPortfolio();
+	}
+
+	private void testPortfolio(PortfolioConfiguration... configurations) throws TimeoutException {
+		for (long seed = 0; seed < 3; seed++) {
+			final Node cnf = AdjMatrixParallelTest.createCNF(NUMBER_OF_VARIABLES, seed);
+			final SatSolver reference = new SatSolver(cnf, TIMEOUT, false);
+			final MultiThreadSatSolver solver = new MultiThreadSatSolver(cnf, TIMEOUT, 1, false);
+			try {
+				assertTrue(solver.initPortfolio(configurations));
+
+				final List<Object> variables = new ArrayList<>(solver.varToInt.keySet());
+				final Random random = new Random(seed);
+				int satisfiable = 0;
+				for (int i = 0; i < NUMBER_OF_QUERIES; i++) {
+					// Few assumptions are almost always satisfiable, many are almost always contradictory
+					final int numberOfAssumptions = 1 + random.nextInt(40);
+					final List<Literal> assumptions = new ArrayList<>(numberOfAssumptions);
+					for (int j = 0; j < numberOfAssumptions; j++) {
+						assumptions.add(new Literal(variables.get(random.nextInt(variables.size())), random.nextBoolean()));
+					}
+
+					final boolean expected = reference.isSatisfiable(new ArrayList<Node>(assumptions));
+					assertEquals("Query " + i, expected, solver.isSatisfiable(assumptions));
+
+					final int[] model = solver.getPortfolioModel();
+					if (expected) {
+						satisfiable++;
+						assertNotNull(model);
+						for (Literal literal : assumptions) {
+							final int var = solver.varToInt.get(literal.var);
+							assertEquals("Assumption " + literal, literal.positive, model[var - 1] > 0);
+						}
+					} else {
+						assertNull(model);
+					}
+				}
+				assertTrue("No satisfiable query", satisfiable > 0);
+				assertTrue("No unsatisfiable query", satisfiable < NUMBER_OF_QUERIES);
+
+				long wins = 0;
+				for (long portfolioWins : solver.getPortfolioWins()) {
+					wins += portfolioWins;
+				}
+				assertEquals(NUMBER_OF_QUERIES, wins);
+				assertEquals(0, solver.getPortfolioTimeouts());
+			} finally {
+				solver.shutdown();
+			}
+		}
+	}
+
+}
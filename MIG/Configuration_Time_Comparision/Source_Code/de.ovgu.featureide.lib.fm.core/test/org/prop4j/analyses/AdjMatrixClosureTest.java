@@ -0,0 +1,111 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2016  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ * 
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.analyses;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests that the iterative transitive closure of {@link AdjMatrix} results in the same edges as the recursive {@link ReferenceClosure}.
+ * 
+ * @author Sebastian Krieter
+ */
+public class AdjMatrixClosureTest {
+
+	private static int randomLiteral(Random random, int numVariables) {
+		final int var = random.nextInt(numVariables) + 1;
+		return random.nextBoolean() ? var : -var;
+	}
+
+	private static void assertSameClosure(int numVariables, int strongRelations, int weakRelations, long seed, boolean sparse) {
+		final Random random = new Random(seed);
+		final AdjMatrix expected = new AdjMatrix(numVariables);
+		final ReferenceClosure reference = new ReferenceClosure(expected);
+		for (int i = 0; i < strongRelations; i++) {
+			reference.addStrongRelation(randomLiteral(random, numVariables), randomLiteral(random, numVariables));
+		}
+		for (int i = 0; i < weakRelations; i++) {
+			reference.addWeakRelation(randomLiteral(random, numVariables), randomLiteral(random, numVariables));
+		}
+
+		final AdjMatrix actual = new AdjMatrix(numVariables, sparse ? new SparseEdgeStorage(numVariables) : new DenseEdgeStorage(numVariables));
+		int initialEdges = 0;
+		for (int i = 0; i < numVariables; i++) {
+			for (int j = 0; j < numVariables; j++) {
+				final byte edge = expected.getEdge(i, j);
+				actual.getEdges().set(i, j, edge);
+				if (edge != 0) {
+					initialEdges++;
+				}
+			}
+		}
+
+		reference.dfsStrong();
+		AdjMatrix.computeClosure(actual, true);
+		final int strongEdges = assertSameEdges(expected, actual);
+
+		reference.dfsWeak();
+		AdjMatrix.computeClosure(actual, false);
+		final int allEdges = assertSameEdges(expected, actual);
+
+		assertTrue(initialEdges < strongEdges);
+		assertTrue(strongEdges < allEdges);
+	}
+
+	private static int assertSameEdges(AdjMatrix expected, AdjMatrix actual) {
+		int edges = 0;
+		for (int i = 0; i < expected.getNumVariables(); i++) {
+			for (int j = 0; j < expected.getNumVariables(); j++) {
+				assertEquals("Edge " + i + " -> " + j, expected.getEdge(i, j), actual.getEdge(i, j));
+				if (expected.getEdge(i, j) != 0) {
+					edges++;
+				}
+			}
+		}
+		return edges;
+	}
+
+	@Test
+	public void smallMatrix() {
+		for (long seed = 0; seed < 20; seed++) {
+			assertSameClosure(30, 20, 20, seed, false);
+		}
+	}
+
+	@Test
+	public void mediumMatrix() {
+		for (long seed = 0; seed < 5; seed++) {
+			assertSameClosure(150, 100, 150, seed, false);
+		}
+	}
+
+	@Test
+	public void sparseMatrix() {
+		for (long seed = 0; seed < 5; seed++) {
+			assertSameClosure(150, 100, 150, seed, true);
+		}
+	}
+
+}
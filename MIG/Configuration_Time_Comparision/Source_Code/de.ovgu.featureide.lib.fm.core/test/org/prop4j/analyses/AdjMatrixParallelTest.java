@@ -0,0 +1,156 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2016  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ * 
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.analyses;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.prop4j.And;
+import org.prop4j.Literal;
+import org.prop4j.Node;
+import org.prop4j.Or;
+import org.prop4j.analyses.AdjList.Vertex;
+import org.prop4j.solver.SatInstance;
+
+import de.ovgu.featureide.fm.core.editing.cnf.Clause;
+
+/**
+ * Tests that the parallel detection of strong edges results in the same feature graph as the sequential one.
+ * 
+ * @author Sebastian Krieter
+ */
+public class AdjMatrixParallelTest {
+
+	private static final int THREADS = 4;
+
+	/**
+	 * Creates a random satisfiable CNF with unit, binary, and ternary clauses that are all satisfied by a hidden random assignment.
+	 */
+	public static Node createCNF(int numVariables, long seed) {
+		final Random random = new Random(seed);
+		final boolean[] assignment = new boolean[numVariables];
+		for (int i = 0; i < numVariables; i++) {
+			assignment[i] = random.nextBoolean();
+		}
+		final List<Node> clauses = new ArrayList<>();
+		for (int i = 0; i < numVariables / 50; i++) {
+			final int var = random.nextInt(numVariables);
+			clauses.add(new Or(new Literal("x" + var, assignment[var])));
+		}
+		addClauses(clauses, random, assignment, 2, numVariables);
+		addClauses(clauses, random, assignment, 3, numVariables + (numVariables >> 1));
+		return new And(clauses.toArray(new Node[0]));
+	}
+
+	private static void addClauses(List<Node> clauses, Random random, boolean[] assignment, int length, int count) {
+		while (count > 0) {
+			final Literal[] literals = new Literal[length];
+			final int[] vars = new int[length];
+			boolean satisfied = false;
+			outer: for (int i = 0; i < length; i++) {
+				vars[i] = random.nextInt(assignment.length);
+				for (int j = 0; j < i; j++) {
+					if (vars[i] == vars[j]) {
+						i--;
+						continue outer;
+					}
+				}
+				final boolean positive = random.nextBoolean();
+				satisfied |= positive == assignment[vars[i]];
+				literals[i] = new Literal("x" + vars[i], positive);
+			}
+			if (satisfied) {
+				clauses.add(new Or((Object[]) literals));
+				count--;
+			}
+		}
+	}
+
+	private static void assertSameGraph(int numVariables, long seed) {
+		final AdjMatrix sequential = AdjMatrix.build(new SatInstance(createCNF(numVariables, seed)), true, 1);
+		final AdjMatrix parallel = AdjMatrix.build(new SatInstance(createCNF(numVariables, seed)), true, THREADS);
+
+		assertSameMatrix(sequential, parallel);
+		assertSameAdjList(CompressedAdjList.build(sequential), CompressedAdjList.build(parallel));
+	}
+
+	static void assertSameMatrix(AdjMatrix expected, AdjMatrix actual) {
+		assertEquals(expected.getNumVariables(), actual.getNumVariables());
+		int strongEdges = 0;
+		for (int i = 0; i < expected.getNumVariables(); i++) {
+			assertEquals(expected.getCore(i), actual.getCore(i));
+			for (int j = 0; j < expected.getNumVariables(); j++) {
+				assertEquals("Edge " + i + " -> " + j, expected.getEdge(i, j), actual.getEdge(i, j));
+				if (AdjMatrix.isStrongEdge(expected.getEdge(i, j))) {
+					strongEdges++;
+				}
+			}
+		}
+		assertTrue(strongEdges > 0);
+		assertSameClauses(expected.getClauseList(), actual.getClauseList());
+	}
+
+	static void assertSameAdjList(AdjList expected, AdjList actual) {
+		final List<Vertex> expectedVertices = expected.getAdjList();
+		final List<Vertex> actualVertices = actual.getAdjList();
+		assertEquals(expectedVertices.size(), actualVertices.size());
+		for (int i = 0; i < expectedVertices.size(); i++) {
+			final Vertex expectedVertex = expectedVertices.get(i);
+			final Vertex actualVertex = actualVertices.get(i);
+			assertEquals(expectedVertex.getId(), actualVertex.getId());
+			assertEquals(expectedVertex.getCore(), actualVertex.getCore());
+			assertArrayEquals(expectedVertex.getPosStrongEdges(), actualVertex.getPosStrongEdges());
+			assertArrayEquals(expectedVertex.getNegStrongEdges(), actualVertex.getNegStrongEdges());
+			assertArrayEquals(expectedVertex.getPosComplexClauses(), actualVertex.getPosComplexClauses());
+			assertArrayEquals(expectedVertex.getNegComplexClauses(), actualVertex.getNegComplexClauses());
+		}
+		assertSameClauses(expected.getComplexClauses(), actual.getComplexClauses());
+	}
+
+	static void assertSameClauses(List<Clause> expected, List<Clause> actual) {
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertArrayEquals(expected.get(i).getLiterals(), actual.get(i).getLiterals());
+		}
+	}
+
+	@Test
+	public void smallModel() {
+		assertSameGraph(50, 0);
+	}
+
+	@Test
+	public void mediumModel() {
+		assertSameGraph(200, 1);
+	}
+
+	@Test
+	public void largeModel() {
+		assertSameGraph(500, 2);
+	}
+
+}
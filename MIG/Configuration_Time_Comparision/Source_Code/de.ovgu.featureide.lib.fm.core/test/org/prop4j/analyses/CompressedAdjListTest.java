@@ -0,0 +1,62 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2016  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ * 
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.analyses;
+
+import org.junit.Test;
+import org.prop4j.solver.SatInstance;
+
+/**
+ * Tests that a {@link CompressedAdjList} contains the same vertices and clauses as an {@link AdjList}.
+ * 
+ * @author Sebastian Krieter
+ */
+public class CompressedAdjListTest {
+
+	private static AdjMatrix buildMatrix(int numVariables, long seed) {
+		return AdjMatrix.build(new SatInstance(AdjMatrixParallelTest.createCNF(numVariables, seed)), true, 1);
+	}
+
+	@Test
+	public void buildFromMatrix() {
+		for (long seed = 0; seed < 3; seed++) {
+			final AdjMatrix adjMatrix = buildMatrix(50 + 100 * (int) seed, seed);
+			AdjMatrixParallelTest.assertSameAdjList(AdjList.build(adjMatrix), CompressedAdjList.build(adjMatrix));
+		}
+	}
+
+	@Test
+	public void copyAdjList() {
+		final AdjList adjList = AdjList.build(buildMatrix(200, 3));
+		final CompressedAdjList copy = new CompressedAdjList(0);
+		copy.copyValues(adjList);
+		copy.copyValues(adjList);
+		AdjMatrixParallelTest.assertSameAdjList(adjList, copy);
+	}
+
+	@Test
+	public void copyCompressedAdjList() {
+		final AdjMatrix adjMatrix = buildMatrix(200, 4);
+		final CompressedAdjList copy = new CompressedAdjList(0);
+		copy.copyValues(CompressedAdjList.build(adjMatrix));
+		AdjMatrixParallelTest.assertSameAdjList(AdjList.build(adjMatrix), copy);
+	}
+
+}
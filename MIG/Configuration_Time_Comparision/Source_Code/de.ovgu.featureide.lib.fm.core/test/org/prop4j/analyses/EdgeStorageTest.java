@@ -0,0 +1,159 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2016  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ * 
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.analyses;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+import org.prop4j.solver.SatInstance;
+
+/**
+ * Tests that {@link SparseEdgeStorage} and {@link AdaptiveEdgeStorage} behave like a {@link DenseEdgeStorage}.
+ * 
+ * @author Sebastian Krieter
+ */
+public class EdgeStorageTest {
+
+	private static final int OPERATIONS = 20000;
+	private static final int CHECK_INTERVAL = 500;
+
+	/**
+	 * Applies the same random sequence of set operations to both storages and compares them in between.
+	 * Some of the values are zero to overwrite existing entries and to test that no blocks are allocated for them.
+	 */
+	private static void fuzz(EdgeStorage expected, EdgeStorage actual, int numVariables, int operations, long seed) {
+		final Random random = new Random(seed);
+		for (int i = 0; i < operations; i++) {
+			final int from = random.nextInt(numVariables);
+			final int to = random.nextInt(numVariables);
+			final byte edge = random.nextInt(4) == 0 ? 0 : (byte) random.nextInt(256);
+			expected.set(from, to, edge);
+			actual.set(from, to, edge);
+			assertEquals(expected.get(from, to), actual.get(from, to));
+			if ((i % CHECK_INTERVAL) == 0) {
+				assertSameStorage(expected, actual, numVariables, random);
+			}
+		}
+		assertSameStorage(expected, actual, numVariables, random);
+	}
+
+	private static void assertSameStorage(EdgeStorage expected, EdgeStorage actual, int numVariables, Random random) {
+		for (int i = 0; i < numVariables; i++) {
+			for (int j = 0; j < numVariables; j++) {
+				assertEquals("Edge " + i + " -> " + j, expected.get(i, j), actual.get(i, j));
+			}
+			for (int j = expected.getNextEdge(i, 0); j >= 0; j = expected.getNextEdge(i, j + 1)) {
+				assertEquals("Next edge " + i + " -> " + j, j, actual.getNextEdge(i, j));
+			}
+			final int start = random.nextInt(numVariables + 1);
+			assertEquals("Next edge " + i + " -> " + start, expected.getNextEdge(i, start), actual.getNextEdge(i, start));
+		}
+	}
+
+	@Test
+	public void sparse() {
+		for (int numVariables : new int[] { 1, 15, 16, 17, 100, 333 }) {
+			final SparseEdgeStorage sparse = new SparseEdgeStorage(numVariables);
+			fuzz(new DenseEdgeStorage(numVariables), sparse, numVariables, OPERATIONS, numVariables);
+		}
+	}
+
+	@Test
+	public void sparseRehash() {
+		final int numVariables = 333;
+		final SparseEdgeStorage sparse = new SparseEdgeStorage(numVariables);
+		final DenseEdgeStorage dense = new DenseEdgeStorage(numVariables);
+		fuzz(dense, sparse, numVariables, OPERATIONS, 0);
+		// 21 x 21 blocks need several rehashes of the initial directory
+		assertTrue(sparse.getNumBlocks() > 256);
+
+		sparse.clear();
+		dense.clear();
+		assertEquals(0, sparse.getNumBlocks());
+		assertSameStorage(dense, sparse, numVariables, new Random(1));
+		fuzz(dense, sparse, numVariables, OPERATIONS, 1);
+	}
+
+	@Test
+	public void sparseZeroEntries() {
+		final SparseEdgeStorage sparse = new SparseEdgeStorage(100);
+		sparse.set(3, 50, (byte) 0);
+		assertEquals(0, sparse.getNumBlocks());
+		assertEquals(-1, sparse.getNextEdge(3, 0));
+		sparse.set(3, 50, (byte) 1);
+		sparse.set(3, 50, (byte) 0);
+		assertEquals(-1, sparse.getNextEdge(3, 0));
+	}
+
+	@Test
+	public void adaptive() {
+		final int numVariables = 100;
+		final AdaptiveEdgeStorage adaptive = new AdaptiveEdgeStorage(numVariables);
+		final DenseEdgeStorage dense = new DenseEdgeStorage(numVariables);
+
+		// Only a few blocks, the storage stays sparse
+		fuzz(dense, adaptive, numVariables, 5, 0);
+		assertFalse(adaptive.isDense());
+
+		// Most blocks are allocated, the storage switches to dense and has to keep all entries
+		fuzz(dense, adaptive, numVariables, OPERATIONS, 1);
+		assertTrue(adaptive.isDense());
+		assertEquals(DenseEdgeStorage.estimateSize(numVariables), adaptive.size());
+	}
+
+	@Test
+	public void adaptiveSwitch() {
+		// Checks the entries right after each possible switch
+		for (long seed = 0; seed < 20; seed++) {
+			final int numVariables = 64;
+			final AdaptiveEdgeStorage adaptive = new AdaptiveEdgeStorage(numVariables);
+			final DenseEdgeStorage dense = new DenseEdgeStorage(numVariables);
+			final Random random = new Random(seed);
+			while (!adaptive.isDense()) {
+				final int from = random.nextInt(numVariables);
+				final int to = random.nextInt(numVariables);
+				final byte edge = (byte) (1 + random.nextInt(255));
+				dense.set(from, to, edge);
+				adaptive.set(from, to, edge);
+			}
+			assertSameStorage(dense, adaptive, numVariables, random);
+		}
+	}
+
+	@Test
+	public void sparseAdjMatrix() {
+		for (long seed = 0; seed < 3; seed++) {
+			final SatInstance denseInstance = new SatInstance(AdjMatrixParallelTest.createCNF(200, seed));
+			final SatInstance sparseInstance = new SatInstance(AdjMatrixParallelTest.createCNF(200, seed));
+			final int numVariables = denseInstance.getNumberOfVariables();
+			final AdjMatrix dense = AdjMatrix.build(denseInstance, true, 1, null, new DenseEdgeStorage(numVariables));
+			final SparseEdgeStorage sparseEdges = new SparseEdgeStorage(numVariables);
+			final AdjMatrix sparse = AdjMatrix.build(sparseInstance, true, 1, null, sparseEdges);
+			assertTrue(sparseEdges.getNumBlocks() > 0);
+			AdjMatrixParallelTest.assertSameMatrix(dense, sparse);
+		}
+	}
+
+}
@@ -0,0 +1,115 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2016  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ * 
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.analyses;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+import org.prop4j.solver.SatInstance;
+import org.sat4j.core.VecInt;
+
+import de.ovgu.featureide.fm.core.conf.IFeatureGraph2.ITraverser;
+
+/**
+ * Tests that the {@link AdjList.EpochTraverser} computes the same models and relevant variables as the {@link ReferenceTraverser}.
+ * 
+ * @author Sebastian Krieter
+ */
+public class EpochTraverserTest {
+
+	private static final int ITERATIONS = 500;
+
+	/**
+	 * @param compressed whether the {@link AdjList.EpochTraverser} runs on a {@link CompressedAdjList} instead of the {@link AdjList} of the reference
+	 */
+	private static void assertSameTraversal(int numVariables, long seed, boolean compressed) {
+		final AdjMatrix adjMatrix = AdjMatrix.build(new SatInstance(AdjMatrixParallelTest.createCNF(numVariables, seed)), true, 1);
+		final AdjList adjList = AdjList.build(adjMatrix);
+		final ITraverser expectedTraverser = new ReferenceTraverser(adjList);
+		final ITraverser actualTraverser = new AdjList.EpochTraverser(compressed ? CompressedAdjList.build(adjMatrix) : adjList);
+		final Random random = new Random(seed);
+
+		for (int i = 0; i < ITERATIONS; i++) {
+			final int[] fixedVariables = new int[1 + random.nextInt(3)];
+			final int[] expectedModel = new int[numVariables];
+			for (int j = 0; j < fixedVariables.length; j++) {
+				final int var = random.nextInt(numVariables) + 1;
+				fixedVariables[j] = random.nextBoolean() ? var : -var;
+				expectedModel[var - 1] = fixedVariables[j];
+			}
+			final int[] actualModel = Arrays.copyOf(expectedModel, numVariables);
+
+			expectedTraverser.clear();
+			actualTraverser.clear();
+			try {
+				for (int var : fixedVariables) {
+					expectedTraverser.traverse(var, expectedModel);
+				}
+			} catch (RuntimeException e) {
+				try {
+					for (int var : fixedVariables) {
+						actualTraverser.traverse(var, actualModel);
+					}
+				} catch (RuntimeException e2) {
+					continue;
+				}
+				fail("Expected contradiction for " + Arrays.toString(fixedVariables));
+			}
+			for (int var : fixedVariables) {
+				actualTraverser.traverse(var, actualModel);
+			}
+
+			assertArrayEquals(expectedModel, actualModel);
+			assertArrayEquals(getSorted(expectedTraverser.getRelevantVariables()), getSorted(actualTraverser.getRelevantVariables()));
+		}
+	}
+
+	private static int[] getSorted(VecInt vecInt) {
+		final int[] literals = Arrays.copyOf(vecInt.toArray(), vecInt.size());
+		Arrays.sort(literals);
+		return literals;
+	}
+
+	@Test
+	public void smallModel() {
+		assertSameTraversal(50, 0, false);
+	}
+
+	@Test
+	public void mediumModel() {
+		assertSameTraversal(200, 1, false);
+	}
+
+	@Test
+	public void smallCompressedModel() {
+		assertSameTraversal(50, 0, true);
+	}
+
+	@Test
+	public void mediumCompressedModel() {
+		assertSameTraversal(200, 1, true);
+	}
+
+}
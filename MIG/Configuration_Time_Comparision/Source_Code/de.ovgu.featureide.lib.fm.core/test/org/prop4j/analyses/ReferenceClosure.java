@@ -0,0 +1,229 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2016  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ * 
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.analyses;
+
+import static de.ovgu.featureide.fm.core.conf.IFeatureGraph2.EDGE_00;
+import static de.ovgu.featureide.fm.core.conf.IFeatureGraph2.EDGE_00Q;
+import static de.ovgu.featureide.fm.core.conf.IFeatureGraph2.EDGE_01;
+import static de.ovgu.featureide.fm.core.conf.IFeatureGraph2.EDGE_01Q;
+import static de.ovgu.featureide.fm.core.conf.IFeatureGraph2.EDGE_10;
+import static de.ovgu.featureide.fm.core.conf.IFeatureGraph2.EDGE_10Q;
+import static de.ovgu.featureide.fm.core.conf.IFeatureGraph2.EDGE_11;
+import static de.ovgu.featureide.fm.core.conf.IFeatureGraph2.EDGE_11Q;
+import static de.ovgu.featureide.fm.core.conf.IFeatureGraph2.EDGE_NEGATIVE;
+import static de.ovgu.featureide.fm.core.conf.IFeatureGraph2.EDGE_POSITIVE;
+import static de.ovgu.featureide.fm.core.conf.IFeatureGraph2.EDGE_STRONG_NEGATIVE;
+import static de.ovgu.featureide.fm.core.conf.IFeatureGraph2.EDGE_STRONG_POSITIVE;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * Recursive transitive closure of an {@link AdjMatrix}, which serves as reference for the iterative one of {@link AdjMatrix#computeClosure(AdjMatrix, boolean)}.
+ * 
+ * @author Sebastian Krieter
+ */
+class ReferenceClosure {
+	private final ArrayDeque<Integer> dfsStack = new ArrayDeque<>();
+	private final AdjMatrix adjMatrix;
+	private final byte[] dfsMark;
+
+	ReferenceClosure(AdjMatrix adjMatrix) {
+		this.adjMatrix = adjMatrix;
+		dfsMark = new byte[adjMatrix.getNumVariables()];
+	}
+
+	public void dfsStrong() {
+		dfsStack.clear();
+		Arrays.fill(dfsMark, (byte) 0);
+		for (int nextIndex = 1; nextIndex <= adjMatrix.getNumVariables(); nextIndex++) {
+			dfsStrong(nextIndex);
+			mark();
+			dfsStrong(-nextIndex);
+			mark();
+			dfsMark[nextIndex - 1] = 2;
+		}
+	}
+
+	public void dfsWeak() {
+		dfsStack.clear();
+		Arrays.fill(dfsMark, (byte) 0);
+		for (int nextIndex = 1; nextIndex <= adjMatrix.getNumVariables(); nextIndex++) {
+			dfsWeak(nextIndex);
+			mark();
+			dfsWeak(-nextIndex);
+			mark();
+			dfsMark[nextIndex - 1] = 2;
+		}
+	}
+
+	private void dfsStrong(int curVar) {
+		final int curIndex = Math.abs(curVar) - 1;
+		final boolean curSelected = curVar > 0;
+
+		if ((dfsMark[curIndex] & 1) != 0) {
+			return;
+		}
+		dfsMark[curIndex] |= 1;
+
+		final int size = dfsStack.size();
+		if (size > 1) {
+			// Note the minus (we construct a virtual clause)
+			addStrongRelation(-dfsStack.getFirst(), curVar);
+		}
+
+		if (size > 0 && (dfsMark[Math.abs(dfsStack.getLast()) - 1] & 2) != 0) {
+			return;
+		}
+		dfsStack.addLast(curVar);
+
+		for (int nextIndex = 0; nextIndex < adjMatrix.getNumVariables(); nextIndex++) {
+			final byte relation = adjMatrix.getEdge(curIndex, nextIndex);
+			final byte bitMask = (byte) (curSelected ? relation >>> 4 : relation);
+			if ((bitMask & EDGE_00) != 0) {
+				dfsStrong(-(nextIndex + 1));
+			} else if ((bitMask & EDGE_01) != 0) {
+				dfsStrong((nextIndex + 1));
+			}
+		}
+		dfsStack.removeLast();
+	}
+
+	private void dfsWeak(int curVar) {
+		final int curIndex = Math.abs(curVar) - 1;
+		final boolean curSelected = curIndex > 0;
+
+		if ((dfsMark[curIndex] & 1) != 0) {
+			return;
+		}
+		dfsMark[curIndex] |= 1;
+
+		final int size = dfsStack.size();
+		if (size > 1) {
+			// Note the minus (we construct a virtual clause)
+			addWeakRelation(-dfsStack.getFirst(), curVar);
+		}
+
+		if (size > 0 && (dfsMark[Math.abs(dfsStack.getLast()) - 1] & 2) != 0) {
+			return;
+		}
+		dfsStack.addLast(curVar);
+
+		for (int nextIndex = 0; nextIndex < adjMatrix.getNumVariables(); nextIndex++) {
+			final byte relation = adjMatrix.getEdge(curIndex, nextIndex);
+			final byte bitMask = (byte) (curSelected ? relation >>> 4 : relation);
+			if ((bitMask & EDGE_00) != 0) {
+				dfsWeak(-(nextIndex + 1));
+			} else if ((bitMask & EDGE_01) != 0) {
+				dfsWeak((nextIndex + 1));
+			} else {
+				if ((bitMask & EDGE_00Q) != 0) {
+					dfsWeak(-(nextIndex + 1));
+				}
+				if ((bitMask & EDGE_01Q) != 0) {
+					dfsWeak((nextIndex + 1));
+				}
+			}
+		}
+		dfsStack.removeLast();
+	}
+
+	private void mark() {
+		for (int i = 0; i < dfsMark.length; i++) {
+			dfsMark[i] &= 2;
+		}
+	}
+
+	void addStrongRelation(final int signedVarX, final int signedVarY) {
+		final int indexX = Math.abs(signedVarX) - 1;
+		final int indexY = Math.abs(signedVarY) - 1;
+		if (indexX == indexY) {
+			return;
+		}
+		final EdgeStorage edges = adjMatrix.getEdges();
+		final byte oldXY = edges.get(indexX, indexY);
+		final byte oldYX = edges.get(indexY, indexX);
+
+		if (signedVarX > 0) {
+			if (signedVarY > 0) {
+				edges.set(indexX, indexY, (byte) ((oldXY & (~EDGE_NEGATIVE)) | EDGE_01));
+				edges.set(indexY, indexX, (byte) ((oldYX & (~EDGE_NEGATIVE)) | EDGE_01));
+			} else {
+				edges.set(indexX, indexY, (byte) ((oldXY & (~EDGE_NEGATIVE)) | EDGE_00));
+				edges.set(indexY, indexX, (byte) ((oldYX & (~EDGE_POSITIVE)) | EDGE_11));
+			}
+		} else {
+			if (signedVarY > 0) {
+				edges.set(indexX, indexY, (byte) ((oldXY & (~EDGE_POSITIVE)) | EDGE_11));
+				edges.set(indexY, indexX, (byte) ((oldYX & (~EDGE_NEGATIVE)) | EDGE_00));
+			} else {
+				edges.set(indexX, indexY, (byte) ((oldXY & (~EDGE_POSITIVE)) | EDGE_10));
+				edges.set(indexY, indexX, (byte) ((oldYX & (~EDGE_POSITIVE)) | EDGE_10));
+			}
+		}
+	}
+
+	void addWeakRelation(final int signedVarX, final int signedVarY) {
+		final int indexX = Math.abs(signedVarX) - 1;
+		final int indexY = Math.abs(signedVarY) - 1;
+		if (indexX == indexY) {
+			return;
+		}
+		final EdgeStorage edges = adjMatrix.getEdges();
+		final byte oldXY = edges.get(indexX, indexY);
+		final byte oldYX = edges.get(indexY, indexX);
+
+		if (signedVarX > 0) {
+			if (signedVarY > 0) {
+				if ((oldXY & EDGE_STRONG_NEGATIVE) == 0) {
+					edges.set(indexX, indexY, (byte) (oldXY | EDGE_01Q));
+				}
+				if ((oldYX & EDGE_STRONG_NEGATIVE) == 0) {
+					edges.set(indexY, indexX, (byte) (oldYX | EDGE_01Q));
+				}
+			} else {
+				if ((oldXY & EDGE_STRONG_NEGATIVE) == 0) {
+					edges.set(indexX, indexY, (byte) (oldXY | EDGE_00Q));
+				}
+				if ((oldYX & EDGE_STRONG_POSITIVE) == 0) {
+					edges.set(indexY, indexX, (byte) (oldYX | EDGE_11Q));
+				}
+			}
+		} else {
+			if (signedVarY > 0) {
+				if ((oldXY & EDGE_STRONG_POSITIVE) == 0) {
+					edges.set(indexX, indexY, (byte) (oldXY | EDGE_11Q));
+				}
+				if ((oldYX & EDGE_STRONG_NEGATIVE) == 0) {
+					edges.set(indexY, indexX, (byte) (oldYX | EDGE_00Q));
+				}
+			} else {
+				if ((oldXY & EDGE_STRONG_POSITIVE) == 0) {
+					edges.set(indexX, indexY, (byte) (oldXY | EDGE_10Q));
+				}
+				if ((oldYX & EDGE_STRONG_POSITIVE) == 0) {
+					edges.set(indexY, indexX, (byte) (oldYX | EDGE_10Q));
+				}
+			}
+		}
+	}
+
+}
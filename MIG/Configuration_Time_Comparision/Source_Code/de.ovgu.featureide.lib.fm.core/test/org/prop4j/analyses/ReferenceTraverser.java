@@ -0,0 +1,224 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2016  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ * 
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.analyses;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+import org.sat4j.core.VecInt;
+import org.sat4j.specs.IVecInt;
+import org.sat4j.specs.IteratorInt;
+
+import de.ovgu.featureide.fm.core.conf.IFeatureGraph2.ITraverser;
+import de.ovgu.featureide.fm.core.editing.cnf.Clause;
+
+/**
+ * Straightforward traverser for an adjacency list, which serves as reference for {@link AdjList.EpochTraverser}.
+ * 
+ * @author Sebastian Krieter
+ */
+class ReferenceTraverser implements ITraverser {
+	private final ArrayDeque<Integer> changed = new ArrayDeque<>();
+	private final byte[] dfsMark;
+	private final byte[] dfsMark2;
+	private final AdjList adjList;
+	private int[] model = null;
+
+	public ReferenceTraverser(AdjList adjList) {
+		this.adjList = adjList;
+		this.dfsMark = new byte[adjList.getNumberOfVariables()];
+		this.dfsMark2 = new byte[adjList.getNumberOfVariables()];
+	}
+
+	public void traverse2(int curVar, int[] model, IVecInt vecInt) {
+		final int[] strongEdges = adjList.getStrongEdgeArray(curVar);
+		for (int i = adjList.getStrongEdgeBegin(curVar), end = adjList.getStrongEdgeEnd(curVar); i < end; i++) {
+			final int literal = strongEdges[i];
+			final int j = Math.abs(literal) - 1;
+			if (model[j] != 0) {
+				model[j] = 0;
+				vecInt.push(literal);
+			}
+		}
+	}
+
+	public void clear() {
+		Arrays.fill(dfsMark, (byte) 0);
+		Arrays.fill(dfsMark2, (byte) 0);
+	}
+
+	public VecInt getRelevantVariables() {
+		final VecInt vecInt = new VecInt();
+		for (int i = 0; i < dfsMark2.length; i++) {
+			if (model[i] == 0) {
+				if ((dfsMark2[i] & 8) != 0) {
+					vecInt.push((i + 1));
+				}
+				if ((dfsMark2[i] & 4) != 0) {
+					vecInt.push(-(i + 1));
+				}
+			}
+		}
+		return vecInt;
+	}
+
+	public void traverse(int curVar, int[] model) {
+		this.model = model;
+		Arrays.fill(dfsMark, (byte) 0);
+		changed.clear();
+		changed.push(curVar);
+		traverseStrong(curVar);
+		while (!changed.isEmpty()) {
+			traverseWeak(changed.pop());
+		}
+	}
+
+	private void traverseWeak(int curVar) {
+		final int curIndex = Math.abs(curVar) - 1;
+
+		final int[] complexClauses = adjList.getComplexClauseArray(curVar);
+
+		// Weak Edges
+		final VecInt v = new VecInt();
+		outerLoop: for (int i = adjList.getComplexClauseBegin(curVar), end = adjList.getComplexClauseEnd(curVar); i < end; i++) {
+			final Clause clause = adjList.complexClauses.get(complexClauses[i]);
+
+			v.clear();
+			final int[] literals = clause.getLiterals();
+			for (int j = 0; j < literals.length; j++) {
+				final int literal = literals[j];
+				final int index = Math.abs(literal) - 1;
+				if (index == curIndex) {
+					continue;
+				}
+				final int value = model[index];
+
+				if (value == 0) {
+					// add literal to list
+					v.push(literal);
+				} else {
+					if (value == literal) {
+						// Clause is satisfied
+						continue outerLoop;
+					} else {
+						// Do nothing
+					}
+				}
+			}
+
+			// if list size == 1 -> strong edge
+			if (v.size() == 1) {
+				final int literal = v.get(0);
+				markStrong(literal);
+				traverseStrong(literal);
+			} else {
+				for (IteratorInt iterator = v.iterator(); iterator.hasNext();) {
+					markForCalculation(iterator.next());
+				}
+			}
+		}
+	}
+
+	private void traverseStrong(int curVar) {
+		final int[] strongEdges = adjList.getStrongEdgeArray(curVar);
+
+		// Strong Edges
+		for (int i = adjList.getStrongEdgeBegin(curVar), end = adjList.getStrongEdgeEnd(curVar); i < end; i++) {
+			markStrong(strongEdges[i]);
+		}
+	}
+
+	private void markStrong(final int literal) {
+		final int index = Math.abs(literal) - 1;
+		if (model[index] == 0) {
+			model[index] = literal;
+			changed.push(literal);
+		} else {
+			if (model[index] == -literal) {
+				throw new RuntimeException();
+			}
+		}
+	}
+
+	// Transitive closure for strong edges
+	private void markForCalculation(int curVar) {
+		final int curIndex = Math.abs(curVar) - 1;
+		if (model[curIndex] != 0) {
+			return;
+		}
+
+		if (curVar > 0) {
+			if ((dfsMark[curIndex] & 8) != 0) {
+				return;
+			}
+			dfsMark[curIndex] |= 8;
+			dfsMark2[curIndex] |= 8;
+		} else {
+			if ((dfsMark[curIndex] & 4) != 0) {
+				return;
+			}
+			dfsMark[curIndex] |= 4;
+			dfsMark2[curIndex] |= 4;
+		}
+
+		// Strong Edges
+		final int[] strongEdges = adjList.getStrongEdgeArray(curVar);
+		for (int i = adjList.getStrongEdgeBegin(curVar), end = adjList.getStrongEdgeEnd(curVar); i < end; i++) {
+			markForCalculation(strongEdges[i]);
+		}
+
+		// Weak Edges
+		final int[] complexClauses = adjList.getComplexClauseArray(curVar);
+		final VecInt v = new VecInt();
+		outerLoop: for (int i = adjList.getComplexClauseBegin(curVar), end = adjList.getComplexClauseEnd(curVar); i < end; i++) {
+			final Clause clause = adjList.complexClauses.get(complexClauses[i]);
+
+			v.clear();
+			final int[] literals = clause.getLiterals();
+			for (int j = 0; j < literals.length; j++) {
+				final int literal = literals[j];
+				final int index = Math.abs(literal) - 1;
+				if (index == curIndex) {
+					continue;
+				}
+				final int value = model[index];
+
+				if (value == 0) {
+					// add literal to list
+					v.push(literal);
+				} else {
+					if (value == literal) {
+						// Clause is satisfied
+						continue outerLoop;
+					} else {
+						// Do nothing
+					}
+				}
+			}
+
+			for (IteratorInt iterator = v.iterator(); iterator.hasNext();) {
+				markForCalculation(iterator.next());
+			}
+
+		}
+	}
+
+}
@@ -0,0 +1,163 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2016  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ * 
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.solver;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.prop4j.And;
+import org.prop4j.Node;
+import org.prop4j.Or;
+import org.prop4j.analyses.AdjMatrixParallelTest;
+import org.prop4j.solver.ISatSolver.SatResult;
+import org.sat4j.specs.ContradictionException;
+
+/**
+ * Tests that the {@link MultiSolver} computes the same backbone for any number of threads as a sequential computation.
+ * 
+ * @author Sebastian Krieter
+ */
+public class MultiSolverTest {
+
+	private static final int NUMBER_OF_VARIABLES = 200;
+	private static final int[] THREADS = { 1, 2, 4 };
+
+	/**
+	 * Computes the backbone by testing the complementary literal of each variable with a single solver.
+	 */
+	private static int[] computeReferenceBackbone(BasicSolver solver) {
+		final int[] model = solver.findModel();
+		assertNotNull(model);
+		final List<Integer> backbone = new ArrayList<>();
+		for (int literal : model) {
+			if (solver.getAssignment().contains(literal)) {
+				backbone.add(literal);
+				continue;
+			}
+			solver.assignmentPush(-literal);
+			if (solver.isSatisfiable() == SatResult.FALSE) {
+				backbone.add(literal);
+			}
+			solver.assignmentPop();
+		}
+		return sort(backbone);
+	}
+
+	private static int[] sort(List<Integer> literals) {
+		final int[] array = new int[literals.size()];
+		for (int i = 0; i < array.length; i++) {
+			array[i] = literals.get(i);
+		}
+		Arrays.sort(array);
+		return array;
+	}
+
+	private static int[] sort(int[] literals) {
+		final int[] array = literals.clone();
+		Arrays.sort(array);
+		return array;
+	}
+
+	/**
+	 * Returns some literals of a solution that are not part of the given backbone.
+	 */
+	private static int[] selectFreeLiterals(BasicSolver solver, int[] backbone, int count) {
+		final int[] model = solver.findModel();
+		final int[] literals = new int[count];
+		for (int i = 0, j = 0; j < count; i += 7) {
+			final int literal = model[i % model.length];
+			if (Arrays.binarySearch(backbone, literal) < 0) {
+				literals[j++] = literal;
+			}
+		}
+		return literals;
+	}
+
+	private static void assertSameBackbone(BasicSolver reference, MultiSolver multiSolver) {
+		assertArrayEquals("Threads: " + multiSolver.getNumberOfThreads(), computeReferenceBackbone(reference),
+				sort(multiSolver.findBackbone()));
+	}
+
+	@Test
+	public void backbone() throws ContradictionException {
+		for (long seed = 0; seed < 3; seed++) {
+			final SatInstance satInstance = new SatInstance(AdjMatrixParallelTest.createCNF(NUMBER_OF_VARIABLES, seed));
+			final BasicSolver reference = new BasicSolver(satInstance);
+			for (int threads : THREADS) {
+				final MultiSolver multiSolver = new MultiSolver(satInstance, threads);
+				try {
+					assertSameBackbone(reference, multiSolver);
+				} finally {
+					multiSolver.shutdown();
+				}
+			}
+		}
+	}
+
+	@Test
+	public void backboneWithAssignment() throws ContradictionException {
+		final SatInstance satInstance = new SatInstance(AdjMatrixParallelTest.createCNF(NUMBER_OF_VARIABLES, 3));
+		final BasicSolver reference = new BasicSolver(satInstance);
+		final int[] assignment = selectFreeLiterals(reference, computeReferenceBackbone(reference), 3);
+		for (int literal : assignment) {
+			reference.assignmentPush(literal);
+		}
+		for (int threads : THREADS) {
+			final MultiSolver multiSolver = new MultiSolver(satInstance, threads);
+			try {
+				for (int literal : assignment) {
+					multiSolver.assignmentPush(literal);
+				}
+				assertSameBackbone(reference, multiSolver);
+			} finally {
+				multiSolver.shutdown();
+			}
+		}
+	}
+
+	@Test
+	public void backboneWithAddedClauses() throws ContradictionException {
+		final SatInstance satInstance = new SatInstance(AdjMatrixParallelTest.createCNF(NUMBER_OF_VARIABLES, 4));
+		final BasicSolver reference = new BasicSolver(satInstance);
+		final int[] units = selectFreeLiterals(reference, computeReferenceBackbone(reference), 3);
+		final Node[] clauses = new Node[units.length];
+		for (int i = 0; i < units.length; i++) {
+			clauses[i] = new Or(satInstance.convertToLiteral(units[i]));
+		}
+		final Node constraint = new And(clauses);
+		reference.addClauses(constraint);
+		for (int threads : THREADS) {
+			final MultiSolver multiSolver = new MultiSolver(satInstance, threads);
+			try {
+				multiSolver.addClauses(constraint);
+				assertSameBackbone(reference, multiSolver);
+			} finally {
+				multiSolver.shutdown();
+			}
+		}
+	}
+
+}
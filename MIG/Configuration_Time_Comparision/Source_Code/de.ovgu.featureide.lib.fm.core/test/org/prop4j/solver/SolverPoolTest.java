@@ -0,0 +1,98 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2016  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ * 
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.solver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+import org.prop4j.And;
+import org.prop4j.Literal;
+import org.prop4j.Node;
+import org.prop4j.Or;
+import org.prop4j.solver.ISatSolver.SatResult;
+import org.sat4j.core.VecInt;
+import org.sat4j.specs.ContradictionException;
+
+/**
+ * Tests that the {@link SolverPool} only reuses solvers that contain exactly the clauses of their formula.
+ * 
+ * @author Sebastian Krieter
+ */
+public class SolverPoolTest {
+
+	private static SatInstance createSatInstance() {
+		return new SatInstance(new And(new Or(new Literal("a"), new Literal("b"), new Literal("c")), new Or(new Literal("a", false), new Literal("d")),
+				new Or(new Literal("b", false), new Literal("c", false))));
+	}
+
+	@Test
+	public void reusesUnchangedSolver() throws ContradictionException {
+		final SatInstance satInstance = createSatInstance();
+		final SolverPool solverPool = new SolverPool();
+		final BasicSolver solver = solverPool.acquire(satInstance);
+		solver.assignmentPush(-1);
+		assertEquals(SatResult.TRUE, solver.isSatisfiable());
+		solverPool.release(solver);
+
+		assertSame(solver, solverPool.acquire(satInstance));
+		assertEquals(0, solver.getAssignment().size());
+		assertEquals(1, solverPool.getHits());
+		assertEquals(0, solverPool.getDiscarded());
+	}
+
+	@Test
+	public void discardsSolverWithAddedClauses() throws ContradictionException {
+		final SatInstance satInstance = createSatInstance();
+		final SolverPool solverPool = new SolverPool();
+		final BasicSolver solver = solverPool.acquire(satInstance);
+		solver.addClauses(new And(new Or(new Literal("a", false))));
+		solverPool.release(solver);
+
+		assertNotSame(solver, solverPool.acquire(satInstance));
+		assertEquals(1, solverPool.getDiscarded());
+	}
+
+	@Test
+	public void discardsSolverWithAddedInternalClauses() throws ContradictionException {
+		final SatInstance satInstance = createSatInstance();
+		final SolverPool solverPool = new SolverPool();
+		final BasicSolver solver = solverPool.acquire(satInstance);
+		solver.getInternalSolver().addClause(new VecInt(new int[] { -1, -4 }));
+		solverPool.release(solver);
+
+		assertNotSame(solver, solverPool.acquire(satInstance));
+		assertEquals(1, solverPool.getDiscarded());
+	}
+
+	@Test
+	public void discardsForeignSolver() throws ContradictionException {
+		final SatInstance satInstance = createSatInstance();
+		final SolverPool solverPool = new SolverPool();
+		final BasicSolver solver = new BasicSolver(satInstance);
+		solverPool.release(solver);
+
+		assertNotSame(solver, solverPool.acquire(satInstance));
+		assertEquals(1, solverPool.getDiscarded());
+	}
+
+}
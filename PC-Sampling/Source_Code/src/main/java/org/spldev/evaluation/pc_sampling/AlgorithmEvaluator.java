@@ -22,10 +22,13 @@
  */
 package org.spldev.evaluation.pc_sampling;
 
+import java.io.*;
+import java.nio.file.*;
 import java.util.*;
 
 import org.spldev.evaluation.*;
 import org.spldev.evaluation.process.*;
+import org.spldev.evaluation.properties.*;
 import org.spldev.formula.clauses.*;
 import org.spldev.util.io.csv.*;
 import org.spldev.util.logging.*;
@@ -35,6 +38,11 @@ import org.spldev.util.logging.*;
  */
 public abstract class AlgorithmEvaluator<R, A extends Algorithm<R>> extends Evaluator {
 
+	protected static final Property<String> checkpointJournalProperty = new Property<>("checkpoint_journal",
+		Property.StringConverter, "");
+	protected static final Property<Integer> processMonitorIntervalProperty = new Property<>(
+		"process_monitor_interval", Property.IntegerConverter, 0);
+
 	protected List<A> algorithmList;
 
 	private CSVWriter dataCSVWriter, modelCSVWriter, algorithmCSVWriter;
@@ -42,14 +50,18 @@ public abstract class AlgorithmEvaluator<R, A extends Algorithm<R>> extends Eval
 	protected int algorithmIndex;
 	protected int algorithmIteration;
 	protected Result<R> result;
+	protected ProcessMonitor.Usage processUsage;
 	protected CNF modelCNF;
 	protected CNF randomizedModelCNF;
 
+	private CheckpointJournal checkpointJournal;
+	private List<Object> dataRow;
+
 	@Override
 	protected void addCSVWriters() {
 		super.addCSVWriters();
 		dataCSVWriter = addCSVWriter("data.csv", Arrays.asList("ModelID", "AlgorithmID", "SystemIteration",
-			"AlgorithmIteration", "InTime", "NoError", "Time"));
+			"AlgorithmIteration", "InTime", "NoError", "Time", "PeakRSS", "UserTime", "SystemTime", "Threads"));
 		modelCSVWriter = addCSVWriter("models.csv", Arrays.asList("ModelID", "Name"));
 		algorithmCSVWriter = addCSVWriter("algorithms.csv",
 			Arrays.asList("ModelID", "AlgorithmID", "Name", "Settings"));
@@ -64,6 +76,15 @@ public abstract class AlgorithmEvaluator<R, A extends Algorithm<R>> extends Eval
 
 			final ProcessRunner processRunner = new ProcessRunner();
 			processRunner.setTimeout(config.timeout.getValue());
+			final ProcessMonitor processMonitor = processMonitorIntervalProperty.getValue() > 0
+				&& ProcessMonitor.isSupported() ? new ProcessMonitor(processMonitorIntervalProperty.getValue()) : null;
+
+			try {
+				checkpointJournal = openCheckpointJournal();
+			} catch (final IOException e) {
+				Logger.logError(e);
+				return;
+			}
 
 			final int systemIndexEnd = config.systemNames.size();
 
@@ -92,6 +113,11 @@ public abstract class AlgorithmEvaluator<R, A extends Algorithm<R>> extends Eval
 					continue systemLoop;
 				}
 				for (systemIteration = 1; systemIteration <= config.systemIterations.getValue(); systemIteration++) {
+					if (isSystemIterationCompleted()) {
+						Logger.logInfo("Skip completed system iteration " + systemIteration);
+						restoreSystemIteration();
+						continue;
+					}
 					try {
 						randomizedModelCNF = adaptModel();
 					} catch (final Exception e) {
@@ -104,6 +130,11 @@ public abstract class AlgorithmEvaluator<R, A extends Algorithm<R>> extends Eval
 						algorithmIndex++;
 						for (algorithmIteration = 1; algorithmIteration <= algorithm
 							.getIterations(); algorithmIteration++) {
+							final CheckpointJournal.Entry completedUnit = getCompletedUnit();
+							if (completedUnit != null) {
+								restoreUnit(completedUnit);
+								continue;
+							}
 							try {
 								adaptAlgorithm(algorithm);
 							} catch (final Exception e) {
@@ -112,7 +143,18 @@ public abstract class AlgorithmEvaluator<R, A extends Algorithm<R>> extends Eval
 							}
 							try {
 								logRun();
-								result = processRunner.run(algorithm);
+								if (processMonitor != null) {
+									processMonitor.start();
+								}
+								try {
+									result = processRunner.run(algorithm);
+								} finally {
+									processUsage = processMonitor != null ? processMonitor.stop() : null;
+								}
+								processResult();
+								dataRow = new ArrayList<>();
+								addDataValues(dataRow);
+								commitUnit();
 								writeCSV(dataCSVWriter, this::writeData);
 							} catch (final Exception e) {
 								Logger.logError(e);
@@ -122,6 +164,7 @@ public abstract class AlgorithmEvaluator<R, A extends Algorithm<R>> extends Eval
 					}
 				}
 			}
+			closeCheckpointJournal();
 			tabFormatter.setTabLevel(0);
 			Logger.logInfo("Finished");
 		} else {
@@ -129,6 +172,117 @@ public abstract class AlgorithmEvaluator<R, A extends Algorithm<R>> extends Eval
 		}
 	}
 
+	private CheckpointJournal openCheckpointJournal() throws IOException {
+		final String journalPath = checkpointJournalProperty.getValue();
+		if (journalPath == null || journalPath.isEmpty()) {
+			return null;
+		}
+		Logger.logInfo("Using checkpoint journal " + journalPath);
+		final CheckpointJournal journal = new CheckpointJournal(Paths.get(journalPath));
+		cleanUpTempFiles();
+		return journal;
+	}
+
+	/**
+	 * Removes temporary files that units of a previous, interrupted session may
+	 * have left. Called before any unit of the current session is run.
+	 */
+	protected void cleanUpTempFiles() throws IOException {
+	}
+
+	private void closeCheckpointJournal() {
+		if (checkpointJournal != null) {
+			try {
+				checkpointJournal.close();
+			} catch (final IOException e) {
+				Logger.logError(e);
+			}
+			checkpointJournal = null;
+		}
+	}
+
+	private String getUnit(int algorithmIndex, int algorithmIteration) {
+		return CheckpointJournal.getUnit(config.systemIDs.get(systemIndex), systemIteration, algorithmIndex,
+			algorithmList.get(algorithmIndex).getFullName(), algorithmIteration);
+	}
+
+	private boolean isSystemIterationCompleted() {
+		if (checkpointJournal == null) {
+			return false;
+		}
+		for (int i = 0; i < algorithmList.size(); i++) {
+			for (int j = 1; j <= algorithmList.get(i).getIterations(); j++) {
+				if (!checkpointJournal.isCompleted(getUnit(i, j))) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	private CheckpointJournal.Entry getCompletedUnit() {
+		if (checkpointJournal == null) {
+			return null;
+		}
+		return checkpointJournal.getCompleted(getUnit(algorithmIndex, algorithmIteration));
+	}
+
+	/**
+	 * Restores all units of the current system iteration, which was completed
+	 * in a previous session.
+	 */
+	private void restoreSystemIteration() {
+		for (algorithmIndex = 0; algorithmIndex < algorithmList.size(); algorithmIndex++) {
+			for (algorithmIteration = 1; algorithmIteration <= algorithmList.get(algorithmIndex)
+				.getIterations(); algorithmIteration++) {
+				final CheckpointJournal.Entry completedUnit = getCompletedUnit();
+				if (completedUnit != null) {
+					restoreUnit(completedUnit);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Restores the state of a unit that was completed in a previous session and
+	 * writes its journaled row to the data file, which is created anew by every
+	 * session.
+	 */
+	private void restoreUnit(CheckpointJournal.Entry completedUnit) {
+		restoreCheckpoint(completedUnit.getValues());
+		dataRow = new ArrayList<>(completedUnit.getRow());
+		if (!dataRow.isEmpty()) {
+			writeCSV(dataCSVWriter, this::writeData);
+		}
+	}
+
+	private void commitUnit() throws IOException {
+		if (checkpointJournal != null) {
+			final LinkedHashMap<String, String> values = new LinkedHashMap<>();
+			writeCheckpoint(values);
+			checkpointJournal.commit(getUnit(algorithmIndex, algorithmIteration), values, dataRow,
+				getOutputFiles());
+		}
+	}
+
+	/**
+	 * Records values of the current run that are needed by later runs, if the
+	 * current run is skipped on a restart.
+	 */
+	protected void writeCheckpoint(Map<String, String> values) {
+		values.put("Time", String.valueOf(result.getTime()));
+	}
+
+	protected void restoreCheckpoint(Map<String, String> values) {
+	}
+
+	/**
+	 * @return the files written for the current run
+	 */
+	protected List<Path> getOutputFiles() {
+		return Collections.emptyList();
+	}
+
 	protected void writeModel(CSVWriter modelCSVWriter) {
 		modelCSVWriter.addValue(config.systemIDs.get(systemIndex));
 		modelCSVWriter.addValue(config.systemNames.get(systemIndex));
@@ -145,14 +299,41 @@ public abstract class AlgorithmEvaluator<R, A extends Algorithm<R>> extends Eval
 		algorithmCSVWriter.addValue(algorithm.getParameterSettings());
 	}
 
-	protected void writeData(CSVWriter dataCSVWriter) {
-		dataCSVWriter.addValue(config.systemIDs.get(systemIndex));
-		dataCSVWriter.addValue(algorithmIndex);
-		dataCSVWriter.addValue(systemIteration);
-		dataCSVWriter.addValue(algorithmIteration);
-		dataCSVWriter.addValue(result.isTerminatedInTime());
-		dataCSVWriter.addValue(result.isNoError());
-		dataCSVWriter.addValue(result.getTime());
+	/**
+	 * Processes the result of the current run (e.g., writes its output files)
+	 * before the run is committed to the checkpoint journal.
+	 */
+	protected void processResult() {
+	}
+
+	/**
+	 * Adds the values of the current run's row in the data file.
+	 */
+	protected void addDataValues(List<Object> row) {
+		row.add(config.systemIDs.get(systemIndex));
+		row.add(algorithmIndex);
+		row.add(systemIteration);
+		row.add(algorithmIteration);
+		row.add(result.isTerminatedInTime());
+		row.add(result.isNoError());
+		row.add(result.getTime());
+		if (processUsage != null) {
+			row.add(processUsage.getPeakRSS());
+			row.add(processUsage.getUserTime());
+			row.add(processUsage.getSystemTime());
+			row.add(processUsage.getPeakThreads());
+		} else {
+			row.add(-1);
+			row.add(-1);
+			row.add(-1);
+			row.add(-1);
+		}
+	}
+
+	private void writeData(CSVWriter dataCSVWriter) {
+		for (final Object value : dataRow) {
+			dataCSVWriter.addValue(value);
+		}
 	}
 
 	private void logRun() {
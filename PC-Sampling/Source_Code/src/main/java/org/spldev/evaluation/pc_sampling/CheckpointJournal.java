@@ -0,0 +1,252 @@
+/* -----------------------------------------------------------------------------
+ * Evaluation-PC-Sampling - Program for the evaluation of PC-Sampling.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Evaluation-PC-Sampling.
+ * 
+ * Evaluation-PC-Sampling is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Evaluation-PC-Sampling is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Evaluation-PC-Sampling.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/evaluation-pc-sampling> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.evaluation.pc_sampling;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.*;
+
+import org.spldev.util.logging.*;
+
+/**
+ * Append-only journal of completed evaluation units. Each line describes one
+ * unit together with some recorded values, its row of the data file, and the
+ * checksums of its output files. Every line ends with a CRC32 of its content,
+ * such that a line that was only partially written before a crash is ignored
+ * when the journal is read again.
+ *
+ * @author Sebastian Krieter
+ */
+public class CheckpointJournal implements Closeable {
+
+	private static final char SEPARATOR = '\t';
+	private static final String VALUE_PREFIX = "value:";
+	private static final String FILE_PREFIX = "file:";
+	private static final String ROW_PREFIX = "row:";
+	private static final String CRC_PREFIX = "crc:";
+
+	public static class Entry {
+
+		private final String unit;
+		private final LinkedHashMap<String, String> values = new LinkedHashMap<>();
+		private final LinkedHashMap<String, String> files = new LinkedHashMap<>();
+		private final ArrayList<String> row = new ArrayList<>();
+
+		private Entry(String unit) {
+			this.unit = unit;
+		}
+
+		public String getUnit() {
+			return unit;
+		}
+
+		public Map<String, String> getValues() {
+			return Collections.unmodifiableMap(values);
+		}
+
+		public Map<String, String> getFiles() {
+			return Collections.unmodifiableMap(files);
+		}
+
+		public List<String> getRow() {
+			return Collections.unmodifiableList(row);
+		}
+
+	}
+
+	private final Path journalFile;
+	private final HashMap<String, Entry> entries = new HashMap<>();
+	private final FileChannel channel;
+
+	public CheckpointJournal(Path journalFile) throws IOException {
+		this.journalFile = journalFile;
+		if (Files.isReadable(journalFile)) {
+			read();
+		} else if (journalFile.getParent() != null) {
+			Files.createDirectories(journalFile.getParent());
+		}
+		channel = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+			StandardOpenOption.WRITE);
+		channel.position(channel.size());
+		terminateLastLine();
+	}
+
+	private static String sanitize(Object value) {
+		return String.valueOf(value).replace(SEPARATOR, ' ').replace('\n', ' ').replace('\r', ' ');
+	}
+
+	public static String getUnit(Object... keys) {
+		final StringBuilder sb = new StringBuilder();
+		for (final Object key : keys) {
+			sb.append(sanitize(key));
+			sb.append('|');
+		}
+		if (sb.length() > 0) {
+			sb.setLength(sb.length() - 1);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Returns the journal entry for a unit, if the unit was completed and all of
+	 * its output files still exist with the recorded checksums. Output files of
+	 * a unit that was not completed or whose outputs were changed are deleted,
+	 * such that the unit can be redone from scratch.
+	 *
+	 * @param unit the unit
+	 * @return the entry of the completed unit or {@code null}
+	 */
+	public Entry getCompleted(String unit) {
+		final Entry entry = entries.get(unit);
+		if (entry == null) {
+			return null;
+		}
+		for (final Map.Entry<String, String> file : entry.files.entrySet()) {
+			final Path path = Paths.get(file.getKey());
+			try {
+				if (!Files.isReadable(path) || !file.getValue().equals(ContentHash.ofFile(path))) {
+					Logger.logInfo("Redo " + unit + " (invalid output " + path + ")");
+					for (final String outputFile : entry.files.keySet()) {
+						Files.deleteIfExists(Paths.get(outputFile));
+					}
+					entries.remove(unit);
+					return null;
+				}
+			} catch (final IOException e) {
+				Logger.logError(e);
+				entries.remove(unit);
+				return null;
+			}
+		}
+		return entry;
+	}
+
+	public boolean isCompleted(String unit) {
+		return getCompleted(unit) != null;
+	}
+
+	/**
+	 * Records a unit as completed. The entry is forced to the storage device
+	 * before this method returns. The row of the unit must be written to the
+	 * data file only after this method returns, such that a row is written
+	 * either by the unit itself or, if the unit is skipped on a restart, from its
+	 * journal entry, but never by both.
+	 */
+	public void commit(String unit, Map<String, String> values, List<?> row, List<Path> outputFiles)
+		throws IOException {
+		final Entry entry = new Entry(unit);
+		entry.values.putAll(values);
+		for (final Object value : row) {
+			entry.row.add(sanitize(value));
+		}
+		for (final Path outputFile : outputFiles) {
+			if (Files.isReadable(outputFile)) {
+				entry.files.put(outputFile.toAbsolutePath().toString(), ContentHash.ofFile(outputFile));
+			}
+		}
+
+		final StringBuilder sb = new StringBuilder();
+		sb.append(unit);
+		for (final Map.Entry<String, String> value : entry.values.entrySet()) {
+			sb.append(SEPARATOR).append(VALUE_PREFIX).append(value.getKey()).append('=').append(value.getValue());
+		}
+		for (final String value : entry.row) {
+			sb.append(SEPARATOR).append(ROW_PREFIX).append(value);
+		}
+		for (final Map.Entry<String, String> file : entry.files.entrySet()) {
+			sb.append(SEPARATOR).append(FILE_PREFIX).append(file.getKey()).append('=').append(file.getValue());
+		}
+		writeLine(sb);
+		entries.put(unit, entry);
+	}
+
+	private void writeLine(StringBuilder sb) throws IOException {
+		final String content = sb.toString();
+		sb.append(SEPARATOR).append(CRC_PREFIX).append(getCRC(content)).append('\n');
+
+		final ByteBuffer buffer = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		channel.force(false);
+	}
+
+	private void terminateLastLine() throws IOException {
+		final long size = channel.size();
+		if (size > 0) {
+			final ByteBuffer lastByte = ByteBuffer.allocate(1);
+			channel.read(lastByte, size - 1);
+			if (lastByte.get(0) != '\n') {
+				channel.write(ByteBuffer.wrap(new byte[] { '\n' }));
+				channel.force(false);
+			}
+		}
+	}
+
+	private void read() throws IOException {
+		int invalidLines = 0;
+		for (final String line : Files.readAllLines(journalFile, StandardCharsets.UTF_8)) {
+			final int crcIndex = line.lastIndexOf(SEPARATOR + CRC_PREFIX);
+			if (crcIndex < 0
+				|| !line.substring(crcIndex + 1 + CRC_PREFIX.length()).equals(getCRC(line.substring(0, crcIndex)))) {
+				invalidLines++;
+				continue;
+			}
+			final String[] fields = line.substring(0, crcIndex).split(String.valueOf(SEPARATOR), -1);
+			final Entry entry = new Entry(fields[0]);
+			for (int i = 1; i < fields.length; i++) {
+				final String field = fields[i];
+				final int separatorIndex = field.lastIndexOf('=');
+				if (field.startsWith(ROW_PREFIX)) {
+					entry.row.add(field.substring(ROW_PREFIX.length()));
+				} else if (field.startsWith(VALUE_PREFIX)) {
+					entry.values.put(field.substring(VALUE_PREFIX.length(), separatorIndex),
+						field.substring(separatorIndex + 1));
+				} else if (field.startsWith(FILE_PREFIX)) {
+					entry.files.put(field.substring(FILE_PREFIX.length(), separatorIndex),
+						field.substring(separatorIndex + 1));
+				}
+			}
+			entries.put(entry.unit, entry);
+		}
+		if (invalidLines > 0) {
+			Logger.logInfo("Ignored " + invalidLines + " incomplete line(s) in " + journalFile);
+		}
+	}
+
+	private static String getCRC(String content) {
+		final CRC32 crc = new CRC32();
+		crc.update(content.getBytes(StandardCharsets.UTF_8));
+		return Long.toHexString(crc.getValue());
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+}
@@ -33,6 +33,7 @@ public class Constants {
 
 	public final static Path kbuildOutput = output.resolve("kbuild");
 	public final static Path expressionsOutput = output.resolve("presenceConditions");
+	public final static Path cacheOutput = output.resolve("cache");
 
 	public final static String convertedPCFileName = "pclist";
 	public final static String convertedPCFMFileName = "pclist_fm";
@@ -0,0 +1,205 @@
+/* -----------------------------------------------------------------------------
+ * Evaluation-PC-Sampling - Program for the evaluation of PC-Sampling.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Evaluation-PC-Sampling.
+ * 
+ * Evaluation-PC-Sampling is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Evaluation-PC-Sampling is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Evaluation-PC-Sampling.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/evaluation-pc-sampling> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.evaluation.pc_sampling;
+
+import java.io.*;
+import java.net.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.security.*;
+import java.util.*;
+import java.util.function.*;
+import java.util.stream.*;
+
+import org.spldev.formula.clauses.*;
+
+/**
+ * Computes SHA-256 based content hashes for files, directories, and formulas.
+ *
+ * @author Sebastian Krieter
+ */
+public class ContentHash {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final MessageDigest digest;
+
+	public ContentHash() {
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (final NoSuchAlgorithmException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	public ContentHash add(String value) {
+		final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		add(bytes.length);
+		digest.update(bytes);
+		return this;
+	}
+
+	public ContentHash add(long value) {
+		for (int i = 0; i < Long.BYTES; i++) {
+			digest.update((byte) (value >>> (i << 3)));
+		}
+		return this;
+	}
+
+	public ContentHash add(byte[] bytes) {
+		add(bytes.length);
+		digest.update(bytes);
+		return this;
+	}
+
+	public ContentHash addFile(Path file) throws IOException {
+		add(Files.size(file));
+		try (InputStream in = Files.newInputStream(file)) {
+			final byte[] buffer = new byte[BUFFER_SIZE];
+			for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+				digest.update(buffer, 0, read);
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * Adds all regular files below the given directory that match the filter.
+	 * Files are visited in the lexicographical order of their relative paths,
+	 * such that the resulting hash does not depend on the order of the file
+	 * system.
+	 */
+	public ContentHash addDirectory(Path dir, Predicate<Path> filter) throws IOException {
+		if (!Files.isDirectory(dir)) {
+			add(-1);
+			return this;
+		}
+		final List<Path> files;
+		try (Stream<Path> fileStream = Files.walk(dir)) {
+			files = fileStream.filter(Files::isRegularFile).filter(filter).collect(Collectors.toList());
+		}
+		Collections.sort(files, (p1, p2) -> dir.relativize(p1).toString().compareTo(dir.relativize(p2).toString()));
+		add(files.size());
+		for (final Path file : files) {
+			add(dir.relativize(file).toString());
+			addFile(file);
+		}
+		return this;
+	}
+
+	/**
+	 * Adds the names of the variables of the given CNF in the order of their
+	 * indices. Combined with {@link #addCNF(CNF)}, the hash identifies a CNF
+	 * together with its variable mapping, which is required for cached results
+	 * that refer to variables by index.
+	 */
+	public ContentHash addVariables(CNF cnf) {
+		if (cnf == null) {
+			add(-1);
+			return this;
+		}
+		final TreeMap<Integer, String> names = new TreeMap<>();
+		for (final String name : cnf.getVariableMap().getNames()) {
+			names.put(cnf.getVariableMap().getIndex(name).orElseThrow(() -> new RuntimeException(name)), name);
+		}
+		add(names.size());
+		for (final Map.Entry<Integer, String> name : names.entrySet()) {
+			add(name.getKey());
+			add(name.getValue());
+		}
+		return this;
+	}
+
+	/**
+	 * Adds a canonical form of the given CNF that does not depend on the indices
+	 * of its variables or the order of its clauses. Each clause is represented
+	 * by the sorted names of its literals and the clauses are added in sorted
+	 * order.
+	 */
+	public ContentHash addCNF(CNF cnf) {
+		if (cnf == null) {
+			add(-1);
+			return this;
+		}
+		final Map<Integer, String> names = new HashMap<>();
+		for (final String name : cnf.getVariableMap().getNames()) {
+			names.put(cnf.getVariableMap().getIndex(name).orElseThrow(() -> new RuntimeException(name)), name);
+		}
+		final List<String> clauses = new ArrayList<>(cnf.getClauses().size());
+		for (final LiteralList clause : cnf.getClauses()) {
+			final int[] literals = clause.getLiterals();
+			final String[] literalNames = new String[literals.length];
+			for (int i = 0; i < literals.length; i++) {
+				literalNames[i] = (literals[i] > 0 ? "+" : "-") + names.get(Math.abs(literals[i]));
+			}
+			Arrays.sort(literalNames);
+			clauses.add(String.join(" ", literalNames));
+		}
+		Collections.sort(clauses);
+		add(clauses.size());
+		for (final String clause : clauses) {
+			add(clause);
+		}
+		return this;
+	}
+
+	public String get() {
+		return toHexString(digest.digest());
+	}
+
+	public static String ofFile(Path file) throws IOException {
+		return new ContentHash().addFile(file).get();
+	}
+
+	/**
+	 * Identifies a tool by the implementation version of its package and, if it
+	 * is loaded from a jar file, by the hash of that jar file.
+	 */
+	public static String getToolVersion(Class<?> toolClass) {
+		final Package toolPackage = toolClass.getPackage();
+		final String implementationVersion = toolPackage != null ? toolPackage.getImplementationVersion() : null;
+		String version = implementationVersion != null ? implementationVersion : "unknown";
+		final CodeSource codeSource = toolClass.getProtectionDomain().getCodeSource();
+		if (codeSource != null) {
+			try {
+				final Path location = Paths.get(codeSource.getLocation().toURI());
+				if (Files.isRegularFile(location)) {
+					version += "_" + ofFile(location);
+				}
+			} catch (final IOException | URISyntaxException e) {
+				version += "_" + codeSource.getLocation();
+			}
+		}
+		return version;
+	}
+
+	public static String toHexString(byte[] bytes) {
+		final StringBuilder sb = new StringBuilder(bytes.length << 1);
+		for (final byte b : bytes) {
+			sb.append(Character.forDigit((b >>> 4) & 0xF, 16));
+			sb.append(Character.forDigit(b & 0xF, 16));
+		}
+		return sb.toString();
+	}
+
+}
@@ -0,0 +1,120 @@
+/* -----------------------------------------------------------------------------
+ * Evaluation-PC-Sampling - Program for the evaluation of PC-Sampling.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Evaluation-PC-Sampling.
+ * 
+ * Evaluation-PC-Sampling is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Evaluation-PC-Sampling is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Evaluation-PC-Sampling.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/evaluation-pc-sampling> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.evaluation.pc_sampling;
+
+import java.io.*;
+import java.nio.file.*;
+
+import org.spldev.formula.clauses.*;
+import org.spldev.pc_extraction.convert.*;
+import org.spldev.pc_extraction.convert.Grouper.*;
+import org.spldev.util.*;
+import org.spldev.util.io.*;
+import org.spldev.util.io.format.*;
+import org.spldev.util.logging.*;
+
+/**
+ * Content-addressed cache for the results of {@link Converter} and
+ * {@link Grouper}. A conversion is identified by a hash of the extracted
+ * presence condition files, the canonical form of the feature model and its
+ * variable mapping, the conversion mode, and the version of the converter. A
+ * grouping is identified by the key of the conversion it is computed from and
+ * the grouping mode.
+ *
+ * @author Sebastian Krieter
+ */
+public class ConversionCache {
+
+	private static String toolVersion;
+
+	private final Path cacheDir;
+
+	public ConversionCache(Path cacheDir) {
+		this.cacheDir = cacheDir;
+	}
+
+	public String computeKey(String mode, CNF cnf, Path extractionPath) throws IOException {
+		return new ContentHash() //
+			.add(getToolVersion()) //
+			.add(mode) //
+			.addVariables(cnf) //
+			.addCNF(cnf) //
+			.addDirectory(extractionPath, ConversionCache::isExtractionFile) //
+			.get();
+	}
+
+	/**
+	 * @param conversionKey the key of the conversion as computed by
+	 *                      {@link #computeKey(String, CNF, Path)}
+	 * @param grouping      the grouping mode
+	 */
+	public String computeGroupingKey(String conversionKey, Grouping grouping) {
+		return new ContentHash() //
+			.add(conversionKey) //
+			.add(grouping.name()) //
+			.get();
+	}
+
+	public <T> T load(String key, Format<T> format) {
+		final Path entry = getEntry(key, format);
+		if (!Files.isReadable(entry)) {
+			return null;
+		}
+		final Result<T> result = FileHandler.load(entry, format);
+		if (result.isEmpty()) {
+			Logger.logProblems(result.getProblems());
+			return null;
+		}
+		return result.get();
+	}
+
+	public <T> void save(String key, T object, Format<T> format) throws IOException {
+		Files.createDirectories(cacheDir);
+		final Path entry = getEntry(key, format);
+		final Path tempEntry = entry.resolveSibling(entry.getFileName() + ".tmp");
+		FileHandler.save(object, tempEntry, format);
+		Files.move(tempEntry, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	private Path getEntry(String key, Format<?> format) {
+		return cacheDir.resolve(key + "." + format.getFileExtension());
+	}
+
+	/**
+	 * Files written by the converter and the grouper are stored next to the
+	 * extracted presence conditions and must not be part of the key.
+	 */
+	private static boolean isExtractionFile(Path file) {
+		final String fileName = file.getFileName().toString();
+		return !fileName.startsWith(Constants.convertedPCFileName)
+			&& !fileName.startsWith(Constants.groupedPCFileName);
+	}
+
+	public static synchronized String getToolVersion() {
+		if (toolVersion == null) {
+			toolVersion = ContentHash.getToolVersion(Converter.class);
+		}
+		return toolVersion;
+	}
+
+}
@@ -0,0 +1,225 @@
+/* -----------------------------------------------------------------------------
+ * Evaluation-PC-Sampling - Program for the evaluation of PC-Sampling.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Evaluation-PC-Sampling.
+ * 
+ * Evaluation-PC-Sampling is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Evaluation-PC-Sampling is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Evaluation-PC-Sampling.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/evaluation-pc-sampling> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.evaluation.pc_sampling;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+import org.spldev.formula.analysis.sat4j.twise.*;
+import org.spldev.formula.clauses.*;
+import org.spldev.formula.clauses.LiteralList.*;
+import org.spldev.formula.solver.mig.io.*;
+import org.spldev.formula.solver.sat4j.*;
+import org.spldev.util.io.*;
+import org.spldev.util.logging.*;
+
+/**
+ * Cache for the analysis results of a feature model that are needed to
+ * compute t-wise statistics, i.e., the random solution sample and the
+ * modal implication graph of a {@link TWiseConfigurationUtil}. Entries are
+ * identified by a canonical hash of the CNF and its variable mapping, the
+ * size of the random sample, and the version of the analysis library.
+ * Prepared utils are kept in memory and the analysis results are additionally
+ * stored on disk, such that later runs on the same model can skip the
+ * analysis.
+ *
+ * @author Sebastian Krieter
+ */
+public class ModelAnalysisCache {
+
+	private static final int SAMPLE_FILE_MAGIC = 0x50435353;
+	private static final int SAMPLE_FILE_VERSION = 1;
+	private static final int MAX_MEMORY_ENTRIES = 4;
+
+	/**
+	 * Allows to set a random sample that was read from disk instead of computing
+	 * a new one.
+	 */
+	private static class CachedTWiseConfigurationUtil extends TWiseConfigurationUtil {
+
+		public CachedTWiseConfigurationUtil(CNF cnf, Sat4JSolver solver) {
+			super(cnf, solver);
+		}
+
+		public void setRandomSample(List<LiteralList> sample) {
+			randomSample = sample;
+			for (final LiteralList solution : sample) {
+				addSolverSolution(solution.getLiterals());
+			}
+		}
+
+		public List<LiteralList> getRandomSample() {
+			return randomSample;
+		}
+
+	}
+
+	private static String toolVersion;
+
+	private final Path cacheDir;
+	private final int randomSampleSize;
+
+	private final LinkedHashMap<String, TWiseConfigurationUtil> memoryCache = new LinkedHashMap<String, TWiseConfigurationUtil>(
+		16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, TWiseConfigurationUtil> eldest) {
+			return size() > MAX_MEMORY_ENTRIES;
+		}
+	};
+
+	private int memoryHits, diskHits, misses;
+
+	/**
+	 * @param cacheDir         the directory for the on-disk entries or
+	 *                         {@code null} to only cache in memory
+	 * @param randomSampleSize the size of the random solution sample
+	 */
+	public ModelAnalysisCache(Path cacheDir, int randomSampleSize) {
+		this.cacheDir = cacheDir;
+		this.randomSampleSize = randomSampleSize;
+	}
+
+	public TWiseConfigurationUtil get(CNF cnf) throws IOException {
+		final String key = computeKey(cnf);
+		final TWiseConfigurationUtil cachedUtil = memoryCache.get(key);
+		if (cachedUtil != null) {
+			memoryHits++;
+			return cachedUtil;
+		}
+
+		final boolean hasClauses = !cnf.getClauses().isEmpty();
+		final CachedTWiseConfigurationUtil util = new CachedTWiseConfigurationUtil(cnf,
+			hasClauses ? new Sat4JSolver(cnf) : null);
+
+		final Path sampleFile = getEntry(key, "sample");
+		final Path migFile = getEntry(key, "mig");
+		final List<LiteralList> randomSample = sampleFile != null ? readSample(sampleFile) : null;
+		if ((randomSample != null) && (!hasClauses || Files.isReadable(migFile))) {
+			util.setRandomSample(randomSample);
+			if (hasClauses) {
+				util.computeMIG(migFile);
+			}
+			diskHits++;
+		} else {
+			util.computeRandomSample(randomSampleSize);
+			if (hasClauses) {
+				util.computeMIG(false, false);
+			}
+			misses++;
+			if (cacheDir != null) {
+				try {
+					Files.createDirectories(cacheDir);
+					writeSample(sampleFile, util.getRandomSample());
+					if (hasClauses) {
+						final Path tempFile = migFile.resolveSibling(migFile.getFileName() + ".tmp");
+						FileHandler.save(util.getMig(), tempFile, new MIGFormat());
+						Files.move(tempFile, migFile, StandardCopyOption.REPLACE_EXISTING,
+							StandardCopyOption.ATOMIC_MOVE);
+					}
+				} catch (final IOException e) {
+					Logger.logError(e);
+				}
+			}
+		}
+		memoryCache.put(key, util);
+		return util;
+	}
+
+	public String computeKey(CNF cnf) {
+		return new ContentHash() //
+			.add(getToolVersion()) //
+			.add(randomSampleSize) //
+			.addVariables(cnf) //
+			.addCNF(cnf) //
+			.get();
+	}
+
+	private Path getEntry(String key, String extension) {
+		return cacheDir != null ? cacheDir.resolve(key + "." + extension) : null;
+	}
+
+	private static List<LiteralList> readSample(Path sampleFile) {
+		if (!Files.isReadable(sampleFile)) {
+			return null;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(sampleFile)))) {
+			if ((in.readInt() != SAMPLE_FILE_MAGIC) || (in.readInt() != SAMPLE_FILE_VERSION)) {
+				return null;
+			}
+			final int numberOfSolutions = in.readInt();
+			final ArrayList<LiteralList> sample = new ArrayList<>(numberOfSolutions);
+			for (int i = 0; i < numberOfSolutions; i++) {
+				final int[] literals = new int[in.readInt()];
+				for (int j = 0; j < literals.length; j++) {
+					literals[j] = in.readInt();
+				}
+				sample.add(new LiteralList(literals, Order.INDEX, false));
+			}
+			return sample;
+		} catch (final IOException e) {
+			Logger.logError(e);
+			return null;
+		}
+	}
+
+	private static void writeSample(Path sampleFile, List<LiteralList> sample) throws IOException {
+		final Path tempFile = sampleFile.resolveSibling(sampleFile.getFileName() + ".tmp");
+		try (DataOutputStream out = new DataOutputStream(
+			new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+			out.writeInt(SAMPLE_FILE_MAGIC);
+			out.writeInt(SAMPLE_FILE_VERSION);
+			out.writeInt(sample.size());
+			for (final LiteralList solution : sample) {
+				final int[] literals = solution.getLiterals();
+				out.writeInt(literals.length);
+				for (final int literal : literals) {
+					out.writeInt(literal);
+				}
+			}
+		}
+		Files.move(tempFile, sampleFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	public int getMemoryHits() {
+		return memoryHits;
+	}
+
+	public int getDiskHits() {
+		return diskHits;
+	}
+
+	public int getMisses() {
+		return misses;
+	}
+
+	public static synchronized String getToolVersion() {
+		if (toolVersion == null) {
+			toolVersion = ContentHash.getToolVersion(TWiseConfigurationUtil.class);
+		}
+		return toolVersion;
+	}
+
+}
@@ -0,0 +1,227 @@
+/* -----------------------------------------------------------------------------
+ * Evaluation-PC-Sampling - Program for the evaluation of PC-Sampling.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Evaluation-PC-Sampling.
+ * 
+ * Evaluation-PC-Sampling is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Evaluation-PC-Sampling is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Evaluation-PC-Sampling.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/evaluation-pc-sampling> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.evaluation.pc_sampling;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.spldev.formula.expression.*;
+import org.spldev.formula.expression.atomic.literal.*;
+import org.spldev.formula.expression.compound.*;
+
+/**
+ * Computes which configurations of a sample reach the mutants of a mutation
+ * test suite. Every test case of a mutant is compiled into a list of clauses,
+ * each clause consisting of a bit mask of its positive and its negative
+ * literals. A configuration is compiled into a bit mask of its selected
+ * features, such that a clause can be checked with a few bitwise operations.
+ *
+ * @author Sebastian Krieter
+ */
+public class MutationCoverage {
+
+	private static final String FEATURE_PREFIX = "__SELECTED_FEATURE_";
+
+	/**
+	 * The test cases of all mutants and the configurations that satisfy them.
+	 */
+	public static class Result {
+
+		private final int numberOfConfigurations;
+		private final List<BitSet[]> detectionMatrix;
+		private final BitSet[] killMatrix;
+
+		private Result(int numberOfConfigurations, List<BitSet[]> detectionMatrix) {
+			this.numberOfConfigurations = numberOfConfigurations;
+			this.detectionMatrix = detectionMatrix;
+			killMatrix = new BitSet[detectionMatrix.size()];
+			for (int i = 0; i < killMatrix.length; i++) {
+				final BitSet configurations = new BitSet(numberOfConfigurations);
+				for (final BitSet testCaseConfigurations : detectionMatrix.get(i)) {
+					configurations.or(testCaseConfigurations);
+				}
+				killMatrix[i] = configurations;
+			}
+		}
+
+		public int getNumberOfMutants() {
+			return killMatrix.length;
+		}
+
+		public int getNumberOfConfigurations() {
+			return numberOfConfigurations;
+		}
+
+		/**
+		 * @return the configurations that satisfy at least one test case of the
+		 *         given mutant
+		 */
+		public BitSet getKillingConfigurations(int mutant) {
+			return killMatrix[mutant];
+		}
+
+		/**
+		 * @return the configurations that satisfy each test case of the given
+		 *         mutant
+		 */
+		public BitSet[] getDetectingConfigurations(int mutant) {
+			return detectionMatrix.get(mutant);
+		}
+
+		public boolean isKilled(int mutant) {
+			return !killMatrix[mutant].isEmpty();
+		}
+
+		public int getNumberOfKilledMutants() {
+			int count = 0;
+			for (final BitSet configurations : killMatrix) {
+				if (!configurations.isEmpty()) {
+					count++;
+				}
+			}
+			return count;
+		}
+
+	}
+
+	private final HashMap<String, Integer> featureIndex = new HashMap<>();
+	private final int words;
+
+	public MutationCoverage(List<String> features) {
+		for (int i = 0; i < features.size(); i++) {
+			featureIndex.put(getFeatureName(features.get(i)), i);
+		}
+		words = Math.max(1, (features.size() + 63) >>> 6);
+	}
+
+	public long[] compileConfiguration(Collection<String> selectedFeatures) {
+		final long[] configuration = new long[words];
+		for (final String feature : selectedFeatures) {
+			final Integer index = featureIndex.get(getFeatureName(feature));
+			if (index != null) {
+				configuration[index >>> 6] |= 1L << index;
+			}
+		}
+		return configuration;
+	}
+
+	/**
+	 * Compiles a test case in CNF. Each returned clause contains the positive
+	 * mask in its first and the negative mask in its second half. Clauses that
+	 * are satisfied by every configuration are omitted. Features that do not
+	 * appear in the feature list are considered as deselected.
+	 *
+	 * @param testCase the test case
+	 * @return the compiled clauses of the test case
+	 */
+	public long[][] compileTestCase(Formula testCase) {
+		final ArrayList<long[]> clauses = new ArrayList<>();
+		final List<? extends Expression> clauseExpressions = testCase instanceof And ? testCase.getChildren()
+			: Collections.singletonList(testCase);
+		clauseLoop: for (final Expression clauseExpression : clauseExpressions) {
+			final List<? extends Expression> literals = clauseExpression instanceof Or ? clauseExpression.getChildren()
+				: Collections.singletonList(clauseExpression);
+			final long[] clause = new long[words << 1];
+			for (final Expression literal : literals) {
+				if (literal instanceof True) {
+					continue clauseLoop;
+				} else if (literal instanceof LiteralVariable) {
+					final Integer index = featureIndex.get(getFeatureName(literal.getName()));
+					final boolean positive = ((Literal) literal).isPositive();
+					if (index != null) {
+						clause[(positive ? 0 : words) + (index >>> 6)] |= 1L << index;
+					} else if (!positive) {
+						continue clauseLoop;
+					}
+				} else if (!(literal instanceof False)) {
+					throw new IllegalArgumentException("Test case is not in CNF: " + testCase);
+				}
+			}
+			clauses.add(clause);
+		}
+		return clauses.toArray(new long[0][]);
+	}
+
+	public boolean isSatisfied(long[][] testCase, long[] configuration) {
+		clauseLoop: for (final long[] clause : testCase) {
+			for (int i = 0; i < words; i++) {
+				if (((configuration[i] & clause[i]) != 0) || ((~configuration[i] & clause[words + i]) != 0)) {
+					continue clauseLoop;
+				}
+			}
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Checks all test cases of all mutants against all configurations of a
+	 * sample. Test cases are distributed among the given number of threads.
+	 *
+	 * @param mutants          the mutants, each given as a disjunction of test
+	 *                         cases in CNF
+	 * @param sample           the compiled configurations
+	 * @param numberOfThreads  the number of threads
+	 * @return the detection and kill matrix
+	 */
+	public Result evaluate(List<Formula> mutants, List<long[]> sample, int numberOfThreads)
+		throws InterruptedException, ExecutionException {
+		final ArrayList<BitSet[]> detectionMatrix = new ArrayList<>(mutants.size());
+		final ArrayList<Callable<Void>> tasks = new ArrayList<>();
+		for (final Formula mutant : mutants) {
+			final List<? extends Expression> testCases = mutant instanceof Or ? mutant.getChildren()
+				: Collections.singletonList(mutant);
+			final BitSet[] testCaseConfigurations = new BitSet[testCases.size()];
+			for (int i = 0; i < testCaseConfigurations.length; i++) {
+				final BitSet configurations = new BitSet(sample.size());
+				final Formula testCase = (Formula) testCases.get(i);
+				testCaseConfigurations[i] = configurations;
+				tasks.add(() -> {
+					final long[][] compiledTestCase = compileTestCase(testCase);
+					for (int j = 0; j < sample.size(); j++) {
+						if (isSatisfied(compiledTestCase, sample.get(j))) {
+							configurations.set(j);
+						}
+					}
+					return null;
+				});
+			}
+			detectionMatrix.add(testCaseConfigurations);
+		}
+
+		final ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, numberOfThreads));
+		try {
+			for (final Future<Void> future : executor.invokeAll(tasks)) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+		return new Result(sample.size(), detectionMatrix);
+	}
+
+	private static String getFeatureName(String name) {
+		return name.startsWith(FEATURE_PREFIX) ? name.substring(FEATURE_PREFIX.length()) : name;
+	}
+
+}
@@ -22,10 +22,12 @@
  */
 package org.spldev.evaluation.pc_sampling;
 
+import java.io.*;
 import java.nio.file.*;
 import java.util.*;
 
 import org.spldev.evaluation.*;
+import org.spldev.evaluation.properties.*;
 import org.spldev.evaluation.util.*;
 import org.spldev.formula.clauses.*;
 import org.spldev.formula.expression.*;
@@ -40,6 +42,9 @@ import org.spldev.util.logging.*;
 
 public class PCConverter extends Evaluator {
 
+	protected static final Property<Integer> conversionCacheProperty = new Property<>("conversion_cache",
+		Property.IntegerConverter, 0);
+
 	protected CSVWriter conversionWriter;
 
 	@Override
@@ -51,7 +56,7 @@ public class PCConverter extends Evaluator {
 	protected void addCSVWriters() {
 		super.addCSVWriters();
 		conversionWriter = addCSVWriter("conversion.csv",
-			Arrays.asList("ID", "Mode", "Iteration", "Time", "Size", "Error", "Clauses", "Literals"));
+			Arrays.asList("ID", "Mode", "Iteration", "Time", "Size", "Error", "Clauses", "Literals", "Cached"));
 	}
 
 	@Override
@@ -96,62 +101,48 @@ public class PCConverter extends Evaluator {
 
 	private PresenceConditionList evalConvert(String fileName, CNF cnf, String systemName) throws Exception {
 		PresenceConditionList pcList = null;
-		final Converter pcProcessor = new Converter();
+		final SerializableObjectFormat<PresenceConditionList> format = new SerializableObjectFormat<>();
 		final Path extractionPath = Constants.expressionsOutput.resolve(systemName);
-		for (int i = 0; i < config.systemIterations.getValue(); i++) {
-			conversionWriter.createNewLine();
-			try {
-				conversionWriter.addValue(config.systemIDs.get(systemIndex));
-				conversionWriter.addValue(fileName);
-				conversionWriter.addValue(i);
 
-				final long localTime = System.nanoTime();
-				pcList = pcProcessor.convert(cnf, extractionPath);
-				final long timeNeeded = System.nanoTime() - localTime;
+		final ConversionCache cache = conversionCacheProperty.getValue() > 0
+			? new ConversionCache(Constants.cacheOutput.resolve("conversion"))
+			: null;
+		String cacheKey = null;
+		if (cache != null) {
+			cacheKey = cache.computeKey(fileName, cnf, extractionPath);
+			final long localTime = System.nanoTime();
+			pcList = cache.load(cacheKey, format);
+			final long timeNeeded = System.nanoTime() - localTime;
+			if (pcList != null) {
+				writeConversion(fileName, 0, timeNeeded, pcList, true);
+				Logger.logInfo("convert (cached) -> " + Double.toString((timeNeeded / 1_000_000) / 1_000.0));
+			}
+		}
 
-				conversionWriter.addValue(timeNeeded);
-				if (pcList != null) {
-					final HashSet<CNF> pcs = new HashSet<>();
-					long countClauses = 0;
-					long countLiterals = 0;
-					for (final PresenceCondition pc : pcList) {
-						final CNF dnf = pc.getDnf();
-						if (pcs.add(dnf)) {
-							countClauses += dnf.getClauses().size();
-							for (final LiteralList clause : dnf.getClauses()) {
-								countLiterals += clause.size();
-							}
-						}
-						final CNF ndnf = pc.getNegatedDnf();
-						if (pcs.add(ndnf)) {
-							countClauses += ndnf.getClauses().size();
-							for (final LiteralList clause : ndnf.getClauses()) {
-								countLiterals += clause.size();
-							}
-						}
-					}
-					conversionWriter.addValue(pcs.size());
-					conversionWriter.addValue(false);
-					conversionWriter.addValue(countClauses);
-					conversionWriter.addValue(countLiterals);
-				} else {
-					conversionWriter.addValue(0);
-					conversionWriter.addValue(true);
-					conversionWriter.addValue(0);
-					conversionWriter.addValue(0);
+		if (pcList == null) {
+			final Converter pcProcessor = new Converter();
+			for (int i = 0; i < config.systemIterations.getValue(); i++) {
+				final long localTime = System.nanoTime();
+				try {
+					pcList = pcProcessor.convert(cnf, extractionPath);
+				} catch (final Exception e) {
+					Logger.logError(e);
+					continue;
 				}
-
+				final long timeNeeded = System.nanoTime() - localTime;
+				writeConversion(fileName, i, timeNeeded, pcList, false);
 				Logger.logInfo("convert -> " + Double.toString((timeNeeded / 1_000_000) / 1_000.0));
-			} catch (final Exception e) {
-				conversionWriter.removeLastLine();
-				Logger.logError(e);
-			} finally {
-				conversionWriter.flush();
+			}
+			if (cache != null && pcList != null) {
+				try {
+					cache.save(cacheKey, pcList, format);
+				} catch (final IOException e) {
+					Logger.logError(e);
+				}
 			}
 		}
 
 		if (pcList != null) {
-			final SerializableObjectFormat<PresenceConditionList> format = new SerializableObjectFormat<>();
 			final Path pcListFile = Constants.expressionsOutput.resolve(config.systemNames.get(systemIndex))
 				.resolve(fileName + "." + format.getFileExtension());
 			FileHandler.save(pcList, pcListFile, format);
@@ -159,4 +150,51 @@ public class PCConverter extends Evaluator {
 		return pcList;
 	}
 
+	private void writeConversion(String fileName, int iteration, long timeNeeded, PresenceConditionList pcList,
+		boolean cached) {
+		conversionWriter.createNewLine();
+		try {
+			conversionWriter.addValue(config.systemIDs.get(systemIndex));
+			conversionWriter.addValue(fileName);
+			conversionWriter.addValue(iteration);
+			conversionWriter.addValue(timeNeeded);
+			if (pcList != null) {
+				final HashSet<CNF> pcs = new HashSet<>();
+				long countClauses = 0;
+				long countLiterals = 0;
+				for (final PresenceCondition pc : pcList) {
+					final CNF dnf = pc.getDnf();
+					if (pcs.add(dnf)) {
+						countClauses += dnf.getClauses().size();
+						for (final LiteralList clause : dnf.getClauses()) {
+							countLiterals += clause.size();
+						}
+					}
+					final CNF ndnf = pc.getNegatedDnf();
+					if (pcs.add(ndnf)) {
+						countClauses += ndnf.getClauses().size();
+						for (final LiteralList clause : ndnf.getClauses()) {
+							countLiterals += clause.size();
+						}
+					}
+				}
+				conversionWriter.addValue(pcs.size());
+				conversionWriter.addValue(false);
+				conversionWriter.addValue(countClauses);
+				conversionWriter.addValue(countLiterals);
+			} else {
+				conversionWriter.addValue(0);
+				conversionWriter.addValue(true);
+				conversionWriter.addValue(0);
+				conversionWriter.addValue(0);
+			}
+			conversionWriter.addValue(cached);
+		} catch (final Exception e) {
+			conversionWriter.removeLastLine();
+			Logger.logError(e);
+		} finally {
+			conversionWriter.flush();
+		}
+	}
+
 }
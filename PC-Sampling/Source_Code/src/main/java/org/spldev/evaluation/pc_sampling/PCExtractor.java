@@ -26,12 +26,16 @@ import java.nio.file.*;
 import java.util.*;
 
 import org.spldev.evaluation.*;
+import org.spldev.evaluation.properties.*;
 import org.spldev.pc_extraction.extraction.cpp.*;
 import org.spldev.util.io.csv.*;
 import org.spldev.util.logging.*;
 
 public class PCExtractor extends Evaluator {
 
+	protected static final Property<Integer> extractionThreadsProperty = new Property<>("extraction_threads",
+		Property.IntegerConverter, 0);
+
 	protected CSVWriter extractionWriter;
 
 	@Override
@@ -43,7 +47,7 @@ public class PCExtractor extends Evaluator {
 	protected void addCSVWriters() {
 		super.addCSVWriters();
 		extractionWriter = addCSVWriter("extraction.csv",
-			Arrays.asList("ID", "Mode", "Iteration", "Time", "Size", "Error"));
+			Arrays.asList("ID", "Mode", "Iteration", "Time", "Size", "Error", "CachedFiles"));
 	}
 
 	@Override
@@ -59,7 +63,11 @@ public class PCExtractor extends Evaluator {
 				tabFormatter.incTabLevel();
 				// Extract PCs
 				try {
-					evalExtract();
+					if (extractionThreadsProperty.getValue() > 0) {
+						evalParallelExtract();
+					} else {
+						evalExtract();
+					}
 				} catch (final Exception e) {
 					Logger.logError(e);
 				}
@@ -91,6 +99,7 @@ public class PCExtractor extends Evaluator {
 				extractionWriter.addValue(timeNeeded);
 				extractionWriter.addValue(0);
 				extractionWriter.addValue(!extracted);
+				extractionWriter.addValue(0);
 
 				Logger.logInfo("extract -> " + Double.toString((timeNeeded / 1_000_000) / 1_000.0));
 			} catch (final Exception e) {
@@ -102,4 +111,37 @@ public class PCExtractor extends Evaluator {
 		}
 	}
 
+	private void evalParallelExtract() {
+		final ParallelPCExtractor extractor = new ParallelPCExtractor(extractionThreadsProperty.getValue(),
+			Constants.cacheOutput.resolve("extraction"));
+		final String systemName = config.systemNames.get(systemIndex);
+		final Path extractionPath = Constants.expressionsOutput.resolve(systemName);
+		final Path systemPath = Constants.systems.resolve(systemName);
+		for (int i = 0; i < config.systemIterations.getValue(); i++) {
+			extractionWriter.createNewLine();
+			try {
+				extractionWriter.addValue(config.systemIDs.get(systemIndex));
+				extractionWriter.addValue("extract_parallel");
+				extractionWriter.addValue(i);
+
+				final long localTime = System.nanoTime();
+				final boolean extracted = extractor.extract(systemPath, extractionPath);
+				final long timeNeeded = System.nanoTime() - localTime;
+
+				extractionWriter.addValue(timeNeeded);
+				extractionWriter.addValue(extractor.getNumberOfFiles());
+				extractionWriter.addValue(!extracted);
+				extractionWriter.addValue(extractor.getNumberOfCachedFiles());
+
+				Logger.logInfo("extract_parallel -> " + Double.toString((timeNeeded / 1_000_000) / 1_000.0) + " ("
+					+ extractor.getNumberOfCachedFiles() + "/" + extractor.getNumberOfFiles() + " cached)");
+			} catch (final Exception e) {
+				extractionWriter.removeLastLine();
+				e.printStackTrace();
+			} finally {
+				extractionWriter.flush();
+			}
+		}
+	}
+
 }
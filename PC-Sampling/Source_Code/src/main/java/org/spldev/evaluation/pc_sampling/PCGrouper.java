@@ -23,10 +23,13 @@
 package org.spldev.evaluation.pc_sampling;
 
 import java.io.*;
+import java.lang.management.*;
 import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.*;
 
 import org.spldev.evaluation.*;
+import org.spldev.evaluation.properties.*;
 import org.spldev.evaluation.util.*;
 import org.spldev.formula.clauses.*;
 import org.spldev.formula.expression.*;
@@ -42,6 +45,22 @@ import org.spldev.util.logging.*;
 
 public class PCGrouper extends Evaluator {
 
+	protected static final Property<Integer> groupingThreadsProperty = new Property<>("grouping_threads",
+		Property.IntegerConverter, 1);
+	protected static final Property<Integer> groupingCacheProperty = new Property<>("grouping_cache",
+		Property.IntegerConverter, 0);
+
+	private static final List<Grouping> fmGroupings = Arrays.asList(Grouping.FM_ONLY, Grouping.PC_ALL_FM,
+		Grouping.PC_ALL_FM_FM, Grouping.PC_FOLDER_FM, Grouping.PC_FILE_FM, Grouping.PC_VARS_FM);
+	private static final List<Grouping> pcGroupings = Arrays.asList(Grouping.PC_ALL, Grouping.PC_FOLDER,
+		Grouping.PC_FILE, Grouping.PC_VARS);
+
+	private static class GroupingResult {
+		private Expressions expressions;
+		private long time;
+		private long allocatedBytes;
+	}
+
 	protected CSVWriter groupingWriter;
 
 	@Override
@@ -53,7 +72,7 @@ public class PCGrouper extends Evaluator {
 	protected void addCSVWriters() {
 		super.addCSVWriters();
 		groupingWriter = addCSVWriter("grouping.csv",
-			Arrays.asList("ID", "Mode", "Iteration", "Time", "Size", "Error"));
+			Arrays.asList("ID", "Mode", "Iteration", "Time", "Size", "Error", "AllocatedBytes", "Cached"));
 	}
 
 	@Override
@@ -78,21 +97,17 @@ public class PCGrouper extends Evaluator {
 				}
 				final CNF cnf = fm.get();
 
+				final ExecutorService executor = Executors
+					.newFixedThreadPool(Math.max(1, groupingThreadsProperty.getValue()));
 				try {
 					if (cnf != null) {
-						evalGroup(Grouping.FM_ONLY, cnf, systemName);
-						evalGroup(Grouping.PC_ALL_FM, cnf, systemName);
-						evalGroup(Grouping.PC_ALL_FM_FM, cnf, systemName);
-						evalGroup(Grouping.PC_FOLDER_FM, cnf, systemName);
-						evalGroup(Grouping.PC_FILE_FM, cnf, systemName);
-						evalGroup(Grouping.PC_VARS_FM, cnf, systemName);
+						evalGroups(fmGroupings, Constants.convertedPCFMFileName, cnf, systemName, executor);
 					}
-					evalGroup(Grouping.PC_ALL, null, systemName);
-					evalGroup(Grouping.PC_FOLDER, null, systemName);
-					evalGroup(Grouping.PC_FILE, null, systemName);
-					evalGroup(Grouping.PC_VARS, null, systemName);
+					evalGroups(pcGroupings, Constants.convertedPCFileName, null, systemName, executor);
 				} catch (final Exception e) {
 					Logger.logError(e);
+				} finally {
+					executor.shutdownNow();
 				}
 				tabFormatter.decTabLevel();
 			}
@@ -103,57 +118,145 @@ public class PCGrouper extends Evaluator {
 		}
 	}
 
-	private Expressions evalGroup(Grouping groupingValue, CNF cnf, String systemName) throws Exception {
-		Expressions expressions = null;
-		final PresenceConditionList pcList = TWiseEvaluator
-			.readPCList(cnf == null ? Constants.convertedPCFileName : Constants.convertedPCFMFileName, systemName);
-		final Grouper grouper = new Grouper();
-		for (int i = 0; i < config.systemIterations.getValue(); i++) {
-			groupingWriter.createNewLine();
-			try {
-				groupingWriter.addValue(config.systemIDs.get(systemIndex));
-				groupingWriter.addValue(groupingValue);
-				groupingWriter.addValue(i);
+	/**
+	 * Reads the presence condition list once and computes all given groupings
+	 * on it. Within an iteration, the groupings are computed as independent
+	 * tasks that share the (read-only) presence condition list. If the grouping
+	 * cache is enabled, groupings that are already cached for the same
+	 * conversion input are loaded instead of being computed.
+	 */
+	private void evalGroups(List<Grouping> groupings, String pcListName, CNF cnf, String systemName,
+		ExecutorService executor) throws Exception {
+		final SerializableObjectFormat<Expressions> format = new SerializableObjectFormat<>();
+		final Map<Grouping, Expressions> lastExpressions = new HashMap<>();
 
+		final List<Grouping> missingGroupings = new ArrayList<>(groupings);
+		final Map<Grouping, String> cacheKeys = new HashMap<>();
+		final ConversionCache cache = groupingCacheProperty.getValue() > 0
+			? new ConversionCache(Constants.cacheOutput.resolve("grouping"))
+			: null;
+		if (cache != null) {
+			final Path extractionPath = Constants.expressionsOutput.resolve(systemName);
+			final String conversionKey = cache.computeKey(pcListName, cnf, extractionPath);
+			for (final Grouping groupingValue : groupings) {
+				final String cacheKey = cache.computeGroupingKey(conversionKey, groupingValue);
+				cacheKeys.put(groupingValue, cacheKey);
 				final long localTime = System.nanoTime();
-				expressions = grouper.group(pcList, groupingValue);
+				final Expressions expressions = cache.load(cacheKey, format);
 				final long timeNeeded = System.nanoTime() - localTime;
+				if (expressions != null) {
+					final GroupingResult result = new GroupingResult();
+					result.expressions = expressions;
+					result.time = timeNeeded;
+					result.allocatedBytes = -1;
+					writeGrouping(groupingValue, 0, result, true);
+					lastExpressions.put(groupingValue, expressions);
+					missingGroupings.remove(groupingValue);
+				}
+			}
+		}
 
-				groupingWriter.addValue(timeNeeded);
+		if (!missingGroupings.isEmpty()) {
+			final long parseTime = System.nanoTime();
+			final PresenceConditionList pcList = TWiseEvaluator.readPCList(pcListName, systemName);
+			Logger.logInfo(
+				pcListName + " -> " + Double.toString(((System.nanoTime() - parseTime) / 1_000_000) / 1_000.0));
 
-				if (expressions != null) {
-					final HashSet<ClauseList> pcs = new HashSet<>();
-					for (final List<ClauseList> group : expressions.getExpressions()) {
-						pcs.addAll(group);
+			for (int i = 0; i < config.systemIterations.getValue(); i++) {
+				final List<Future<GroupingResult>> futures = new ArrayList<>(missingGroupings.size());
+				for (final Grouping groupingValue : missingGroupings) {
+					futures.add(executor.submit(() -> group(pcList, groupingValue)));
+				}
+				for (int j = 0; j < missingGroupings.size(); j++) {
+					final Grouping groupingValue = missingGroupings.get(j);
+					try {
+						final GroupingResult result = futures.get(j).get();
+						writeGrouping(groupingValue, i, result, false);
+						if (result.expressions != null) {
+							lastExpressions.put(groupingValue, result.expressions);
+						}
+					} catch (final Exception e) {
+						Logger.logError(e);
 					}
-					groupingWriter.addValue(pcs.size());
-					groupingWriter.addValue(false);
-				} else {
-					groupingWriter.addValue(0);
-					groupingWriter.addValue(true);
 				}
+			}
 
-				Logger.logInfo(groupingValue + " -> " + Double.toString((timeNeeded / 1_000_000) / 1_000.0));
-			} catch (final FileNotFoundException e) {
-				groupingWriter.removeLastLine();
-			} catch (final Exception e) {
-				groupingWriter.removeLastLine();
-				Logger.logError(e);
-			} finally {
-				groupingWriter.flush();
+			if (cache != null) {
+				for (final Grouping groupingValue : missingGroupings) {
+					final Expressions expressions = lastExpressions.get(groupingValue);
+					if (expressions != null) {
+						try {
+							cache.save(cacheKeys.get(groupingValue), expressions, format);
+						} catch (final IOException e) {
+							Logger.logError(e);
+						}
+					}
+				}
 			}
 		}
 
-		if (expressions != null) {
-			final SerializableObjectFormat<Expressions> format = new SerializableObjectFormat<>();
-			final Path expFile = Constants.expressionsOutput.resolve(config.systemNames.get(systemIndex))
-				.resolve(Constants.groupedPCFileName + groupingValue + "." + format.getFileExtension());
-			FileHandler.save(expressions, expFile, format);
-			Logger.logInfo(Constants.groupedPCFileName + groupingValue + " OK");
-		} else {
-			Logger.logInfo(Constants.groupedPCFileName + groupingValue + " FAIL");
+		for (final Grouping groupingValue : groupings) {
+			final Expressions expressions = lastExpressions.get(groupingValue);
+			if (expressions != null) {
+				final Path expFile = Constants.expressionsOutput.resolve(config.systemNames.get(systemIndex))
+					.resolve(Constants.groupedPCFileName + groupingValue + "." + format.getFileExtension());
+				FileHandler.save(expressions, expFile, format);
+				Logger.logInfo(Constants.groupedPCFileName + groupingValue + " OK");
+			} else {
+				Logger.logInfo(Constants.groupedPCFileName + groupingValue + " FAIL");
+			}
+		}
+	}
+
+	private void writeGrouping(Grouping groupingValue, int iteration, GroupingResult result, boolean cached) {
+		groupingWriter.createNewLine();
+		try {
+			groupingWriter.addValue(config.systemIDs.get(systemIndex));
+			groupingWriter.addValue(groupingValue);
+			groupingWriter.addValue(iteration);
+			groupingWriter.addValue(result.time);
+
+			if (result.expressions != null) {
+				final HashSet<ClauseList> pcs = new HashSet<>();
+				for (final List<ClauseList> group : result.expressions.getExpressions()) {
+					pcs.addAll(group);
+				}
+				groupingWriter.addValue(pcs.size());
+				groupingWriter.addValue(false);
+			} else {
+				groupingWriter.addValue(0);
+				groupingWriter.addValue(true);
+			}
+			groupingWriter.addValue(result.allocatedBytes);
+			groupingWriter.addValue(cached);
+
+			Logger.logInfo(groupingValue + (cached ? " (cached)" : "") + " -> "
+				+ Double.toString((result.time / 1_000_000) / 1_000.0));
+		} catch (final Exception e) {
+			groupingWriter.removeLastLine();
+			Logger.logError(e);
+		} finally {
+			groupingWriter.flush();
+		}
+	}
+
+	private static GroupingResult group(PresenceConditionList pcList, Grouping groupingValue) throws Exception {
+		final GroupingResult result = new GroupingResult();
+		final long allocatedBytes = getAllocatedBytes();
+		final long localTime = System.nanoTime();
+		result.expressions = new Grouper().group(pcList, groupingValue);
+		result.time = System.nanoTime() - localTime;
+		result.allocatedBytes = allocatedBytes < 0 ? -1 : getAllocatedBytes() - allocatedBytes;
+		return result;
+	}
+
+	private static long getAllocatedBytes() {
+		final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+		if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+			return ((com.sun.management.ThreadMXBean) threadMXBean)
+				.getThreadAllocatedBytes(Thread.currentThread().getId());
 		}
-		return expressions;
+		return -1;
 	}
 
 }
@@ -0,0 +1,320 @@
+/* -----------------------------------------------------------------------------
+ * Evaluation-PC-Sampling - Program for the evaluation of PC-Sampling.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Evaluation-PC-Sampling.
+ * 
+ * Evaluation-PC-Sampling is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Evaluation-PC-Sampling is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Evaluation-PC-Sampling.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/evaluation-pc-sampling> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.evaluation.pc_sampling;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.regex.*;
+import java.util.stream.*;
+
+import org.spldev.pc_extraction.extraction.cpp.*;
+import org.spldev.util.logging.*;
+
+/**
+ * Extracts presence conditions file by file using a pool of worker threads.
+ * <p>
+ * Each source file is extracted in its own staging directory. The staging
+ * directory contains the file and all headers it (transitively) includes,
+ * linked at their relative paths from the real system tree, such that
+ * includes and macro definitions are resolved as in a sequential extraction
+ * of the whole system. Only the output of the file itself is kept. It is
+ * stored in a cache entry identified by the hash of the file and its included
+ * headers, so changing a header invalidates all files that include it.
+ * <p>
+ * Afterwards, the extraction directory is cleared and the entries of all files
+ * are merged in the lexicographical order of the source files, such that the
+ * result does not depend on the scheduling of the workers.
+ *
+ * @author Sebastian Krieter
+ */
+public class ParallelPCExtractor {
+
+	private static final Pattern includePattern = Pattern.compile("^\\s*#\\s*include\\s*([<\"])([^>\"]+)[>\"]");
+
+	private final int numberOfThreads;
+	private final Path cacheDir;
+	private final Path stagingDir;
+
+	private int numberOfFiles;
+	private int numberOfCachedFiles;
+
+	public ParallelPCExtractor(int numberOfThreads, Path cacheDir) {
+		this.numberOfThreads = numberOfThreads;
+		this.cacheDir = cacheDir;
+		stagingDir = cacheDir.resolve(".staging");
+	}
+
+	public boolean extract(Path systemPath, Path extractionPath) throws IOException, InterruptedException {
+		final List<Path> sourceFiles;
+		try (Stream<Path> fileStream = Files.walk(systemPath)) {
+			sourceFiles = fileStream.filter(Constants.fileFilter).map(systemPath::relativize)
+				.sorted((p1, p2) -> p1.toString().compareTo(p2.toString())).collect(Collectors.toList());
+		}
+		numberOfFiles = sourceFiles.size();
+		numberOfCachedFiles = 0;
+
+		Files.createDirectories(stagingDir);
+
+		final Map<Path, List<Path>> directIncludes = new HashMap<>();
+		for (final Path sourceFile : sourceFiles) {
+			directIncludes.put(sourceFile, resolveIncludes(systemPath, sourceFile, sourceFiles));
+		}
+
+		final String toolVersion = ContentHash.getToolVersion(CPPExtractor.class);
+		final List<Path> entries = new ArrayList<>(sourceFiles.size());
+		final List<Callable<Boolean>> tasks = new ArrayList<>();
+		for (final Path sourceFile : sourceFiles) {
+			final List<Path> includes = getTransitiveIncludes(sourceFile, directIncludes);
+			final ContentHash hash = new ContentHash() //
+				.add(toolVersion) //
+				.add(sourceFile.toString()) //
+				.addFile(systemPath.resolve(sourceFile)) //
+				.add(includes.size());
+			for (final Path include : includes) {
+				hash.add(include.toString()).addFile(systemPath.resolve(include));
+			}
+			final Path entry = cacheDir.resolve(hash.get());
+			entries.add(entry);
+			if (Files.isDirectory(entry)) {
+				numberOfCachedFiles++;
+			} else {
+				tasks.add(() -> extractFile(systemPath, sourceFile, includes, entry));
+			}
+		}
+
+		boolean extracted = true;
+		final ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, numberOfThreads));
+		try {
+			for (final Future<Boolean> future : executor.invokeAll(tasks)) {
+				try {
+					extracted &= future.get();
+				} catch (final ExecutionException e) {
+					Logger.logError(e);
+					extracted = false;
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		merge(entries, extractionPath);
+		return extracted;
+	}
+
+	/**
+	 * Resolves the include directives of a file against the files of the
+	 * system. Quoted includes are first looked up relative to the including
+	 * file. Otherwise, an include is resolved to the file at the same path
+	 * relative to the system root or, if there is none, to the first file
+	 * whose path ends with the included path. Includes that cannot be resolved
+	 * (e.g., system headers) are ignored. Include directives are collected
+	 * independently of conditional compilation.
+	 */
+	private static List<Path> resolveIncludes(Path systemPath, Path sourceFile, List<Path> sourceFiles)
+		throws IOException {
+		final Set<Path> includes = new TreeSet<>((p1, p2) -> p1.toString().compareTo(p2.toString()));
+		for (final String line : Files.readAllLines(systemPath.resolve(sourceFile), StandardCharsets.ISO_8859_1)) {
+			final Matcher matcher = includePattern.matcher(line);
+			if (matcher.find()) {
+				final String includeName = matcher.group(2).trim();
+				Path include = null;
+				if ("\"".equals(matcher.group(1))) {
+					final Path parent = sourceFile.getParent();
+					include = findFile(parent != null ? parent.resolve(includeName) : Paths.get(includeName),
+						sourceFiles);
+				}
+				if (include == null) {
+					include = findFile(Paths.get(includeName), sourceFiles);
+				}
+				if (include == null) {
+					for (final Path file : sourceFiles) {
+						if (file.endsWith(includeName)) {
+							include = file;
+							break;
+						}
+					}
+				}
+				if ((include != null) && !include.equals(sourceFile)) {
+					includes.add(include);
+				}
+			}
+		}
+		return new ArrayList<>(includes);
+	}
+
+	private static Path findFile(Path file, List<Path> sourceFiles) {
+		final Path normalizedFile = file.normalize();
+		final int index = Collections.binarySearch(sourceFiles, normalizedFile,
+			(p1, p2) -> p1.toString().compareTo(p2.toString()));
+		return index >= 0 ? sourceFiles.get(index) : null;
+	}
+
+	private static List<Path> getTransitiveIncludes(Path sourceFile, Map<Path, List<Path>> directIncludes) {
+		final Set<Path> includes = new TreeSet<>((p1, p2) -> p1.toString().compareTo(p2.toString()));
+		final ArrayDeque<Path> stack = new ArrayDeque<>(directIncludes.get(sourceFile));
+		while (!stack.isEmpty()) {
+			final Path include = stack.pop();
+			if (!include.equals(sourceFile) && includes.add(include)) {
+				stack.addAll(directIncludes.get(include));
+			}
+		}
+		return new ArrayList<>(includes);
+	}
+
+	private Boolean extractFile(Path systemPath, Path sourceFile, List<Path> includes, Path entry)
+		throws IOException {
+		final Path taskDir = Files.createTempDirectory(stagingDir, "extract_");
+		try {
+			final Path stagingSystem = taskDir.resolve("system");
+			final Path stagingOutput = taskDir.resolve("output");
+			Files.createDirectories(stagingOutput);
+			link(systemPath, sourceFile, stagingSystem);
+			for (final Path include : includes) {
+				link(systemPath, include, stagingSystem);
+			}
+
+			final boolean extracted = new CPPExtractor().extract(stagingSystem, stagingOutput);
+			if (extracted) {
+				removeOutputOfIncludes(stagingOutput, includes);
+				try {
+					Files.move(stagingOutput, entry, StandardCopyOption.ATOMIC_MOVE);
+				} catch (final FileAlreadyExistsException | DirectoryNotEmptyException e) {
+					// Extracted concurrently by another process
+				}
+			}
+			return extracted;
+		} finally {
+			deleteRecursively(taskDir);
+		}
+	}
+
+	private static void link(Path systemPath, Path file, Path stagingSystem) throws IOException {
+		final Path target = systemPath.resolve(file).toAbsolutePath();
+		final Path link = stagingSystem.resolve(file.toString());
+		Files.createDirectories(link.getParent());
+		try {
+			Files.createSymbolicLink(link, target);
+		} catch (final UnsupportedOperationException | IOException e) {
+			Files.copy(target, link);
+		}
+	}
+
+	/**
+	 * The extractor writes the output of a file at the file's relative path
+	 * (possibly with an additional extension). The output of the linked headers
+	 * is part of their own entries and is removed from this entry.
+	 */
+	private static void removeOutputOfIncludes(Path output, List<Path> includes) throws IOException {
+		final List<Path> outputFiles;
+		try (Stream<Path> fileStream = Files.walk(output)) {
+			outputFiles = fileStream.filter(Files::isRegularFile).collect(Collectors.toList());
+		}
+		for (final Path outputFile : outputFiles) {
+			final String relativePath = output.relativize(outputFile).toString();
+			for (final Path include : includes) {
+				final String includePath = include.toString();
+				if (relativePath.equals(includePath) || relativePath.startsWith(includePath + ".")) {
+					Files.delete(outputFile);
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Clears the extraction files in the given directory and writes the entries
+	 * of all source files to it. If several entries contain the same output
+	 * file, their lines are merged in the order of the entries and duplicate
+	 * lines are kept only once.
+	 */
+	private void merge(List<Path> entries, Path extractionPath) throws IOException {
+		clearExtractionFiles(extractionPath);
+
+		final TreeMap<String, List<Path>> outputFiles = new TreeMap<>();
+		for (final Path entry : entries) {
+			if (Files.isDirectory(entry)) {
+				try (Stream<Path> fileStream = Files.walk(entry)) {
+					fileStream.filter(Files::isRegularFile)
+						.sorted((p1, p2) -> p1.toString().compareTo(p2.toString()))
+						.forEach(file -> outputFiles
+							.computeIfAbsent(entry.relativize(file).toString(), k -> new ArrayList<>()).add(file));
+				}
+			}
+		}
+		for (final Map.Entry<String, List<Path>> outputFile : outputFiles.entrySet()) {
+			final Path target = extractionPath.resolve(outputFile.getKey());
+			Files.createDirectories(target.getParent());
+			final List<Path> files = outputFile.getValue();
+			if (files.size() == 1) {
+				Files.copy(files.get(0), target, StandardCopyOption.REPLACE_EXISTING);
+			} else {
+				final LinkedHashSet<String> lines = new LinkedHashSet<>();
+				for (final Path file : files) {
+					lines.addAll(Files.readAllLines(file, StandardCharsets.ISO_8859_1));
+				}
+				Files.write(target, lines, StandardCharsets.ISO_8859_1);
+			}
+		}
+	}
+
+	/**
+	 * Files written by the converter and the grouper are stored next to the
+	 * extracted presence conditions and are kept.
+	 */
+	private static void clearExtractionFiles(Path extractionPath) throws IOException {
+		if (Files.isDirectory(extractionPath)) {
+			final List<Path> files;
+			try (Stream<Path> fileStream = Files.walk(extractionPath)) {
+				files = fileStream.filter(Files::isRegularFile).filter(file -> {
+					final String fileName = file.getFileName().toString();
+					return !fileName.startsWith(Constants.convertedPCFileName)
+						&& !fileName.startsWith(Constants.groupedPCFileName);
+				}).collect(Collectors.toList());
+			}
+			for (final Path file : files) {
+				Files.delete(file);
+			}
+		}
+	}
+
+	private static void deleteRecursively(Path dir) throws IOException {
+		try (Stream<Path> fileStream = Files.walk(dir)) {
+			final List<Path> files = fileStream.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+			for (final Path file : files) {
+				Files.deleteIfExists(file);
+			}
+		}
+	}
+
+	public int getNumberOfFiles() {
+		return numberOfFiles;
+	}
+
+	public int getNumberOfCachedFiles() {
+		return numberOfCachedFiles;
+	}
+
+}
@@ -0,0 +1,119 @@
+/* -----------------------------------------------------------------------------
+ * Evaluation-PC-Sampling - Program for the evaluation of PC-Sampling.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Evaluation-PC-Sampling.
+ * 
+ * Evaluation-PC-Sampling is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Evaluation-PC-Sampling is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Evaluation-PC-Sampling.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/evaluation-pc-sampling> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.evaluation.pc_sampling;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Computes the elements of an index range in a background thread, such that
+ * at most {@code depth} elements are prepared ahead of the element that was
+ * requested last. Elements are computed one after another in the order of
+ * their indices.
+ *
+ * @param <T> the type of the computed elements
+ *
+ * @author Sebastian Krieter
+ */
+public class Prefetcher<T> {
+
+	@FunctionalInterface
+	public interface Producer<T> {
+		T produce(int index) throws Exception;
+	}
+
+	private final Producer<T> producer;
+	private final int end;
+	private final int depth;
+
+	private final HashMap<Integer, Future<T>> pending = new HashMap<>();
+	private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+		final Thread thread = new Thread(runnable, "Prefetcher");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private int next;
+
+	/**
+	 * @param producer computes the element for an index
+	 * @param start    the first index (inclusive)
+	 * @param end      the last index (inclusive)
+	 * @param depth    the number of elements that are prepared in advance
+	 */
+	public Prefetcher(Producer<T> producer, int start, int end, int depth) {
+		this.producer = producer;
+		this.end = end;
+		this.depth = depth;
+		next = start;
+	}
+
+	/**
+	 * Waits until the element for the given index is computed and returns it.
+	 * Before waiting, the computation of the subsequent elements is scheduled.
+	 */
+	public T get(int index) throws Exception {
+		schedule(index + depth);
+		final Future<T> future = pending.remove(index);
+		if (future == null) {
+			return producer.produce(index);
+		}
+		try {
+			return future.get();
+		} catch (final ExecutionException e) {
+			final Throwable cause = e.getCause();
+			throw cause instanceof Exception ? (Exception) cause : e;
+		}
+	}
+
+	/**
+	 * Cancels all pending computations and waits until the background thread
+	 * has stopped, such that no element is computed after this method returns.
+	 */
+	public void cancel() {
+		for (final Future<T> future : pending.values()) {
+			future.cancel(true);
+		}
+		pending.clear();
+		executor.shutdownNow();
+		boolean interrupted = false;
+		while (!executor.isTerminated()) {
+			try {
+				executor.awaitTermination(1, TimeUnit.MINUTES);
+			} catch (final InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void schedule(int last) {
+		for (; next <= Math.min(last, end); next++) {
+			final int index = next;
+			pending.put(index, executor.submit(() -> producer.produce(index)));
+		}
+	}
+
+}
@@ -0,0 +1,341 @@
+/* -----------------------------------------------------------------------------
+ * Evaluation-PC-Sampling - Program for the evaluation of PC-Sampling.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Evaluation-PC-Sampling.
+ * 
+ * Evaluation-PC-Sampling is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Evaluation-PC-Sampling is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Evaluation-PC-Sampling.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/evaluation-pc-sampling> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.evaluation.pc_sampling;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Measures the resource usage of the processes started by this JVM during a
+ * run via the Linux proc file system. While a monitor is running, it
+ * periodically reads {@code /proc/<pid>/status} of every process in the tree
+ * of these processes and keeps track of the peak resident set size and the
+ * peak number of threads of the whole tree. Child processes of this JVM that
+ * already existed when the monitor was started are not part of the run and
+ * are ignored together with their descendants.
+ *
+ * The CPU times are not sampled, but computed as the difference of the CPU
+ * times of the terminated and waited-for children of this JVM
+ * ({@code cutime} and {@code cstime} in {@code /proc/self/stat}) between
+ * {@link #start()} and {@link #stop()}. They include every descendant that
+ * was waited for, regardless of how long it ran, but also any other child
+ * process that this JVM waited for in the meantime.
+ *
+ * On systems without {@code /proc} all values remain {@code -1}.
+ *
+ * @author Sebastian Krieter
+ */
+public class ProcessMonitor {
+
+	/**
+	 * Default resolution of the CPU times in {@code /proc/<pid>/stat}
+	 * (USER_HZ), used if {@code getconf CLK_TCK} is not available.
+	 */
+	private static final long DEFAULT_CLOCK_TICKS_PER_SECOND = 100;
+
+	private static final long CLOCK_TICKS_PER_SECOND = readClockTicks();
+
+	private static final Path PROC = Paths.get("/proc");
+
+	public static class Usage {
+
+		private long peakRSS = -1;
+		private long userTime = -1;
+		private long systemTime = -1;
+		private int peakThreads = -1;
+
+		/**
+		 * @return the peak resident set size of the process tree in kB
+		 */
+		public long getPeakRSS() {
+			return peakRSS;
+		}
+
+		/**
+		 * @return the user CPU time of the process tree in ms
+		 */
+		public long getUserTime() {
+			return userTime;
+		}
+
+		/**
+		 * @return the system CPU time of the process tree in ms
+		 */
+		public long getSystemTime() {
+			return systemTime;
+		}
+
+		public int getPeakThreads() {
+			return peakThreads;
+		}
+
+	}
+
+	private final long interval;
+	private final String selfPid;
+
+	private final HashMap<String, Long> processPeakRSS = new HashMap<>();
+	private final HashSet<String> previousChildren = new HashSet<>();
+	private long[] startChildTimes;
+	private Usage usage;
+	private Thread thread;
+
+	/**
+	 * @param interval the sampling interval in ms
+	 */
+	public ProcessMonitor(long interval) {
+		this.interval = interval;
+		selfPid = getSelfPid();
+	}
+
+	public static boolean isSupported() {
+		return Files.isDirectory(PROC.resolve("self"));
+	}
+
+	public synchronized void start() {
+		stop();
+		processPeakRSS.clear();
+		previousChildren.clear();
+		usage = new Usage();
+		if (selfPid == null) {
+			return;
+		}
+		final List<String> children = readChildren().get(selfPid);
+		if (children != null) {
+			previousChildren.addAll(children);
+		}
+		startChildTimes = readChildTimes(PROC.resolve(selfPid));
+		usage.peakRSS = 0;
+		usage.peakThreads = 0;
+		thread = new Thread(this::run, "process-monitor");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	public Usage stop() {
+		final Thread monitorThread;
+		synchronized (this) {
+			monitorThread = thread;
+			thread = null;
+		}
+		if (monitorThread != null) {
+			monitorThread.interrupt();
+			try {
+				monitorThread.join();
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			final long[] childTimes = readChildTimes(PROC.resolve(selfPid));
+			if ((startChildTimes != null) && (childTimes != null)) {
+				usage.userTime = ((childTimes[0] - startChildTimes[0]) * 1000) / CLOCK_TICKS_PER_SECOND;
+				usage.systemTime = ((childTimes[1] - startChildTimes[1]) * 1000) / CLOCK_TICKS_PER_SECOND;
+			}
+		}
+		return usage;
+	}
+
+	private void run() {
+		while (!Thread.currentThread().isInterrupted()) {
+			sample();
+			try {
+				Thread.sleep(interval);
+			} catch (final InterruptedException e) {
+				break;
+			}
+		}
+		sample();
+	}
+
+	private void sample() {
+		long rss = 0;
+		int threads = 0;
+		for (final String pid : getDescendants()) {
+			final long[] status = readStatus(PROC.resolve(pid));
+			if (status == null) {
+				continue;
+			}
+			processPeakRSS.merge(pid, status[1], Math::max);
+			rss += status[0];
+			threads += (int) status[2];
+		}
+
+		long maxSingleRSS = 0;
+		for (final long peakRSS : processPeakRSS.values()) {
+			maxSingleRSS = Math.max(maxSingleRSS, peakRSS);
+		}
+		usage.peakRSS = Math.max(usage.peakRSS, Math.max(rss, maxSingleRSS));
+		usage.peakThreads = Math.max(usage.peakThreads, threads);
+	}
+
+	/**
+	 * @return the pids of all processes mapped by the pids of their parents
+	 */
+	private static HashMap<String, List<String>> readChildren() {
+		final HashMap<String, List<String>> children = new HashMap<>();
+		try (DirectoryStream<Path> dirs = Files.newDirectoryStream(PROC)) {
+			for (final Path dir : dirs) {
+				final String pid = dir.getFileName().toString();
+				if (!isNumber(pid)) {
+					continue;
+				}
+				final String[] stat = readStat(dir);
+				if (stat != null) {
+					children.computeIfAbsent(stat[1], p -> new ArrayList<>()).add(pid);
+				}
+			}
+		} catch (final IOException e) {
+			children.clear();
+		}
+		return children;
+	}
+
+	private List<String> getDescendants() {
+		final HashMap<String, List<String>> children = readChildren();
+		final ArrayList<String> descendants = new ArrayList<>();
+		final ArrayDeque<String> stack = new ArrayDeque<>();
+		final List<String> selfChildren = children.get(selfPid);
+		if (selfChildren != null) {
+			for (final String child : selfChildren) {
+				if (!previousChildren.contains(child)) {
+					descendants.add(child);
+					stack.push(child);
+				}
+			}
+		}
+		while (!stack.isEmpty()) {
+			final List<String> childList = children.get(stack.pop());
+			if (childList != null) {
+				for (final String child : childList) {
+					descendants.add(child);
+					stack.push(child);
+				}
+			}
+		}
+		return descendants;
+	}
+
+	/**
+	 * Reads the fields of {@code /proc/<pid>/stat} following the command name.
+	 * The command name is enclosed in parentheses and may itself contain
+	 * spaces, so the fields are split after the last closing parenthesis.
+	 * Index 0 is the state, index 1 the parent pid, index 13 cutime, and index
+	 * 14 cstime.
+	 */
+	private static String[] readStat(Path processDir) {
+		try {
+			final String stat = new String(Files.readAllBytes(processDir.resolve("stat")), StandardCharsets.US_ASCII);
+			final int commandEnd = stat.lastIndexOf(')');
+			if (commandEnd < 0) {
+				return null;
+			}
+			final String[] fields = stat.substring(commandEnd + 2).trim().split(" ");
+			return fields.length > 14 ? fields : null;
+		} catch (final IOException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * @return the user and system CPU time of the terminated and waited-for
+	 *         children of a process in clock ticks
+	 */
+	private static long[] readChildTimes(Path processDir) {
+		final String[] stat = readStat(processDir);
+		if (stat == null) {
+			return null;
+		}
+		try {
+			return new long[] { Long.parseLong(stat[13]), Long.parseLong(stat[14]) };
+		} catch (final NumberFormatException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * @return VmRSS (kB), VmHWM (kB), and Threads of a process
+	 */
+	private static long[] readStatus(Path processDir) {
+		final long[] values = new long[3];
+		try (BufferedReader reader = Files.newBufferedReader(processDir.resolve("status"),
+			StandardCharsets.US_ASCII)) {
+			for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+				if (line.startsWith("VmRSS:")) {
+					values[0] = parseValue(line);
+				} else if (line.startsWith("VmHWM:")) {
+					values[1] = parseValue(line);
+				} else if (line.startsWith("Threads:")) {
+					values[2] = parseValue(line);
+				}
+			}
+		} catch (final IOException | NumberFormatException e) {
+			return null;
+		}
+		return values;
+	}
+
+	private static long parseValue(String line) {
+		final StringTokenizer tokenizer = new StringTokenizer(line.substring(line.indexOf(':') + 1));
+		return Long.parseLong(tokenizer.nextToken());
+	}
+
+	private static boolean isNumber(String name) {
+		for (int i = 0; i < name.length(); i++) {
+			if (!Character.isDigit(name.charAt(i))) {
+				return false;
+			}
+		}
+		return !name.isEmpty();
+	}
+
+	private static long readClockTicks() {
+		try {
+			final Process process = new ProcessBuilder("getconf", "CLK_TCK").redirectErrorStream(true).start();
+			try (BufferedReader reader = new BufferedReader(
+				new InputStreamReader(process.getInputStream(), StandardCharsets.US_ASCII))) {
+				final String line = reader.readLine();
+				if ((process.waitFor() == 0) && (line != null)) {
+					final long ticks = Long.parseLong(line.trim());
+					if (ticks > 0) {
+						return ticks;
+					}
+				}
+			}
+		} catch (final IOException | NumberFormatException e) {
+			return DEFAULT_CLOCK_TICKS_PER_SECOND;
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return DEFAULT_CLOCK_TICKS_PER_SECOND;
+	}
+
+	private static String getSelfPid() {
+		try {
+			return Files.readSymbolicLink(PROC.resolve("self")).getFileName().toString();
+		} catch (final IOException | UnsupportedOperationException e) {
+			return null;
+		}
+	}
+
+}
@@ -0,0 +1,334 @@
+/* -----------------------------------------------------------------------------
+ * Evaluation-PC-Sampling - Program for the evaluation of PC-Sampling.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Evaluation-PC-Sampling.
+ * 
+ * Evaluation-PC-Sampling is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Evaluation-PC-Sampling is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Evaluation-PC-Sampling.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/evaluation-pc-sampling> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.evaluation.pc_sampling;
+
+import java.util.*;
+
+import org.spldev.formula.analysis.sat4j.twise.*;
+import org.spldev.formula.analysis.sat4j.twise.PresenceCondition;
+import org.spldev.formula.clauses.*;
+
+/**
+ * Estimates the t-wise coverage of samples by drawing interactions uniformly
+ * at random instead of enumerating all t-combinations of presence conditions.
+ * Each group of presence conditions forms one stratum. Interactions are drawn
+ * in rounds until the confidence interval of every sample's coverage is at
+ * most as wide as the given error target or the maximum number of
+ * interactions is reached. Strata that contain at most one round of
+ * interactions are enumerated completely.
+ *
+ * As in {@link TWiseStatisticGenerator}, an interaction counts as valid if it
+ * is covered by any of the samples or if its combined condition is
+ * satisfiable.
+ *
+ * @author Sebastian Krieter
+ */
+public class TWiseCoverageEstimator {
+
+	public static class Estimate {
+
+		private final double coverage;
+		private final double lowerBound;
+		private final double upperBound;
+
+		private Estimate(double coverage, double halfWidth) {
+			this.coverage = coverage;
+			lowerBound = Math.max(0, coverage - halfWidth);
+			upperBound = Math.min(1, coverage + halfWidth);
+		}
+
+		public double getCoverage() {
+			return coverage;
+		}
+
+		public double getLowerBound() {
+			return lowerBound;
+		}
+
+		public double getUpperBound() {
+			return upperBound;
+		}
+
+	}
+
+	private static class Stratum {
+
+		private final List<PresenceCondition> conditions;
+		private final double size;
+		private final boolean exhaustive;
+		private long drawn;
+		private long valid;
+		private final long[] covered;
+
+		private Stratum(List<PresenceCondition> conditions, double size, boolean exhaustive, int numberOfSamples) {
+			this.conditions = conditions;
+			this.size = size;
+			this.exhaustive = exhaustive;
+			covered = new long[numberOfSamples];
+		}
+
+	}
+
+	private final TWiseConfigurationUtil util;
+	private final Random random;
+	private final double errorTarget;
+	private final double z;
+	private final int batchSize;
+	private final long maxInteractions;
+
+	private long numberOfInteractions;
+
+	/**
+	 * @param util            the util of the feature model
+	 * @param random          the random generator used to draw interactions
+	 * @param errorTarget     the maximal half-width of the confidence intervals
+	 * @param confidence      the confidence level of the intervals, e.g., 0.95
+	 * @param batchSize       the number of interactions drawn per round
+	 * @param maxInteractions the maximum number of interactions to draw
+	 */
+	public TWiseCoverageEstimator(TWiseConfigurationUtil util, Random random, double errorTarget, double confidence,
+		int batchSize, long maxInteractions) {
+		this.util = util;
+		this.random = random;
+		this.errorTarget = errorTarget;
+		this.batchSize = batchSize;
+		this.maxInteractions = maxInteractions;
+		z = getQuantile(1 - ((1 - confidence) / 2));
+	}
+
+	public List<Estimate> estimate(List<List<? extends LiteralList>> samples, List<List<PresenceCondition>> groups,
+		int t) {
+		final TWiseCombiner combiner = new TWiseCombiner(util.getCnf().getVariableMap().size());
+		final boolean[] coveredBySample = new boolean[samples.size()];
+		final PresenceCondition[] interaction = new PresenceCondition[t];
+
+		final ArrayList<Stratum> strata = new ArrayList<>();
+		double totalSize = 0;
+		for (final List<PresenceCondition> group : groups) {
+			if (group.size() >= t) {
+				final double size = getBinomial(group.size(), t);
+				final Stratum stratum = new Stratum(group, size, size <= batchSize, samples.size());
+				strata.add(stratum);
+				if (stratum.exhaustive) {
+					enumerate(stratum, t, interaction, samples, coveredBySample, combiner);
+				} else {
+					totalSize += size;
+				}
+			}
+		}
+
+		numberOfInteractions = 0;
+		if (totalSize > 0) {
+			while (numberOfInteractions < maxInteractions) {
+				for (final Stratum stratum : strata) {
+					if (!stratum.exhaustive) {
+						final long batch = Math.max(1, Math.round((batchSize * stratum.size) / totalSize));
+						for (long i = 0; i < batch; i++) {
+							draw(stratum.conditions, t, interaction);
+							check(stratum, interaction, samples, coveredBySample, combiner);
+						}
+					}
+				}
+				if (getMaxHalfWidth(strata) <= errorTarget) {
+					break;
+				}
+			}
+		}
+
+		final ArrayList<Estimate> estimates = new ArrayList<>(samples.size());
+		for (int i = 0; i < samples.size(); i++) {
+			estimates.add(computeEstimate(strata, i));
+		}
+		return estimates;
+	}
+
+	/**
+	 * @return the number of randomly drawn interactions of the last estimation
+	 */
+	public long getNumberOfInteractions() {
+		return numberOfInteractions;
+	}
+
+	private void enumerate(Stratum stratum, int t, PresenceCondition[] interaction,
+		List<List<? extends LiteralList>> samples, boolean[] coveredBySample, TWiseCombiner combiner) {
+		final int n = stratum.conditions.size();
+		final int[] indices = new int[t];
+		for (int i = 0; i < t; i++) {
+			indices[i] = i;
+		}
+		while (true) {
+			for (int i = 0; i < t; i++) {
+				interaction[i] = stratum.conditions.get(indices[i]);
+			}
+			check(stratum, interaction, samples, coveredBySample, combiner);
+
+			int i = t - 1;
+			while ((i >= 0) && (indices[i] == ((n - t) + i))) {
+				i--;
+			}
+			if (i < 0) {
+				break;
+			}
+			indices[i]++;
+			for (int j = i + 1; j < t; j++) {
+				indices[j] = indices[j - 1] + 1;
+			}
+		}
+	}
+
+	private void draw(List<PresenceCondition> conditions, int t, PresenceCondition[] interaction) {
+		// Floyd's algorithm for a uniformly distributed t-subset
+		final int n = conditions.size();
+		final int[] indices = new int[t];
+		int count = 0;
+		for (int j = n - t; j < n; j++) {
+			final int r = random.nextInt(j + 1);
+			boolean contained = false;
+			for (int k = 0; k < count; k++) {
+				if (indices[k] == r) {
+					contained = true;
+					break;
+				}
+			}
+			indices[count++] = contained ? j : r;
+		}
+		for (int i = 0; i < t; i++) {
+			interaction[i] = conditions.get(indices[i]);
+		}
+	}
+
+	private void check(Stratum stratum, PresenceCondition[] interaction, List<List<? extends LiteralList>> samples,
+		boolean[] coveredBySample, TWiseCombiner combiner) {
+		if (!stratum.exhaustive) {
+			numberOfInteractions++;
+		}
+		stratum.drawn++;
+		boolean anyCovered = false;
+		for (int i = 0; i < coveredBySample.length; i++) {
+			coveredBySample[i] = isCovered(samples.get(i), interaction);
+			anyCovered |= coveredBySample[i];
+		}
+		if (!anyCovered) {
+			final ClauseList combinedCondition = new ClauseList();
+			combiner.combineConditions(interaction, combinedCondition);
+			if (!util.isCombinationValid(combinedCondition)) {
+				return;
+			}
+		}
+		stratum.valid++;
+		for (int i = 0; i < coveredBySample.length; i++) {
+			if (coveredBySample[i]) {
+				stratum.covered[i]++;
+			}
+		}
+	}
+
+	private static boolean isCovered(List<? extends LiteralList> sample, PresenceCondition[] interaction) {
+		configurationLoop: for (final LiteralList configuration : sample) {
+			conditionLoop: for (final PresenceCondition condition : interaction) {
+				for (final LiteralList literals : condition) {
+					if (configuration.containsAll(literals)) {
+						continue conditionLoop;
+					}
+				}
+				continue configurationLoop;
+			}
+			return true;
+		}
+		return false;
+	}
+
+	private double getMaxHalfWidth(List<Stratum> strata) {
+		double maxHalfWidth = 0;
+		final int numberOfSamples = strata.isEmpty() ? 0 : strata.get(0).covered.length;
+		for (int i = 0; i < numberOfSamples; i++) {
+			maxHalfWidth = Math.max(maxHalfWidth, getHalfWidth(strata, i, getValidSize(strata)));
+		}
+		return maxHalfWidth;
+	}
+
+	private Estimate computeEstimate(List<Stratum> strata, int sampleIndex) {
+		final double validSize = getValidSize(strata);
+		if (validSize == 0) {
+			return new Estimate(1, 0);
+		}
+		double coverage = 0;
+		for (final Stratum stratum : strata) {
+			if (stratum.valid > 0) {
+				final double weight = getValidSize(stratum) / validSize;
+				coverage += (weight * stratum.covered[sampleIndex]) / stratum.valid;
+			}
+		}
+		return new Estimate(coverage, getHalfWidth(strata, sampleIndex, validSize));
+	}
+
+	private double getHalfWidth(List<Stratum> strata, int sampleIndex, double validSize) {
+		if (validSize == 0) {
+			return Double.POSITIVE_INFINITY;
+		}
+		double variance = 0;
+		for (final Stratum stratum : strata) {
+			if (!stratum.exhaustive && (stratum.valid > 0)) {
+				final double weight = getValidSize(stratum) / validSize;
+				// adjusted proportion avoids a zero variance for small strata with p = 0 or p = 1
+				final double p = (stratum.covered[sampleIndex] + 2.0) / (stratum.valid + 4.0);
+				variance += (weight * weight * p * (1 - p)) / stratum.valid;
+			}
+		}
+		return z * Math.sqrt(variance);
+	}
+
+	private static double getValidSize(List<Stratum> strata) {
+		double validSize = 0;
+		for (final Stratum stratum : strata) {
+			validSize += getValidSize(stratum);
+		}
+		return validSize;
+	}
+
+	private static double getValidSize(Stratum stratum) {
+		return stratum.drawn == 0 ? 0 : (stratum.size * stratum.valid) / stratum.drawn;
+	}
+
+	private static double getBinomial(int n, int k) {
+		double result = 1;
+		for (int i = 1; i <= k; i++) {
+			result = (result * ((n - k) + i)) / i;
+		}
+		return result;
+	}
+
+	/**
+	 * Approximates the quantile function of the standard normal distribution
+	 * (Abramowitz and Stegun, 26.2.23; absolute error below 4.5e-4).
+	 */
+	private static double getQuantile(double p) {
+		final double q = p < 0.5 ? p : 1 - p;
+		final double x = Math.sqrt(-2 * Math.log(q));
+		final double quantile = x
+			- ((2.515517 + (0.802853 * x) + (0.010328 * x * x))
+				/ (1 + (1.432788 * x) + (0.189269 * x * x) + (0.001308 * x * x * x)));
+		return p < 0.5 ? -quantile : quantile;
+	}
+
+}
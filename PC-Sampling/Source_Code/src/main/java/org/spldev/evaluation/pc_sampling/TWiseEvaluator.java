@@ -48,15 +48,29 @@ public class TWiseEvaluator extends Evaluator {
 
 	protected static final ListProperty<String> coverageT = new ListProperty<>("t", Property.StringConverter);
 	protected static final GroupingProperty coverageGrouping = new GroupingProperty("grouping");
+	protected static final Property<Integer> estimationT = new Property<>("coverage_estimation_t",
+		Property.IntegerConverter, 0);
+	protected static final Property<Integer> estimationError = new Property<>("coverage_estimation_error",
+		Property.IntegerConverter, 10);
+	protected static final Property<Integer> estimationConfidence = new Property<>("coverage_estimation_confidence",
+		Property.IntegerConverter, 95);
+	protected static final Property<Integer> estimationBatchSize = new Property<>("coverage_estimation_batch",
+		Property.IntegerConverter, 1000);
+	protected static final Property<Integer> estimationMaxInteractions = new Property<>("coverage_estimation_max",
+		Property.IntegerConverter, 1000000);
+	protected static final Property<Integer> modelAnalysisCacheProperty = new Property<>("model_analysis_cache",
+		Property.IntegerConverter, 0);
 
 	protected CSVWriter evaluationWriter;
 
 	private CNF modelCNF;
 	private TWiseStatisticGenerator tWiseStatisticGenerator;
+	private ModelAnalysisCache modelAnalysisCache;
 
 	private List<int[]> sampleArguments;
 	private List<ValidityStatistic> sampleValidityStatistics;
 	private List<CoverageStatistic> coverageStatistics;
+	private List<TWiseCoverageEstimator.Estimate> coverageEstimates;
 	private String coverageCriterion;
 
 	@Override
@@ -90,6 +104,10 @@ public class TWiseEvaluator extends Evaluator {
 			}
 			Collections.sort(dirList, (p1, p2) -> p1.getFileName().toString().compareTo(p2.getFileName().toString()));
 
+			modelAnalysisCache = modelAnalysisCacheProperty.getValue() > 0
+				? new ModelAnalysisCache(Constants.cacheOutput.resolve("model_analysis"), 1000)
+				: null;
+
 			tabFormatter.incTabLevel();
 			dirList.forEach(this::readSamples);
 			tabFormatter.setTabLevel(0);
@@ -122,15 +140,25 @@ public class TWiseEvaluator extends Evaluator {
 		modelCNF = parseResult.get();
 
 		final TWiseConfigurationUtil util;
-		if (!modelCNF.getClauses().isEmpty()) {
-			util = new TWiseConfigurationUtil(modelCNF, new Sat4JSolver(modelCNF));
+		if (modelAnalysisCache != null) {
+			try {
+				util = modelAnalysisCache.get(modelCNF);
+			} catch (final IOException e) {
+				Logger.logError(e);
+				tabFormatter.decTabLevel();
+				return;
+			}
 		} else {
-			util = new TWiseConfigurationUtil(modelCNF, null);
-		}
+			if (!modelCNF.getClauses().isEmpty()) {
+				util = new TWiseConfigurationUtil(modelCNF, new Sat4JSolver(modelCNF));
+			} else {
+				util = new TWiseConfigurationUtil(modelCNF, null);
+			}
 
-		util.computeRandomSample(1000);
-		if (!modelCNF.getClauses().isEmpty()) {
-			util.computeMIG(false, false);
+			util.computeRandomSample(1000);
+			if (!modelCNF.getClauses().isEmpty()) {
+				util.computeMIG(false, false);
+			}
 		}
 		tWiseStatisticGenerator = new TWiseStatisticGenerator(util);
 
@@ -208,12 +236,31 @@ public class TWiseEvaluator extends Evaluator {
 				tIndex++;
 				logCoverage(tSize, gSize, tIndex, gIndex);
 
+				final int t = Integer.parseInt(tValue);
 				coverageCriterion = groupingValue + "_t" + tValue;
-				coverageStatistics = tWiseStatisticGenerator.getCoverage(samples, nodes, Integer.parseInt(tValue),
-					ConfigurationScore.NONE, true);
-				for (int i = 0; i < sampleArguments.size(); i++) {
-					final int i2 = i;
-					writeCSV(evaluationWriter, writer -> writeCoverage(writer, i2));
+				if ((estimationT.getValue() > 0) && (t >= estimationT.getValue())) {
+					final TWiseCoverageEstimator estimator = new TWiseCoverageEstimator(util,
+						new Random(config.randomSeed.getValue()), estimationError.getValue() / 1000.0,
+						estimationConfidence.getValue() / 100.0, estimationBatchSize.getValue(),
+						estimationMaxInteractions.getValue());
+					coverageEstimates = estimator.estimate(samples, nodes, t);
+					Logger.logInfo("Estimated from " + estimator.getNumberOfInteractions() + " interactions");
+					for (int i = 0; i < sampleArguments.size(); i++) {
+						final int i2 = i;
+						writeCSV(evaluationWriter, writer -> writeEstimate(writer, i2, "_est",
+							coverageEstimates.get(i2).getCoverage()));
+						writeCSV(evaluationWriter, writer -> writeEstimate(writer, i2, "_est_lower",
+							coverageEstimates.get(i2).getLowerBound()));
+						writeCSV(evaluationWriter, writer -> writeEstimate(writer, i2, "_est_upper",
+							coverageEstimates.get(i2).getUpperBound()));
+					}
+				} else {
+					coverageStatistics = tWiseStatisticGenerator.getCoverage(samples, nodes, t,
+						ConfigurationScore.NONE, true);
+					for (int i = 0; i < sampleArguments.size(); i++) {
+						final int i2 = i;
+						writeCSV(evaluationWriter, writer -> writeCoverage(writer, i2));
+					}
 				}
 
 			}
@@ -279,6 +326,17 @@ public class TWiseEvaluator extends Evaluator {
 		csvWriter.addValue(coverageStatistic.getCoverage());
 	}
 
+	private void writeEstimate(CSVWriter csvWriter, int i, String suffix, double value) {
+		final int[] argumentValues = sampleArguments.get(i);
+		csvWriter.addValue(systemIndex);
+		csvWriter.addValue(argumentValues[1]);
+		csvWriter.addValue(argumentValues[0]);
+		csvWriter.addValue(argumentValues[2]);
+		csvWriter.addValue(argumentValues[3]);
+		csvWriter.addValue(coverageCriterion + suffix);
+		csvWriter.addValue(value);
+	}
+
 	private void logCoverage(final int tSize, final int gSize, int tIndex, int gIndex) {
 		final StringBuilder sb = new StringBuilder();
 		sb.append("t: ");
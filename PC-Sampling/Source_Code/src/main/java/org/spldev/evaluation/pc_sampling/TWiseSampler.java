@@ -54,6 +54,10 @@ public class TWiseSampler extends AlgorithmEvaluator<SolutionList, Algorithm<Sol
 	protected static final GroupingProperty grouping = new GroupingProperty();
 	protected static final Property<Integer> randomIterationsProperty = new Property<>("random_iterations",
 		Property.IntegerConverter);
+	protected static final Property<Integer> prefetchDepthProperty = new Property<>("prefetch_depth",
+		Property.IntegerConverter, 0);
+
+	private static final String ITERATION_FILES = "{model.dimacs,expressions_*.expression}";
 
 	public static int YASA_MIN_SIZE;
 	public static int YASA_MAX_SIZE;
@@ -62,6 +66,8 @@ public class TWiseSampler extends AlgorithmEvaluator<SolutionList, Algorithm<Sol
 
 	protected Path samplesDir, curSampleDir;
 
+	private Prefetcher<CNF> prefetcher;
+
 	@Override
 	public String getId() {
 		return "eval-twise-sampler";
@@ -75,6 +81,20 @@ public class TWiseSampler extends AlgorithmEvaluator<SolutionList, Algorithm<Sol
 		extendCSVWriter(getDataCSVWriter(), Arrays.asList("Size"));
 	}
 
+	@Override
+	public void evaluate() {
+		try {
+			super.evaluate();
+		} finally {
+			cancelPrefetcher();
+			try {
+				deleteDirectory(config.tempPath.resolve("prefetch"));
+			} catch (final IOException e) {
+				Logger.logError(e);
+			}
+		}
+	}
+
 	@Override
 	protected List<Algorithm<SolutionList>> prepareAlgorithms() {
 		final ArrayList<Algorithm<SolutionList>> algorithms = new ArrayList<>();
@@ -173,6 +193,8 @@ public class TWiseSampler extends AlgorithmEvaluator<SolutionList, Algorithm<Sol
 
 	@Override
 	protected CNF prepareModel() throws Exception {
+		cancelPrefetcher();
+		final int prefetchSystemIndex = systemIndex;
 		final String systemName = config.systemNames.get(systemIndex);
 
 		final ModelReader<Formula> fmReader = new ModelReader<>();
@@ -195,52 +217,146 @@ public class TWiseSampler extends AlgorithmEvaluator<SolutionList, Algorithm<Sol
 		final Path fileName = curSampleDir.resolve("model." + format.getFileExtension());
 		FileHandler.save(modelCNF, fileName, format);
 
+		final int prefetchDepth = prefetchDepthProperty.getValue();
+		if (prefetchDepth > 0) {
+			deleteDirectory(getPrefetchDir(prefetchSystemIndex));
+			prefetcher = new Prefetcher<>(iteration -> {
+				final Path dir = getPrefetchDir(prefetchSystemIndex).resolve(String.valueOf(iteration));
+				deleteDirectory(dir);
+				return prepareIteration(systemName, iteration, modelCNF, dir);
+			}, 1, config.systemIterations.getValue(), prefetchDepth);
+		}
+
 		return modelCNF;
 	}
 
 	@Override
-	protected CNF adaptModel() throws IOException {
-		final CNF randomCNF = modelCNF.randomize(new Random(config.randomSeed.getValue() + systemIteration));
+	protected CNF adaptModel() throws Exception {
+		final CNF randomCNF;
+		if (prefetcher != null) {
+			randomCNF = prefetcher.get(systemIteration);
+			publishPrefetchedFiles(getPrefetchDir(systemIndex).resolve(String.valueOf(systemIteration)));
+		} else {
+			deleteIterationFiles(config.tempPath);
+			randomCNF = prepareIteration(config.systemNames.get(systemIndex), systemIteration, modelCNF,
+				config.tempPath);
+		}
+
+		YASA_MIN_SIZE = Integer.MAX_VALUE;
+		YASA_MAX_SIZE = -1;
+		YASA_MIN_TIME = Long.MAX_VALUE;
+		YASA_MAX_TIME = -1;
+
+		return randomCNF;
+	}
+
+	/**
+	 * Writes the randomized model and the adapted expressions for one system
+	 * iteration to the given directory. Does not depend on the current state of
+	 * the evaluator, such that it can run in the background while an algorithm
+	 * is running. If the expressions for a grouping cannot be written, no file
+	 * is left for that grouping.
+	 */
+	private CNF prepareIteration(String systemName, int iteration, CNF cnf, Path dir) throws IOException {
+		Files.createDirectories(dir);
+		final CNF randomCNF = cnf.randomize(new Random(config.randomSeed.getValue() + iteration));
 		final DIMACSFormatCNF format = new DIMACSFormatCNF();
-		final Path fileName = config.tempPath.resolve("model" + "." + format.getFileExtension());
+		final Path fileName = dir.resolve("model" + "." + format.getFileExtension());
 		FileHandler.save(randomCNF, fileName, format);
 
 		for (final String groupingValue : grouping.getValue()) {
 			try {
-				saveExpressions(modelCNF, randomCNF, groupingValue);
+				saveExpressions(systemName, iteration, cnf, randomCNF, groupingValue, dir);
 			} catch (final Exception e) {
 				Logger.logError(e);
+				Files.deleteIfExists(dir.resolve("expressions_" + groupingValue + ".expression"));
 			}
 		}
-//		saveExpressions(modelCNF1, randomCNF1, GroupingProperty.FM_ONLY);
-//		saveExpressions(modelCNF1, randomCNF1, GroupingProperty.PC_ALL_FM);
-//		saveExpressions(modelCNF1, randomCNF1, GroupingProperty.PC_ALL_FM_FM);
-//		saveExpressions(modelCNF1, randomCNF1, GroupingProperty.PC_FOLDER_FM);
-//		saveExpressions(modelCNF1, randomCNF1, GroupingProperty.PC_FILE_FM);
-//		saveExpressions(modelCNF1, randomCNF1, GroupingProperty.PC_VARS_FM);
-//
-//		saveExpressions(modelCNF2, randomCNF2, GroupingProperty.PC_ALL);
-//		saveExpressions(modelCNF2, randomCNF2, GroupingProperty.PC_FOLDER);
-//		saveExpressions(modelCNF2, randomCNF2, GroupingProperty.PC_FILE);
-//		saveExpressions(modelCNF2, randomCNF2, GroupingProperty.PC_VARS);
+		return randomCNF;
+	}
 
-		YASA_MIN_SIZE = Integer.MAX_VALUE;
-		YASA_MAX_SIZE = -1;
-		YASA_MIN_TIME = Long.MAX_VALUE;
-		YASA_MAX_TIME = -1;
+	@Override
+	protected void cleanUpTempFiles() throws IOException {
+		deleteDirectory(config.tempPath.resolve("prefetch"));
+		if (Files.isDirectory(config.tempPath)) {
+			Files.deleteIfExists(config.tempPath.resolve("sample.csv"));
+			deleteIterationFiles(config.tempPath);
+		}
+	}
 
-		return randomCNF;
+	/**
+	 * Stops the prefetcher of the current system and waits until it does not
+	 * write any files anymore.
+	 */
+	private void cancelPrefetcher() {
+		if (prefetcher != null) {
+			prefetcher.cancel();
+			prefetcher = null;
+		}
+	}
+
+	private Path getPrefetchDir(int index) {
+		return config.tempPath.resolve("prefetch").resolve(String.valueOf(index));
 	}
 
-	private void saveExpressions(final CNF cnf, final CNF randomCNF, String group) throws IOException {
-		final Expressions readExpressions = readExpressions(config.systemNames.get(systemIndex), group);
+	private static void deleteDirectory(Path dir) throws IOException {
+		if (Files.isDirectory(dir)) {
+			final List<Path> files;
+			try (Stream<Path> fileStream = Files.walk(dir)) {
+				files = fileStream.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+			}
+			for (final Path file : files) {
+				Files.deleteIfExists(file);
+			}
+		}
+	}
+
+	/**
+	 * Deletes the randomized model and the expression files of a system
+	 * iteration from the given directory.
+	 */
+	private static void deleteIterationFiles(Path dir) throws IOException {
+		if (Files.isDirectory(dir)) {
+			try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, ITERATION_FILES)) {
+				for (final Path file : files) {
+					Files.deleteIfExists(file);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Moves completely written files of a prefetched iteration to the location
+	 * read by the algorithms. Files of the previous iteration are deleted
+	 * before, such that no outdated file remains if a file of this iteration
+	 * could not be written. Each file is replaced atomically, so an algorithm
+	 * never sees a partially written file.
+	 */
+	private void publishPrefetchedFiles(Path prefetchDir) throws IOException {
+		deleteIterationFiles(config.tempPath);
+		final List<Path> files = new ArrayList<>();
+		try (DirectoryStream<Path> fileStream = Files.newDirectoryStream(prefetchDir, ITERATION_FILES)) {
+			for (final Path file : fileStream) {
+				files.add(file);
+			}
+		}
+		for (final Path file : files) {
+			Files.move(file, config.tempPath.resolve(file.getFileName()), StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+		}
+		deleteDirectory(prefetchDir);
+	}
+
+	private void saveExpressions(String systemName, int iteration, final CNF cnf, final CNF randomCNF, String group,
+		Path dir) throws IOException {
+		final Expressions readExpressions = readExpressions(systemName, group);
 		if (readExpressions != null) {
 			final List<List<ClauseList>> expressionGroups = adaptConditions(cnf, randomCNF,
 				readExpressions.getExpressions());
-			randomizeConditions(expressionGroups, new Random(config.randomSeed.getValue() + systemIteration));
+			randomizeConditions(expressionGroups, new Random(config.randomSeed.getValue() + iteration));
 
 			final ExpressionGroupFormat format = new ExpressionGroupFormat();
-			final Path fileName = config.tempPath.resolve("expressions_" + group + "." + format.getFileExtension());
+			final Path fileName = dir.resolve("expressions_" + group + "." + format.getFileExtension());
 			FileHandler.save(expressionGroups, fileName, format);
 		}
 	}
@@ -304,34 +420,64 @@ public class TWiseSampler extends AlgorithmEvaluator<SolutionList, Algorithm<Sol
 	}
 
 	@Override
-	protected void writeData(CSVWriter dataCSVWriter) {
-		super.writeData(dataCSVWriter);
+	protected void processResult() {
 		final SolutionList configurationList = result.getResult();
-		if (configurationList == null) {
-			dataCSVWriter.addValue(-1);
-			return;
+		if (configurationList != null) {
+			writeSamples(getSampleName(), configurationList.getSolutions());
+
+			updateYASAStatistics(configurationList.getSolutions().size(), result.getTime());
+
+			Logger.logInfo("\t\tDone.");
 		}
-		dataCSVWriter.addValue(configurationList.getSolutions().size());
+	}
 
-		writeSamples(config.systemIDs.get(systemIndex) + "_" + systemIteration + "_" + algorithmIndex + "_"
-			+ algorithmIteration, configurationList.getSolutions());
+	@Override
+	protected void addDataValues(List<Object> row) {
+		super.addDataValues(row);
+		final SolutionList configurationList = result.getResult();
+		row.add(configurationList != null ? configurationList.getSolutions().size() : -1);
+	}
 
+	private void updateYASAStatistics(int size, long time) {
 		if (Objects.equals("YASA", algorithmList.get(algorithmIndex).getName())) {
-			if (YASA_MAX_SIZE < configurationList.getSolutions().size()) {
-				YASA_MAX_SIZE = configurationList.getSolutions().size();
+			if (YASA_MAX_SIZE < size) {
+				YASA_MAX_SIZE = size;
 			}
-			if (YASA_MIN_SIZE > configurationList.getSolutions().size()) {
-				YASA_MIN_SIZE = configurationList.getSolutions().size();
+			if (YASA_MIN_SIZE > size) {
+				YASA_MIN_SIZE = size;
 			}
-			if (YASA_MAX_TIME < result.getTime()) {
-				YASA_MAX_TIME = result.getTime();
+			if (YASA_MAX_TIME < time) {
+				YASA_MAX_TIME = time;
 			}
-			if (YASA_MIN_TIME > result.getTime()) {
-				YASA_MIN_TIME = result.getTime();
+			if (YASA_MIN_TIME > time) {
+				YASA_MIN_TIME = time;
 			}
 		}
+	}
+
+	private String getSampleName() {
+		return config.systemIDs.get(systemIndex) + "_" + systemIteration + "_" + algorithmIndex + "_"
+			+ algorithmIteration;
+	}
 
-		Logger.logInfo("\t\tDone.");
+	@Override
+	protected void writeCheckpoint(Map<String, String> values) {
+		super.writeCheckpoint(values);
+		final SolutionList configurationList = result.getResult();
+		values.put("Size", String.valueOf(configurationList != null ? configurationList.getSolutions().size() : -1));
+	}
+
+	@Override
+	protected void restoreCheckpoint(Map<String, String> values) {
+		final int size = Integer.parseInt(values.getOrDefault("Size", "-1"));
+		if (size >= 0) {
+			updateYASAStatistics(size, Long.parseLong(values.getOrDefault("Time", "-1")));
+		}
+	}
+
+	@Override
+	protected List<Path> getOutputFiles() {
+		return Arrays.asList(curSampleDir.resolve(getSampleName() + ".sample"));
 	}
 
 	@Override
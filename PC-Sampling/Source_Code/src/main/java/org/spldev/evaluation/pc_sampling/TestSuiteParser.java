@@ -25,6 +25,7 @@ package org.spldev.evaluation.pc_sampling;
 import java.io.*;
 import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.function.*;
 import java.util.regex.*;
 import java.util.stream.*;
@@ -80,9 +81,12 @@ public class TestSuiteParser {
 		final Path filePath = Paths.get("mutation_tests/" + systemName);
 
 		final FileFilter fileFilter = new FileFilter("testSuite_mutation_\\d+[.]txt");
-		final List<Formula> mutations = Files.walk(filePath) //
+		final List<Path> mutationFiles = Files.walk(filePath) //
 			.filter(fileFilter) // Filter mutation files
+			.sorted() // Fixed order of mutants
 			.peek(System.out::println) // Console output
+			.collect(Collectors.toList()); // To list
+		final List<Formula> mutations = mutationFiles.stream() //
 			.map(TestSuiteParser::extractNodes) // Extract test conditions
 			.collect(Collectors.toList()); // To list
 		mutations.forEach(System.out::println);
@@ -97,7 +101,46 @@ public class TestSuiteParser {
 			final String name = mode + "_" + t + "_" + systemName;
 			final ArrayList<String> features = getFeatures(name, sampleDir);
 			final List<List<String>> selectedFeatureList = getSamples(sampleDir, name, features);
+
+			final MutationCoverage mutationCoverage = new MutationCoverage(features);
+			final List<long[]> sample = selectedFeatureList.stream() //
+				.map(mutationCoverage::compileConfiguration) //
+				.collect(Collectors.toList());
+			final MutationCoverage.Result result;
+			try {
+				result = mutationCoverage.evaluate(mutations, sample, Runtime.getRuntime().availableProcessors());
+			} catch (InterruptedException | ExecutionException e) {
+				throw new IOException(e);
+			}
+			writeMatrices(sampleDir.resolve(name), mutationFiles, result);
+			System.out.println("Killed mutants: " + result.getNumberOfKilledMutants() + "/"
+				+ result.getNumberOfMutants());
+		}
+	}
+
+	private static void writeMatrices(Path outputPrefix, List<Path> mutationFiles, MutationCoverage.Result result)
+		throws IOException {
+		final List<String> killLines = new ArrayList<>();
+		final List<String> detectionLines = new ArrayList<>();
+		killLines.add("Mutant;Killed;Configurations");
+		detectionLines.add("Mutant;TestCase;Detected;Configurations");
+		for (int i = 0; i < result.getNumberOfMutants(); i++) {
+			final String mutant = mutationFiles.get(i).getFileName().toString();
+			final BitSet killingConfigurations = result.getKillingConfigurations(i);
+			killLines.add(mutant + ";" + !killingConfigurations.isEmpty() + ";" + toString(killingConfigurations));
+			final BitSet[] detectingConfigurations = result.getDetectingConfigurations(i);
+			for (int j = 0; j < detectingConfigurations.length; j++) {
+				detectionLines.add(mutant + ";" + j + ";" + !detectingConfigurations[j].isEmpty() + ";"
+					+ toString(detectingConfigurations[j]));
+			}
 		}
+		Files.write(outputPrefix.resolveSibling(outputPrefix.getFileName() + "_kill_matrix.csv"), killLines);
+		Files.write(outputPrefix.resolveSibling(outputPrefix.getFileName() + "_detection_matrix.csv"),
+			detectionLines);
+	}
+
+	private static String toString(BitSet configurations) {
+		return configurations.stream().mapToObj(String::valueOf).collect(Collectors.joining(","));
 	}
 
 	private static List<List<String>> getSamples(Path sampleDir, String name, final ArrayList<String> features)
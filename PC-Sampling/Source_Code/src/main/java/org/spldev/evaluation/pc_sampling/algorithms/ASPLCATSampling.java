@@ -79,28 +79,41 @@ public abstract class ASPLCATSampling extends Algorithm<org.spldev.formula.claus
 			return null;
 		}
 
-		final List<String> lines = Files.readAllLines(outputFile);
-		if (lines.isEmpty()) {
-			return null;
-		}
-
+		// The CA file contains one line per feature and one column per configuration
 		int numberOfConfigurations = 0;
-		final String header = lines.get(0);
-		final int length = header.length();
-		if (length > 1) {
-			final int lastSeparatorIndex = header.lastIndexOf(';', length - 2);
-			if (lastSeparatorIndex > -1) {
-				final String lastColumn = header.substring(lastSeparatorIndex + 1, length - 1);
-				numberOfConfigurations = Integer.parseInt(lastColumn) + 1;
+		final ArrayList<String> featureNames = new ArrayList<>();
+		final ArrayList<BitSet> selections = new ArrayList<>();
+		try (OutputTokenizer tokenizer = new OutputTokenizer(outputFile)) {
+			if (tokenizer.isEndOfFile()) {
+				return null;
+			}
+			tokenizer.skipCell(';');
+			while (!tokenizer.isLineEnd()) {
+				tokenizer.skipBlanks();
+				final int c = tokenizer.peek();
+				if ((c >= '0') && (c <= '9')) {
+					numberOfConfigurations = tokenizer.readInt() + 1;
+				}
+				tokenizer.skipCell(';');
 			}
-		}
 
-		final List<String> featureLines = lines.subList(1, lines.size());
-		final int numberOfFeatures = featureLines.size();
-		final ArrayList<String> featureNames = new ArrayList<>(numberOfFeatures);
-		for (final String line : featureLines) {
-			final String featureName = line.substring(0, line.indexOf(";"));
-			featureNames.add(featureName);
+			while (!tokenizer.isEndOfFile()) {
+				final String featureName = tokenizer.readCell(';');
+				if (featureName.trim().isEmpty()) {
+					// Blank line (e.g., "\r\n") or line without a feature name
+					tokenizer.skipLine();
+					continue;
+				}
+				featureNames.add(featureName);
+				final BitSet selection = new BitSet(numberOfConfigurations);
+				for (int i = 0; (i < numberOfConfigurations) && !tokenizer.isLineEnd(); i++) {
+					if (tokenizer.skipCell(';') == 'X') {
+						selection.set(i);
+					}
+				}
+				tokenizer.skipLine();
+				selections.add(selection);
+			}
 		}
 		final VariableMap variables = VariableMap.fromNames(featureNames);
 
@@ -109,14 +122,15 @@ public abstract class ASPLCATSampling extends Algorithm<org.spldev.formula.claus
 			configurationList.add(new int[variables.size()]);
 		}
 
-		for (final String line : featureLines) {
-			final String[] columns = line.split(";");
-			final int variable = variables.getIndex(columns[0]).get();
+		for (int i = 0; i < featureNames.size(); i++) {
+			final int variable = variables.getIndex(featureNames.get(i)).get();
 			final int variableIndex = variable - 1;
-			int columnIndex = 1;
+			final BitSet selection = selections.get(i);
+			int configurationIndex = 0;
 			for (final int[] configuration : configurationList) {
-				configuration[variableIndex] = "X".equals(columns[columnIndex++]) ? variable : -variable;
+				configuration[variableIndex] = selection.get(configurationIndex++) ? variable : -variable;
 			}
+			selections.set(i, null);
 		}
 
 		final ArrayList<LiteralList> configurationList2 = new ArrayList<>(numberOfConfigurations);
@@ -0,0 +1,180 @@
+/* -----------------------------------------------------------------------------
+ * Evaluation-PC-Sampling - Program for the evaluation of PC-Sampling.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Evaluation-PC-Sampling.
+ * 
+ * Evaluation-PC-Sampling is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Evaluation-PC-Sampling is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Evaluation-PC-Sampling.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/evaluation-pc-sampling> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.evaluation.pc_sampling.algorithms;
+
+import java.io.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+
+/**
+ * Incremental tokenizer for the output files of external sampling tools. Reads
+ * the file through a buffered channel and parses cells and numbers directly
+ * from the character buffer, such that the memory needed for parsing does not
+ * depend on the size of the file.
+ *
+ * @author Sebastian Krieter
+ */
+public class OutputTokenizer implements Closeable {
+
+	public static final int EOF = -1;
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final Reader reader;
+	private final char[] buffer = new char[BUFFER_SIZE];
+	private final StringBuilder token = new StringBuilder();
+
+	private int position = 0;
+	private int limit = 0;
+	private int lastTerminator = '\n';
+
+	public OutputTokenizer(Path file) throws IOException {
+		reader = Channels.newReader(FileChannel.open(file, StandardOpenOption.READ),
+			StandardCharsets.UTF_8.newDecoder(), BUFFER_SIZE);
+	}
+
+	public int peek() throws IOException {
+		if (position == limit) {
+			fill();
+		}
+		return position < limit ? buffer[position] : EOF;
+	}
+
+	public int read() throws IOException {
+		if (position == limit) {
+			fill();
+		}
+		return position < limit ? buffer[position++] : EOF;
+	}
+
+	private void fill() throws IOException {
+		position = 0;
+		limit = 0;
+		int count;
+		do {
+			count = reader.read(buffer, 0, buffer.length);
+		} while (count == 0);
+		limit = Math.max(count, 0);
+	}
+
+	/**
+	 * Skips spaces, tabs, and carriage returns, but not line breaks.
+	 */
+	public void skipBlanks() throws IOException {
+		for (int c = peek(); (c == ' ') || (c == '\t') || (c == '\r'); c = peek()) {
+			position++;
+		}
+	}
+
+	/**
+	 * Parses a (possibly negative) integer at the current position. Does not
+	 * consume the character following the number.
+	 */
+	public int readInt() throws IOException {
+		lastTerminator = 0;
+		skipBlanks();
+		boolean negative = false;
+		if (peek() == '-') {
+			negative = true;
+			position++;
+		}
+		int c = peek();
+		if ((c < '0') || (c > '9')) {
+			throw new IOException("Expected number, found " + (c == EOF ? "end of file" : "'" + (char) c + "'"));
+		}
+		long value = 0;
+		do {
+			value = (value * 10) + (c - '0');
+			if (value > (Integer.MAX_VALUE + 1L)) {
+				throw new IOException("Number too large");
+			}
+			position++;
+			c = peek();
+		} while ((c >= '0') && (c <= '9'));
+		return (int) (negative ? -value : value);
+	}
+
+	/**
+	 * Reads the content of the current cell up to the given delimiter or the
+	 * end of the line. The terminator is consumed.
+	 */
+	public String readCell(char delimiter) throws IOException {
+		token.setLength(0);
+		for (int c = read();; c = read()) {
+			if ((c == delimiter) || (c == '\n') || (c == EOF)) {
+				lastTerminator = c;
+				break;
+			} else if (c != '\r') {
+				token.append((char) c);
+			}
+		}
+		return token.toString();
+	}
+
+	/**
+	 * Skips the current cell up to the given delimiter or the end of the line.
+	 * The terminator is consumed.
+	 *
+	 * @return the first character of the cell or {@link #EOF} if the cell is
+	 *         empty
+	 */
+	public int skipCell(char delimiter) throws IOException {
+		int first = EOF;
+		for (int c = read();; c = read()) {
+			if ((c == delimiter) || (c == '\n') || (c == EOF)) {
+				lastTerminator = c;
+				break;
+			} else if ((first == EOF) && (c != '\r')) {
+				first = c;
+			}
+		}
+		return first;
+	}
+
+	/**
+	 * Skips the remainder of the current line, if its end was not consumed yet.
+	 */
+	public void skipLine() throws IOException {
+		if (!isLineEnd()) {
+			skipCell('\n');
+		}
+	}
+
+	/**
+	 * @return whether the last consumed terminator ended the current line
+	 */
+	public boolean isLineEnd() {
+		return (lastTerminator == '\n') || (lastTerminator == EOF);
+	}
+
+	public boolean isEndOfFile() throws IOException {
+		return peek() == EOF;
+	}
+
+	@Override
+	public void close() throws IOException {
+		reader.close();
+	}
+
+}
@@ -25,7 +25,6 @@ package org.spldev.evaluation.pc_sampling.algorithms;
 import java.io.*;
 import java.nio.file.*;
 import java.util.*;
-import java.util.regex.*;
 
 import org.spldev.evaluation.pc_sampling.*;
 import org.spldev.evaluation.process.*;
@@ -105,38 +104,67 @@ public abstract class PLEDGE extends Algorithm<org.spldev.formula.clauses.Soluti
 			return null;
 		}
 
-		final List<String> lines = Files.readAllLines(outputFile);
-		if (lines.isEmpty()) {
-			return null;
-		}
+		try (OutputTokenizer tokenizer = new OutputTokenizer(outputFile)) {
+			if (tokenizer.isEndOfFile()) {
+				return null;
+			}
 
-		final Pattern variableNamePattern = Pattern.compile("\\A\\d+->(.*)\\Z");
-
-		final ArrayList<String> featureNames = new ArrayList<>();
-		final ListIterator<String> it = lines.listIterator();
-		while (it.hasNext()) {
-			final String line = it.next().trim();
-			final Matcher matcher = variableNamePattern.matcher(line);
-			if (matcher.matches()) {
-				featureNames.add(matcher.group(1));
-			} else {
-				it.previous();
-				break;
+			// Header lines have the form "<index>-><name>"
+			final ArrayList<String> featureNames = new ArrayList<>();
+			boolean readFirstLiteral = false;
+			int firstLiteral = 0;
+			while (!tokenizer.isEndOfFile()) {
+				tokenizer.skipBlanks();
+				if (tokenizer.peek() == '\n') {
+					tokenizer.read();
+					continue;
+				}
+				final int number = tokenizer.readInt();
+				if (tokenizer.peek() == '-') {
+					tokenizer.read();
+					if (tokenizer.read() != '>') {
+						throw new IOException("Malformed feature line in " + outputFile);
+					}
+					featureNames.add(tokenizer.readCell('\n').trim());
+				} else {
+					firstLiteral = number;
+					readFirstLiteral = true;
+					break;
+				}
 			}
-		}
-		final VariableMap variables = VariableMap.fromNames(featureNames);
-
-		final ArrayList<LiteralList> configurationList = new ArrayList<>();
-		while (it.hasNext()) {
-			final String line = it.next().trim();
-			final int[] configurationArray = new int[variables.size()];
-			final String[] featureSelections = line.split(";");
-			for (int i = 0; i < configurationArray.length; i++) {
-				configurationArray[i] = Integer.parseInt(featureSelections[i]);
+			final VariableMap variables = VariableMap.fromNames(featureNames);
+			final int numberOfVariables = variables.size();
+
+			final ArrayList<LiteralList> configurationList = new ArrayList<>();
+			while (readFirstLiteral) {
+				final int[] configurationArray = new int[numberOfVariables];
+				if (numberOfVariables > 0) {
+					configurationArray[0] = firstLiteral;
+					for (int i = 1; i < numberOfVariables; i++) {
+						tokenizer.skipBlanks();
+						if (tokenizer.read() != ';') {
+							throw new IOException("Incomplete configuration in " + outputFile);
+						}
+						configurationArray[i] = tokenizer.readInt();
+					}
+				}
+				tokenizer.skipLine();
+				configurationList.add(new LiteralList(configurationArray, Order.INDEX));
+
+				readFirstLiteral = false;
+				while (!tokenizer.isEndOfFile()) {
+					tokenizer.skipBlanks();
+					if (tokenizer.peek() == '\n') {
+						tokenizer.read();
+					} else {
+						firstLiteral = tokenizer.readInt();
+						readFirstLiteral = true;
+						break;
+					}
+				}
 			}
-			configurationList.add(new LiteralList(configurationArray, Order.INDEX));
+			return new SolutionList(variables, configurationList);
 		}
-		return new SolutionList(variables, configurationList);
 	}
 
 	@Override
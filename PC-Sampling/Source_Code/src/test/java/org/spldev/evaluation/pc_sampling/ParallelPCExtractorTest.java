@@ -0,0 +1,137 @@
+/* -----------------------------------------------------------------------------
+ * Evaluation-PC-Sampling - Program for the evaluation of PC-Sampling.
+ * Copyright (C) 2021  Sebastian Krieter
+ * 
+ * This file is part of Evaluation-PC-Sampling.
+ * 
+ * Evaluation-PC-Sampling is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * Evaluation-PC-Sampling is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Evaluation-PC-Sampling.  If not, see <https://www.gnu.org/licenses/>.
+ * 
+ * See <https://github.com/skrieter/evaluation-pc-sampling> for further information.
+ * -----------------------------------------------------------------------------
+ */
+package org.spldev.evaluation.pc_sampling;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.*;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.*;
+import org.spldev.pc_extraction.extraction.cpp.*;
+
+public class ParallelPCExtractorTest {
+
+	@TempDir
+	Path tempDir;
+
+	private Path createSystem() throws IOException {
+		final Path system = tempDir.resolve("system");
+		write(system.resolve("include/config.h"), //
+			"#ifndef CONFIG_H", //
+			"#define CONFIG_H", //
+			"#ifdef A", //
+			"#define HAS_B", //
+			"#endif", //
+			"#endif");
+		write(system.resolve("include/util.h"), //
+			"#include \"config.h\"", //
+			"#ifdef HAS_B", //
+			"int b(void);", //
+			"#endif");
+		write(system.resolve("src/main.c"), //
+			"#include <util.h>", //
+			"int main(void) {", //
+			"#if defined(HAS_B) && defined(C)", //
+			"  return b();", //
+			"#else", //
+			"  return 0;", //
+			"#endif", //
+			"}");
+		write(system.resolve("src/other.c"), //
+			"#include \"../include/config.h\"", //
+			"#ifndef A", //
+			"int other;", //
+			"#endif");
+		write(system.resolve("src/plain.c"), //
+			"#ifdef E", //
+			"int e;", //
+			"#endif");
+		return system;
+	}
+
+	private static void write(Path file, String... lines) throws IOException {
+		Files.createDirectories(file.getParent());
+		Files.write(file, Arrays.asList(lines), StandardCharsets.UTF_8);
+	}
+
+	private static Map<String, List<String>> readOutput(Path dir) throws IOException {
+		final Map<String, List<String>> output = new TreeMap<>();
+		try (Stream<Path> fileStream = Files.walk(dir)) {
+			for (final Path file : fileStream.filter(Files::isRegularFile).collect(Collectors.toList())) {
+				output.put(dir.relativize(file).toString(), Files.readAllLines(file, StandardCharsets.ISO_8859_1));
+			}
+		}
+		return output;
+	}
+
+	@Test
+	public void sameOutputAsSequentialExtraction() throws Exception {
+		final Path system = createSystem();
+		final Path sequentialOutput = tempDir.resolve("sequential");
+		final Path parallelOutput = tempDir.resolve("parallel");
+		Files.createDirectories(sequentialOutput);
+		Files.createDirectories(parallelOutput);
+
+		assertTrue(new CPPExtractor().extract(system, sequentialOutput));
+		final ParallelPCExtractor extractor = new ParallelPCExtractor(2, tempDir.resolve("cache"));
+		assertTrue(extractor.extract(system, parallelOutput));
+		assertEquals(5, extractor.getNumberOfFiles());
+		assertEquals(0, extractor.getNumberOfCachedFiles());
+		assertEquals(readOutput(sequentialOutput), readOutput(parallelOutput));
+
+		// A second run uses the cache and does not duplicate any output
+		assertTrue(extractor.extract(system, parallelOutput));
+		assertEquals(5, extractor.getNumberOfCachedFiles());
+		assertEquals(readOutput(sequentialOutput), readOutput(parallelOutput));
+	}
+
+	@Test
+	public void headerChangeInvalidatesIncludingFiles() throws Exception {
+		final Path system = createSystem();
+		final Path parallelOutput = tempDir.resolve("parallel");
+		final ParallelPCExtractor extractor = new ParallelPCExtractor(2, tempDir.resolve("cache"));
+		assertTrue(extractor.extract(system, parallelOutput));
+
+		write(system.resolve("include/config.h"), //
+			"#ifndef CONFIG_H", //
+			"#define CONFIG_H", //
+			"#if defined(A) || defined(D)", //
+			"#define HAS_B", //
+			"#endif", //
+			"#endif");
+		assertTrue(extractor.extract(system, parallelOutput));
+		// Only plain.c does not include config.h (transitively)
+		assertEquals(1, extractor.getNumberOfCachedFiles());
+
+		final Path sequentialOutput = tempDir.resolve("sequential");
+		Files.createDirectories(sequentialOutput);
+		assertTrue(new CPPExtractor().extract(system, sequentialOutput));
+		assertEquals(readOutput(sequentialOutput), readOutput(parallelOutput));
+	}
+
+}
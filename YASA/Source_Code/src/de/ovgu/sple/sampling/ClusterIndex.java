@@ -0,0 +1,261 @@
+package de.ovgu.sple.sampling;
+
+import java.util.Arrays;
+import java.util.List;
+
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet;
+import de.ovgu.featureide.fm.core.analysis.mig.ModalImplicationGraph;
+import de.ovgu.featureide.fm.core.analysis.mig.Vertex;
+
+/**
+ * Groups the literals and variables of a {@link ModalImplicationGraph}.
+ * <p>
+ * A <i>cluster</i> is a set of mutually connected literals, i.e., a strongly
+ * connected component of the graph in which each literal points to its strong
+ * edges and to the other literals of its complex clauses. A <i>component</i> is
+ * a set of variables that are (transitively) connected by any edge. Variables
+ * of different components do not constrain each other, so each component is
+ * an independent interaction neighborhood.
+ * <p>
+ * All structures are computed once on primitive arrays. Literals are indexed
+ * like in {@link ModalImplicationGraph#getVertex(int)}.
+ */
+public class ClusterIndex {
+
+	private final int numberOfVariables;
+
+	private final int[] clusterOfLiteral;
+	private final int[] clusterStart;
+	private final int[] clusterLiterals;
+
+	private final int[] componentOfVariable;
+	private final int[] componentStart;
+	private final int[] componentVariables;
+
+	public ClusterIndex(ModalImplicationGraph mig) {
+		final List<Vertex> adjList = mig.getAdjList();
+		numberOfVariables = adjList.size() >> 1;
+		final int numberOfLiterals = numberOfVariables << 1;
+
+		// Build the literal graph in compressed sparse row format
+		final int[] edgeStart = new int[numberOfLiterals + 1];
+		final List<LiteralSet> complexClauses = mig.getComplexClauses();
+		for (int i = 0; i < numberOfLiterals; i++) {
+			final Vertex vertex = adjList.get(i);
+			int degree = vertex.getStrongEdges().length;
+			for (final int complexClauseId : vertex.getComplexClauses()) {
+				degree += complexClauses.get(complexClauseId).size() - 1;
+			}
+			edgeStart[i + 1] = edgeStart[i] + degree;
+		}
+		final int[] edges = new int[edgeStart[numberOfLiterals]];
+		for (int i = 0; i < numberOfLiterals; i++) {
+			final Vertex vertex = adjList.get(i);
+			final int negatedLiteral = -vertex.getVar();
+			int edgeIndex = edgeStart[i];
+			for (final int strongEdge : vertex.getStrongEdges()) {
+				edges[edgeIndex++] = getLiteralIndex(strongEdge);
+			}
+			for (final int complexClauseId : vertex.getComplexClauses()) {
+				for (final int literal : complexClauses.get(complexClauseId).getLiterals()) {
+					if (literal != negatedLiteral) {
+						edges[edgeIndex++] = getLiteralIndex(literal);
+					}
+				}
+			}
+		}
+
+		clusterOfLiteral = new int[numberOfLiterals];
+		final int clusterCount = computeStronglyConnectedComponents(edgeStart, edges, clusterOfLiteral);
+		clusterStart = new int[clusterCount + 1];
+		clusterLiterals = new int[numberOfLiterals];
+		group(clusterOfLiteral, clusterStart, clusterLiterals);
+
+		componentOfVariable = new int[numberOfVariables];
+		final int componentCount = computeConnectedComponents(edgeStart, edges, componentOfVariable);
+		componentStart = new int[componentCount + 1];
+		componentVariables = new int[numberOfVariables];
+		group(componentOfVariable, componentStart, componentVariables);
+	}
+
+	private static int getLiteralIndex(int literal) {
+		return ((Math.abs(literal) - 1) << 1) + (literal < 0 ? 0 : 1);
+	}
+
+	private static int getLiteral(int literalIndex) {
+		final int variable = (literalIndex >> 1) + 1;
+		return (literalIndex & 1) == 0 ? -variable : variable;
+	}
+
+	/**
+	 * Iterative version of Tarjan's algorithm.
+	 *
+	 * @return the number of strongly connected components
+	 */
+	private static int computeStronglyConnectedComponents(int[] edgeStart, int[] edges, int[] componentOf) {
+		final int nodeCount = componentOf.length;
+		final int[] index = new int[nodeCount];
+		final int[] lowLink = new int[nodeCount];
+		final int[] nextEdge = new int[nodeCount];
+		final int[] callStack = new int[nodeCount];
+		final int[] componentStack = new int[nodeCount];
+		final boolean[] onStack = new boolean[nodeCount];
+		Arrays.fill(index, -1);
+
+		int nextIndex = 0;
+		int componentCount = 0;
+		for (int root = 0; root < nodeCount; root++) {
+			if (index[root] >= 0) {
+				continue;
+			}
+			int callStackSize = 0;
+			int componentStackSize = 0;
+			callStack[callStackSize++] = root;
+			index[root] = lowLink[root] = nextIndex++;
+			nextEdge[root] = edgeStart[root];
+			componentStack[componentStackSize++] = root;
+			onStack[root] = true;
+
+			while (callStackSize > 0) {
+				final int node = callStack[callStackSize - 1];
+				if (nextEdge[node] < edgeStart[node + 1]) {
+					final int successor = edges[nextEdge[node]++];
+					if (index[successor] < 0) {
+						index[successor] = lowLink[successor] = nextIndex++;
+						nextEdge[successor] = edgeStart[successor];
+						componentStack[componentStackSize++] = successor;
+						onStack[successor] = true;
+						callStack[callStackSize++] = successor;
+					} else if (onStack[successor]) {
+						lowLink[node] = Math.min(lowLink[node], index[successor]);
+					}
+				} else {
+					callStackSize--;
+					if (callStackSize > 0) {
+						final int parent = callStack[callStackSize - 1];
+						lowLink[parent] = Math.min(lowLink[parent], lowLink[node]);
+					}
+					if (lowLink[node] == index[node]) {
+						int member;
+						do {
+							member = componentStack[--componentStackSize];
+							onStack[member] = false;
+							componentOf[member] = componentCount;
+						} while (member != node);
+						componentCount++;
+					}
+				}
+			}
+		}
+		return componentCount;
+	}
+
+	/**
+	 * Union-find over the variables of all edges.
+	 *
+	 * @return the number of connected components
+	 */
+	private static int computeConnectedComponents(int[] edgeStart, int[] edges, int[] componentOf) {
+		final int[] parent = new int[componentOf.length];
+		for (int i = 0; i < parent.length; i++) {
+			parent[i] = i;
+		}
+		for (int literalIndex = 0; literalIndex < (edgeStart.length - 1); literalIndex++) {
+			for (int i = edgeStart[literalIndex]; i < edgeStart[literalIndex + 1]; i++) {
+				final int root1 = find(parent, literalIndex >> 1);
+				final int root2 = find(parent, edges[i] >> 1);
+				if (root1 != root2) {
+					parent[Math.max(root1, root2)] = Math.min(root1, root2);
+				}
+			}
+		}
+		int componentCount = 0;
+		for (int i = 0; i < parent.length; i++) {
+			final int root = find(parent, i);
+			componentOf[i] = root == i ? componentCount++ : componentOf[root];
+		}
+		return componentCount;
+	}
+
+	private static int find(int[] parent, int element) {
+		while (parent[element] != element) {
+			parent[element] = parent[parent[element]];
+			element = parent[element];
+		}
+		return element;
+	}
+
+	/**
+	 * Counting sort of all elements by their group.
+	 */
+	private static void group(int[] groupOf, int[] groupStart, int[] groupElements) {
+		for (final int group : groupOf) {
+			groupStart[group + 1]++;
+		}
+		for (int i = 1; i < groupStart.length; i++) {
+			groupStart[i] += groupStart[i - 1];
+		}
+		final int[] position = Arrays.copyOf(groupStart, groupStart.length - 1);
+		for (int i = 0; i < groupOf.length; i++) {
+			groupElements[position[groupOf[i]]++] = i;
+		}
+	}
+
+	public int getNumberOfVariables() {
+		return numberOfVariables;
+	}
+
+	public int getClusterCount() {
+		return clusterStart.length - 1;
+	}
+
+	public int getCluster(int literal) {
+		return clusterOfLiteral[getLiteralIndex(literal)];
+	}
+
+	public int getClusterSize(int cluster) {
+		return clusterStart[cluster + 1] - clusterStart[cluster];
+	}
+
+	public LiteralSet getClusterLiterals(int cluster) {
+		final int[] literals = new int[getClusterSize(cluster)];
+		for (int i = 0; i < literals.length; i++) {
+			literals[i] = getLiteral(clusterLiterals[clusterStart[cluster] + i]);
+		}
+		return new LiteralSet(literals);
+	}
+
+	/**
+	 * @param literal the literal
+	 * @return all literals that are mutually connected with the given literal
+	 *         (including the literal itself)
+	 */
+	public LiteralSet getMutuallyConnectedLiterals(int literal) {
+		return getClusterLiterals(getCluster(literal));
+	}
+
+	public int getComponentCount() {
+		return componentStart.length - 1;
+	}
+
+	public int getComponent(int variable) {
+		return componentOfVariable[variable - 1];
+	}
+
+	public int getComponentSize(int component) {
+		return componentStart[component + 1] - componentStart[component];
+	}
+
+	/**
+	 * @param component the component
+	 * @return the positive literals of all variables in the component
+	 */
+	public LiteralSet getComponentVariables(int component) {
+		final int[] variables = new int[getComponentSize(component)];
+		for (int i = 0; i < variables.length; i++) {
+			variables[i] = componentVariables[componentStart[component] + i] + 1;
+		}
+		return new LiteralSet(variables);
+	}
+
+}
@@ -0,0 +1,123 @@
+package de.ovgu.sple.sampling;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.function.Function;
+
+import de.ovgu.featureide.fm.core.analysis.cnf.CNF;
+import de.ovgu.featureide.fm.core.analysis.cnf.ClauseList;
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet;
+import de.ovgu.featureide.fm.core.analysis.cnf.generator.configuration.twise.TWiseCombiner;
+import de.ovgu.featureide.fm.core.analysis.cnf.generator.configuration.twise.TWiseConfigurationTester;
+import de.ovgu.featureide.fm.core.analysis.cnf.solver.AdvancedSatSolver;
+
+/**
+ * Creates a t-wise sample for a new version of a model by reusing the sample
+ * of the previous version.
+ * <p>
+ * The previous configurations are mapped onto the variables of the new
+ * version (new variables are deselected). Configurations that became invalid
+ * are repaired by searching for a valid configuration that preferably keeps
+ * the old selection of each variable. Afterwards, only the interactions that
+ * are not covered by the reused configurations are passed to the generator.
+ */
+public class IncrementalSampler {
+
+	private final CNF cnf;
+	private final List<List<ClauseList>> expressions;
+	private final int t;
+
+	private int reusedCount, repairedCount, droppedCount, generatedCount, uncoveredCount;
+
+	public IncrementalSampler(CNF cnf, List<List<ClauseList>> expressions, int t) {
+		this.cnf = cnf;
+		this.expressions = expressions;
+		this.t = t;
+	}
+
+	/**
+	 * @param previousSample the sample of the previous version
+	 * @param generator      creates configurations that cover all expressions
+	 *                       of a given list of groups with t = 1
+	 * @return the sample for the new version
+	 */
+	public List<LiteralSet> sample(SampleArchive previousSample,
+			Function<List<List<ClauseList>>, List<LiteralSet>> generator) {
+		final LinkedHashSet<LiteralSet> sample = new LinkedHashSet<>();
+		final AdvancedSatSolver solver = cnf.getClauses().isEmpty() ? null : new AdvancedSatSolver(cnf);
+		reusedCount = repairedCount = droppedCount = 0;
+		for (final LiteralSet configuration : previousSample.getConfigurations(cnf.getVariables())) {
+			if (isValid(configuration)) {
+				if (sample.add(configuration)) {
+					reusedCount++;
+				}
+			} else {
+				final LiteralSet repairedConfiguration = repair(solver, configuration);
+				if ((repairedConfiguration != null) && sample.add(repairedConfiguration)) {
+					repairedCount++;
+				} else {
+					droppedCount++;
+				}
+			}
+		}
+
+		final TWiseConfigurationTester tester = new TWiseConfigurationTester(cnf);
+		tester.setNodes(expressions);
+		tester.setT(t);
+		tester.setSample(new ArrayList<>(sample));
+		final List<ClauseList> uncoveredConditions = tester.getUncoveredConditions();
+		uncoveredCount = uncoveredConditions.size();
+
+		final List<LiteralSet> result = new ArrayList<>(sample);
+		generatedCount = 0;
+		if (!uncoveredConditions.isEmpty()) {
+			final List<LiteralSet> generatedConfigurations = generator
+					.apply(TWiseCombiner.convertExpressions(uncoveredConditions));
+			generatedCount = generatedConfigurations.size();
+			result.addAll(generatedConfigurations);
+		}
+		return result;
+	}
+
+	private boolean isValid(LiteralSet configuration) {
+		for (final LiteralSet clause : cnf.getClauses()) {
+			if (!configuration.hasDuplicates(clause)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private LiteralSet repair(AdvancedSatSolver solver, LiteralSet configuration) {
+		if (solver == null) {
+			return configuration;
+		}
+		// The fixed selection strategy prefers the opposite of the given model
+		final int[] oppositeLiterals = configuration.negate().getLiterals();
+		solver.setSelectionStrategy(oppositeLiterals, false);
+		final int[] solution = solver.findSolution();
+		return solution != null ? new LiteralSet(solution, LiteralSet.Order.INDEX, false) : null;
+	}
+
+	public int getReusedCount() {
+		return reusedCount;
+	}
+
+	public int getRepairedCount() {
+		return repairedCount;
+	}
+
+	public int getDroppedCount() {
+		return droppedCount;
+	}
+
+	public int getGeneratedCount() {
+		return generatedCount;
+	}
+
+	public int getUncoveredCount() {
+		return uncoveredCount;
+	}
+
+}
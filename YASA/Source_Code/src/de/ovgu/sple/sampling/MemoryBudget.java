@@ -0,0 +1,51 @@
+package de.ovgu.sple.sampling;
+
+/**
+ * Bounds the estimated heap usage of concurrently running tasks.
+ * <p>
+ * Each task reserves its estimated memory before it starts and releases it
+ * when it is finished. If a reservation exceeds the remaining budget, the
+ * task waits until enough memory has been released. A task whose estimate
+ * exceeds the whole budget is run alone.
+ */
+public class MemoryBudget {
+
+	private final long capacity;
+	private long available;
+
+	public MemoryBudget(long capacity) {
+		this.capacity = capacity;
+		this.available = capacity;
+	}
+
+	/**
+	 * Reserves memory and blocks until it is available.
+	 *
+	 * @param bytes the estimated memory usage in bytes
+	 * @return the actually reserved number of bytes, which must be passed to
+	 *         {@link #release(long)}
+	 * @throws InterruptedException if the thread is interrupted while waiting
+	 */
+	public synchronized long acquire(long bytes) throws InterruptedException {
+		final long reservation = Math.min(Math.max(bytes, 0), capacity);
+		while (available < reservation) {
+			wait();
+		}
+		available -= reservation;
+		return reservation;
+	}
+
+	public synchronized void release(long reservation) {
+		available += reservation;
+		notifyAll();
+	}
+
+	public long getCapacity() {
+		return capacity;
+	}
+
+	public synchronized long getAvailable() {
+		return available;
+	}
+
+}
@@ -0,0 +1,299 @@
+package de.ovgu.sple.sampling;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+/**
+ * Records the memory and garbage collection statistics of the phases of a
+ * sampling run.
+ * <p>
+ * For each phase, the peak heap usage, the allocated bytes, and the number and
+ * duration of garbage collections are recorded. The peak heap usage is the
+ * maximum of the total used heap, which is sampled periodically and whenever
+ * a heap pool exceeds its usage threshold. The thresholds are raised each time
+ * they are exceeded, such that the growth of the heap is tracked between two
+ * samples.
+ * <p>
+ * Heap usage and garbage collections are measured for the whole JVM, so they
+ * are only recorded in exclusive mode, i.e., if a single model is processed at
+ * a time. In exclusive mode, the allocated bytes of all threads are counted,
+ * otherwise only the ones of the thread that runs the phase. Values that are
+ * not recorded or not supported by the JVM are reported as -1.
+ */
+public class MemoryStatistics {
+
+	private static final String[] COLUMNS = { "Peak Heap", "Allocated", "GC Count", "GC Time" };
+
+	private static final long SAMPLE_INTERVAL = 10;
+	private static final long MIN_THRESHOLD_STEP = 1 << 20;
+
+	private final boolean exclusive;
+	private final Map<String, long[]> phases = new LinkedHashMap<>();
+	private final Map<Long, Long> startAllocated = new HashMap<>();
+	private final Map<Long, Long> lastAllocated = new HashMap<>();
+	private final AtomicLong peakHeap = new AtomicLong();
+	private final NotificationListener thresholdListener = this::handleNotification;
+
+	private String currentPhase;
+	private long startGCCount, startGCTime;
+	private Thread sampler;
+
+	/**
+	 * Creates statistics in exclusive mode.
+	 */
+	public MemoryStatistics() {
+		this(true);
+	}
+
+	/**
+	 * @param exclusive whether no other model is processed at the same time
+	 */
+	public MemoryStatistics(boolean exclusive) {
+		this.exclusive = exclusive;
+	}
+
+	public static List<String> getHeader(String... phaseNames) {
+		final List<String> header = new ArrayList<>(phaseNames.length * COLUMNS.length);
+		for (final String phaseName : phaseNames) {
+			for (final String column : COLUMNS) {
+				header.add(phaseName + " " + column);
+			}
+		}
+		return header;
+	}
+
+	/**
+	 * Starts a new phase and stops the current phase, if any.
+	 *
+	 * @param phaseName the name of the phase
+	 */
+	public void start(String phaseName) {
+		stop();
+		currentPhase = phaseName;
+		startAllocated.clear();
+		recordAllocatedBytes(startAllocated);
+		synchronized (lastAllocated) {
+			lastAllocated.clear();
+			lastAllocated.putAll(startAllocated);
+		}
+		if (exclusive) {
+			peakHeap.set(getUsedHeap());
+			startGCCount = getGCCount();
+			startGCTime = getGCTime();
+			startThresholds();
+			sampler = new Thread(this::sample, "memory-statistics");
+			sampler.setDaemon(true);
+			sampler.start();
+		}
+	}
+
+	public void stop() {
+		if (currentPhase != null) {
+			long peak = -1;
+			long gcCount = -1;
+			long gcTime = -1;
+			if (exclusive) {
+				stopSampler();
+				stopThresholds();
+				updatePeakHeap();
+				peak = peakHeap.get();
+				gcCount = getGCCount() - startGCCount;
+				gcTime = getGCTime() - startGCTime;
+			}
+			phases.put(currentPhase, new long[] { peak, getAllocatedBytes(), gcCount, gcTime });
+			currentPhase = null;
+		}
+	}
+
+	/**
+	 * Returns the recorded values in the order of the given phases. Heap sizes
+	 * are given in KiB and times in ms.
+	 *
+	 * @param phaseNames the names of the phases
+	 * @return the values as strings
+	 */
+	public List<String> getValues(String... phaseNames) {
+		final List<String> values = new ArrayList<>(phaseNames.length * COLUMNS.length);
+		for (final String phaseName : phaseNames) {
+			final long[] phase = phases.get(phaseName);
+			if (phase == null) {
+				values.addAll(Arrays.asList("-1", "-1", "-1", "-1"));
+			} else {
+				values.add(Long.toString(phase[0] >= 0 ? phase[0] >> 10 : -1));
+				values.add(Long.toString(phase[1] >= 0 ? phase[1] >> 10 : -1));
+				values.add(Long.toString(phase[2]));
+				values.add(Long.toString(phase[3]));
+			}
+		}
+		return values;
+	}
+
+	private void sample() {
+		while (!Thread.currentThread().isInterrupted()) {
+			updatePeakHeap();
+			synchronized (lastAllocated) {
+				recordAllocatedBytes(lastAllocated);
+			}
+			try {
+				Thread.sleep(SAMPLE_INTERVAL);
+			} catch (final InterruptedException e) {
+				break;
+			}
+		}
+	}
+
+	private void stopSampler() {
+		if (sampler != null) {
+			sampler.interrupt();
+			try {
+				sampler.join();
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			sampler = null;
+		}
+	}
+
+	private void updatePeakHeap() {
+		final long usedHeap = getUsedHeap();
+		peakHeap.accumulateAndGet(usedHeap, Math::max);
+	}
+
+	private void startThresholds() {
+		final MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+		if (memoryBean instanceof NotificationEmitter) {
+			((NotificationEmitter) memoryBean).addNotificationListener(thresholdListener, null, null);
+		}
+		for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if ((pool.getType() == MemoryType.HEAP) && pool.isUsageThresholdSupported()) {
+				raiseThreshold(pool);
+			}
+		}
+	}
+
+	private void stopThresholds() {
+		for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if ((pool.getType() == MemoryType.HEAP) && pool.isUsageThresholdSupported()) {
+				pool.setUsageThreshold(0);
+			}
+		}
+		final MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+		if (memoryBean instanceof NotificationEmitter) {
+			try {
+				((NotificationEmitter) memoryBean).removeNotificationListener(thresholdListener);
+			} catch (final ListenerNotFoundException e) {
+				// Already removed
+			}
+		}
+	}
+
+	/**
+	 * Sets the usage threshold of a pool above its current usage. The step is
+	 * 1/64 of the maximum size of the pool, but at least 1 MiB.
+	 */
+	private static void raiseThreshold(MemoryPoolMXBean pool) {
+		final MemoryUsage usage = pool.getUsage();
+		final long max = usage.getMax();
+		final long step = Math.max(MIN_THRESHOLD_STEP, (max > 0 ? max : usage.getCommitted()) >> 6);
+		final long threshold = usage.getUsed() + step;
+		pool.setUsageThreshold(max > 0 ? Math.min(threshold, max) : threshold);
+	}
+
+	private void handleNotification(Notification notification, Object handback) {
+		if (MemoryNotificationInfo.MEMORY_THRESHOLD_EXCEEDED.equals(notification.getType())) {
+			updatePeakHeap();
+			final String poolName = MemoryNotificationInfo
+					.from((CompositeData) notification.getUserData()).getPoolName();
+			for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+				if (pool.getName().equals(poolName) && pool.isUsageThresholdSupported()) {
+					raiseThreshold(pool);
+				}
+			}
+		}
+	}
+
+	private static long getUsedHeap() {
+		return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+	}
+
+	/**
+	 * Records the allocated bytes of all threads in exclusive mode or of the
+	 * current thread otherwise. Threads that terminated keep their last
+	 * recorded value.
+	 */
+	private void recordAllocatedBytes(Map<Long, Long> allocated) {
+		final com.sun.management.ThreadMXBean threadBean = getAllocationBean();
+		if (threadBean != null) {
+			final long[] ids = exclusive ? threadBean.getAllThreadIds()
+					: new long[] { Thread.currentThread().getId() };
+			final long[] bytes = threadBean.getThreadAllocatedBytes(ids);
+			for (int i = 0; i < ids.length; i++) {
+				if (bytes[i] >= 0) {
+					allocated.put(ids[i], bytes[i]);
+				}
+			}
+		}
+	}
+
+	private long getAllocatedBytes() {
+		if (getAllocationBean() == null) {
+			return -1;
+		}
+		synchronized (lastAllocated) {
+			recordAllocatedBytes(lastAllocated);
+			long allocated = 0;
+			for (final Map.Entry<Long, Long> thread : lastAllocated.entrySet()) {
+				final Long start = startAllocated.get(thread.getKey());
+				allocated += thread.getValue() - (start != null ? start : 0);
+			}
+			return allocated;
+		}
+	}
+
+	private static com.sun.management.ThreadMXBean getAllocationBean() {
+		final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+		if (threadBean instanceof com.sun.management.ThreadMXBean) {
+			final com.sun.management.ThreadMXBean sunThreadBean = (com.sun.management.ThreadMXBean) threadBean;
+			if (sunThreadBean.isThreadAllocatedMemorySupported() && sunThreadBean.isThreadAllocatedMemoryEnabled()) {
+				return sunThreadBean;
+			}
+		}
+		return null;
+	}
+
+	private static long getGCCount() {
+		long count = 0;
+		for (final GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			count += Math.max(gc.getCollectionCount(), 0);
+		}
+		return count;
+	}
+
+	private static long getGCTime() {
+		long time = 0;
+		for (final GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			time += Math.max(gc.getCollectionTime(), 0);
+		}
+		return time;
+	}
+
+}
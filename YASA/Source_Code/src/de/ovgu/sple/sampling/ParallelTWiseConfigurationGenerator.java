@@ -0,0 +1,359 @@
+package de.ovgu.sple.sampling;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.ovgu.featureide.fm.core.analysis.cnf.CNF;
+import de.ovgu.featureide.fm.core.analysis.cnf.ClauseList;
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet;
+import de.ovgu.featureide.fm.core.analysis.cnf.generator.configuration.twise.PresenceCondition;
+import de.ovgu.featureide.fm.core.analysis.cnf.generator.configuration.twise.PresenceConditionManager;
+import de.ovgu.featureide.fm.core.analysis.cnf.generator.configuration.twise.TWiseCombiner;
+import de.ovgu.featureide.fm.core.analysis.cnf.generator.configuration.twise.TWiseConfiguration;
+import de.ovgu.featureide.fm.core.analysis.cnf.generator.configuration.twise.TWiseConfigurationGenerator;
+import de.ovgu.featureide.fm.core.analysis.cnf.generator.configuration.twise.TWiseConfigurationUtil;
+import de.ovgu.featureide.fm.core.analysis.cnf.generator.configuration.twise.iterator.ICombinationSupplier;
+import de.ovgu.featureide.fm.core.analysis.cnf.generator.configuration.twise.iterator.MergeIterator3;
+import de.ovgu.featureide.fm.core.analysis.cnf.generator.configuration.twise.iterator.SingleIterator;
+import de.ovgu.featureide.fm.core.analysis.cnf.generator.configuration.twise.test.CoverageStatistic;
+import de.ovgu.featureide.fm.core.analysis.cnf.generator.configuration.twise.test.TWiseStatisticFastGenerator;
+import de.ovgu.featureide.fm.core.analysis.cnf.generator.configuration.util.Pair;
+import de.ovgu.featureide.fm.core.analysis.cnf.solver.AdvancedSatSolver;
+import de.ovgu.featureide.fm.core.analysis.cnf.solver.ISatSolver;
+import de.ovgu.featureide.fm.core.analysis.cnf.solver.ISatSolver.SelectionStrategy;
+import de.ovgu.featureide.fm.core.analysis.cnf.solver.ISimpleSatSolver.SatResult;
+import de.ovgu.featureide.fm.core.job.monitor.IMonitor;
+import de.ovgu.featureide.fm.core.job.monitor.MonitorThread;
+
+/**
+ * A {@link TWiseConfigurationGenerator} that checks the candidate
+ * configurations of an interaction on multiple threads.
+ * <p>
+ * Each thread owns a copy of the solver. Candidates are claimed in the order
+ * of the candidate list and the interaction is added to the first candidate
+ * that can be completed, just like in the sequential generator. The solver of
+ * the generator itself is never used for these checks, so its state (and thus
+ * the sample) does not depend on the number of threads or their timing.
+ */
+public class ParallelTWiseConfigurationGenerator extends TWiseConfigurationGenerator {
+
+	private class ParallelConfigurationUtil extends TWiseConfigurationUtil {
+
+		public ParallelConfigurationUtil(CNF cnf, ISatSolver localSolver) {
+			super(cnf, localSolver);
+		}
+
+		@Override
+		protected boolean coverSol(List<Pair<LiteralSet, TWiseConfiguration>> candidatesList) {
+			return super.coverSol(candidatesList);
+		}
+
+		@Override
+		protected boolean coverSat(List<Pair<LiteralSet, TWiseConfiguration>> candidatesList) {
+			final int index = findFirstSatisfiableCandidate(candidatesList);
+			if (index < 0) {
+				return false;
+			}
+			final Pair<LiteralSet, TWiseConfiguration> pair = candidatesList.get(index);
+			select(pair.getValue(), getExtendConfigurationDeduce(), pair.getKey());
+			return true;
+		}
+
+	}
+
+	private static final int SEQUENTIAL_CANDIDATES = 8;
+
+	private int threads = Runtime.getRuntime().availableProcessors();
+
+	private ParallelConfigurationUtil parallelUtil;
+	private ExecutorService executor;
+	private ISatSolver[] solvers;
+
+	private List<TWiseConfiguration> curResult = null;
+	private ArrayList<TWiseConfiguration> bestResult = null;
+
+	public ParallelTWiseConfigurationGenerator(CNF cnf, List<List<ClauseList>> nodes, int t) {
+		super(cnf, nodes, t);
+	}
+
+	public ParallelTWiseConfigurationGenerator(CNF cnf, List<List<ClauseList>> nodes, int t, int maxSampleSize) {
+		super(cnf, nodes, t, maxSampleSize);
+	}
+
+	public int getThreads() {
+		return threads;
+	}
+
+	public void setThreads(int threads) {
+		this.threads = Math.max(1, threads);
+	}
+
+	private void init() {
+		final CNF cnf = solver.getSatInstance();
+		if (cnf.getClauses().isEmpty()) {
+			parallelUtil = new ParallelConfigurationUtil(cnf, null);
+		} else {
+			parallelUtil = new ParallelConfigurationUtil(cnf, solver);
+		}
+		util = parallelUtil;
+		util.setMaxSampleSize(maxSampleSize);
+		util.setRandom(getRandom());
+		util.setCreateConfigurationDeduce(getCreateConfigurationDeduce());
+		util.setExtendConfigurationDeduce(getExtendConfigurationDeduce());
+
+		if (TWiseConfigurationGenerator.VERBOSE) {
+			System.out.println("Compute random sample... ");
+		}
+		util.computeRandomSample(getRandomSampleSize());
+		if (isUseMig() && !util.getCnf().getClauses().isEmpty()) {
+			util.computeMIG(isMigCheckRedundancy(), isMigDetectStrong());
+		}
+
+		presenceConditionManager = new PresenceConditionManager(util, nodes);
+		combiner = new TWiseCombiner(cnf.getVariables().size());
+
+		solver.useSolutionList(0);
+		solver.setSelectionStrategy(SelectionStrategy.ORG);
+
+		if (util.hasSolver()) {
+			solvers = new ISatSolver[threads];
+			for (int i = 0; i < threads; i++) {
+				final ISatSolver threadSolver = new AdvancedSatSolver(cnf);
+				threadSolver.assignmentPushAll(solver.getAssignmentArray());
+				threadSolver.useSolutionList(0);
+				threadSolver.setSelectionStrategy(SelectionStrategy.ORG);
+				solvers[i] = threadSolver;
+			}
+		}
+	}
+
+	@Override
+	protected void generate(IMonitor<List<LiteralSet>> monitor) throws Exception {
+		executor = Executors.newFixedThreadPool(threads);
+		try {
+			init();
+			phaseCount = 0;
+			for (int i = 0; i < getIterations(); i++) {
+				trimConfigurations();
+				buildCombinations();
+			}
+		} finally {
+			executor.shutdownNow();
+			executor = null;
+			solvers = null;
+			parallelUtil = null;
+		}
+
+		bestResult.forEach(configuration -> addResult(configuration.getCompleteSolution()));
+	}
+
+	private int findFirstSatisfiableCandidate(List<Pair<LiteralSet, TWiseConfiguration>> candidatesList) {
+		if (solvers == null) {
+			return candidatesList.isEmpty() ? -1 : 0;
+		}
+		// Most interactions fit into one of the first candidates, so only
+		// longer lists are distributed to the other threads
+		final int sequentialCount = Math.min(SEQUENTIAL_CANDIDATES, candidatesList.size());
+		for (int i = 0; i < sequentialCount; i++) {
+			final Pair<LiteralSet, TWiseConfiguration> candidate = candidatesList.get(i);
+			if (isSelectionPossible(solvers[0], candidate.getKey(), candidate.getValue())) {
+				return i;
+			}
+		}
+
+		final AtomicInteger nextIndex = new AtomicInteger(sequentialCount);
+		final AtomicInteger firstIndex = new AtomicInteger(candidatesList.size());
+		final int taskCount = Math.min(threads, candidatesList.size() - sequentialCount);
+		if (taskCount == 1) {
+			new CandidateCheck(solvers[0], candidatesList, nextIndex, firstIndex).run();
+		} else if (taskCount > 1) {
+			final List<Future<?>> futures = new ArrayList<>(taskCount - 1);
+			for (int i = 1; i < taskCount; i++) {
+				futures.add(executor.submit(new CandidateCheck(solvers[i], candidatesList, nextIndex, firstIndex)));
+			}
+			new CandidateCheck(solvers[0], candidatesList, nextIndex, firstIndex).run();
+			try {
+				for (final Future<?> future : futures) {
+					future.get();
+				}
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RuntimeException(e);
+			} catch (final ExecutionException e) {
+				throw new RuntimeException(e.getCause());
+			}
+		}
+		final int index = firstIndex.get();
+		return index < candidatesList.size() ? index : -1;
+	}
+
+	/**
+	 * Claims candidates in list order until a satisfiable candidate with a
+	 * lower index has been found by any task. As all lower indices are claimed
+	 * before a higher one, the minimal satisfiable index is always found.
+	 */
+	private static class CandidateCheck implements Runnable {
+
+		private final ISatSolver solver;
+		private final List<Pair<LiteralSet, TWiseConfiguration>> candidatesList;
+		private final AtomicInteger nextIndex;
+		private final AtomicInteger firstIndex;
+
+		public CandidateCheck(ISatSolver solver, List<Pair<LiteralSet, TWiseConfiguration>> candidatesList,
+				AtomicInteger nextIndex, AtomicInteger firstIndex) {
+			this.solver = solver;
+			this.candidatesList = candidatesList;
+			this.nextIndex = nextIndex;
+			this.firstIndex = firstIndex;
+		}
+
+		@Override
+		public void run() {
+			while (true) {
+				final int index = nextIndex.getAndIncrement();
+				if (index >= firstIndex.get()) {
+					return;
+				}
+				final Pair<LiteralSet, TWiseConfiguration> candidate = candidatesList.get(index);
+				if (isSelectionPossible(solver, candidate.getKey(), candidate.getValue())) {
+					firstIndex.accumulateAndGet(index, Math::min);
+					return;
+				}
+			}
+		}
+
+	}
+
+	private static boolean isSelectionPossible(ISatSolver solver, LiteralSet literals,
+			TWiseConfiguration configuration) {
+		final int orgAssignmentSize = configuration.setUpSolver(solver);
+		try {
+			final int[] configurationLiterals = configuration.getLiterals();
+			for (final int literal : literals.getLiterals()) {
+				if (configurationLiterals[Math.abs(literal) - 1] == 0) {
+					solver.assignmentPush(literal);
+				}
+			}
+			return (orgAssignmentSize >= solver.getAssignmentSize()) || (solver.hasSolution() == SatResult.TRUE);
+		} finally {
+			solver.assignmentClear(orgAssignmentSize);
+		}
+	}
+
+	private void trimConfigurations() {
+		if (curResult != null) {
+			final CoverageStatistic statistic = new TWiseStatisticFastGenerator(util).getCoverage(curResult,
+					presenceConditionManager.getGroupedPresenceConditions(), t);
+
+			final double[] normConfigValues = statistic.getConfigScores();
+			double mean = 0;
+			for (final double d : normConfigValues) {
+				mean += d;
+			}
+			mean /= normConfigValues.length;
+
+			int index = 0;
+			index = removeSolutions(normConfigValues, mean, index, util.getIncompleteSolutionList());
+			index = removeSolutions(normConfigValues, mean, index, util.getCompleteSolutionList());
+		}
+	}
+
+	private int removeSolutions(double[] values, final double reference, int index,
+			List<TWiseConfiguration> solutionList) {
+		for (final Iterator<TWiseConfiguration> iterator = solutionList.iterator(); iterator.hasNext();) {
+			iterator.next();
+			if (values[index++] < reference) {
+				iterator.remove();
+			}
+		}
+		return index;
+	}
+
+	private void buildCombinations() {
+		final ICombinationSupplier<ClauseList> it;
+		presenceConditionManager.shuffleSort(getRandom());
+		final List<List<PresenceCondition>> groupedPresenceConditions = presenceConditionManager
+				.getGroupedPresenceConditions();
+		if (groupedPresenceConditions.size() == 1) {
+			it = new SingleIterator(t, util.getCnf().getVariables().size(), groupedPresenceConditions.get(0));
+		} else {
+			it = new MergeIterator3(t, util.getCnf().getVariables().size(), groupedPresenceConditions);
+		}
+		numberOfCombinations = it.size();
+
+		coveredCount = 0;
+		invalidCount = 0;
+		count = 0;
+		phaseCount++;
+
+		if (TWiseConfigurationGenerator.VERBOSE) {
+			samplingMonitor = new MonitorThread(this::printProgress, getLogFrequency());
+			samplingMonitor.start();
+		}
+		try {
+			final List<Pair<LiteralSet, TWiseConfiguration>> candidatesList = new ArrayList<>();
+			while (true) {
+				final ClauseList combinedCondition = it.get();
+				if (combinedCondition == null) {
+					break;
+				}
+				if (combinedCondition.isEmpty() || !cover(combinedCondition, candidatesList)) {
+					invalidCount++;
+				} else {
+					coveredCount++;
+				}
+				combinedCondition.clear();
+				count++;
+			}
+		} finally {
+			if (TWiseConfigurationGenerator.VERBOSE) {
+				samplingMonitor.finish();
+			}
+		}
+
+		curResult = util.getResultList();
+		if ((bestResult == null) || (bestResult.size() > curResult.size())) {
+			bestResult = new ArrayList<>(curResult.size());
+			curResult.stream().map(TWiseConfiguration::clone).forEach(bestResult::add);
+		}
+	}
+
+	/**
+	 * @return {@code false} if the condition is invalid, {@code true} if it is
+	 *         covered
+	 */
+	private boolean cover(ClauseList nextCondition, List<Pair<LiteralSet, TWiseConfiguration>> candidatesList) {
+		if (util.isCovered(nextCondition)) {
+			return true;
+		}
+		util.initCandidatesList(nextCondition, candidatesList);
+		if (parallelUtil.coverSol(candidatesList)) {
+			return true;
+		}
+		if (util.removeInvalidClauses(nextCondition, candidatesList)) {
+			return false;
+		}
+		if (parallelUtil.coverSat(candidatesList)) {
+			return true;
+		}
+		util.newConfiguration(nextCondition.get(0));
+		return true;
+	}
+
+	private void printProgress() {
+		final long uncoveredCount = (numberOfCombinations - coveredCount) - invalidCount;
+		System.out.println(phaseCount + " - " + count + "/" + numberOfCombinations //
+				+ " -- Configurations: " + (util.getIncompleteSolutionList().size()
+						+ util.getCompleteSolutionList().size()) //
+				+ " -- Covered: " + coveredCount //
+				+ " -- Uncovered: " + uncoveredCount //
+				+ " -- Invalid: " + invalidCount);
+	}
+
+}
@@ -0,0 +1,161 @@
+package de.ovgu.sple.sampling;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import de.ovgu.featureide.fm.core.analysis.cnf.IVariables;
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet;
+
+/**
+ * Stores a complete sample in a single file.
+ * <p>
+ * The archive starts with an index containing the names of all variables.
+ * Each configuration is stored as a fixed-size bit field with one bit per
+ * variable (set if the variable is selected), such that the i-th
+ * configuration can be found at a fixed offset. The file ends with a CRC32
+ * checksum of its content.
+ */
+public class SampleArchive {
+
+	public static final String FILE_EXTENSION = "sample";
+
+	private static final int MAGIC = 0x5941534D; // "YASM"
+	private static final int VERSION = 1;
+
+	private final List<String> variableNames;
+	private final List<LiteralSet> configurations;
+
+	public SampleArchive(List<String> variableNames, List<LiteralSet> configurations) {
+		this.variableNames = variableNames;
+		this.configurations = configurations;
+	}
+
+	public SampleArchive(IVariables variables, List<LiteralSet> configurations) {
+		this(Arrays.asList(variables.getNames()).subList(1, variables.size() + 1), configurations);
+	}
+
+	/**
+	 * @return the names of all variables, the name of variable {@code i} is at
+	 *         index {@code i - 1}
+	 */
+	public List<String> getVariableNames() {
+		return Collections.unmodifiableList(variableNames);
+	}
+
+	public List<LiteralSet> getConfigurations() {
+		return Collections.unmodifiableList(configurations);
+	}
+
+	/**
+	 * Returns the configurations with literals adapted to the given variables.
+	 * Variables that are not contained in the archive are deselected.
+	 *
+	 * @param variables the target variables
+	 * @return the adapted configurations
+	 */
+	public List<LiteralSet> getConfigurations(IVariables variables) {
+		final int[] mapping = new int[variableNames.size() + 1];
+		for (int i = 0; i < variableNames.size(); i++) {
+			mapping[i + 1] = variables.getVariable(variableNames.get(i));
+		}
+		final List<LiteralSet> adaptedConfigurations = new ArrayList<>(configurations.size());
+		for (final LiteralSet configuration : configurations) {
+			final int[] literals = new int[variables.size()];
+			for (int i = 0; i < literals.length; i++) {
+				literals[i] = -(i + 1);
+			}
+			for (final int literal : configuration.getLiterals()) {
+				if (literal > 0) {
+					final int variable = mapping[literal];
+					if (variable > 0) {
+						literals[variable - 1] = variable;
+					}
+				}
+			}
+			adaptedConfigurations.add(new LiteralSet(literals, LiteralSet.Order.INDEX, false));
+		}
+		return adaptedConfigurations;
+	}
+
+	public void write(Path archiveFile) throws IOException {
+		final Path tempFile = archiveFile.resolveSibling(archiveFile.getFileName() + ".tmp");
+		final CRC32 checksum = new CRC32();
+		try (DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(new CheckedOutputStream(Files.newOutputStream(tempFile), checksum)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(variableNames.size());
+			for (final String name : variableNames) {
+				out.writeUTF(name);
+			}
+			out.writeInt(configurations.size());
+			final byte[] bits = new byte[getRecordSize()];
+			for (final LiteralSet configuration : configurations) {
+				Arrays.fill(bits, (byte) 0);
+				for (final int literal : configuration.getLiterals()) {
+					if (literal > 0) {
+						final int index = literal - 1;
+						bits[index >>> 3] |= 1 << (index & 7);
+					}
+				}
+				out.write(bits);
+			}
+			out.flush();
+			out.writeLong(checksum.getValue());
+		}
+		Files.move(tempFile, archiveFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	public static SampleArchive read(Path archiveFile) throws IOException {
+		final CRC32 checksum = new CRC32();
+		try (DataInputStream in = new DataInputStream(
+				new CheckedInputStream(new BufferedInputStream(Files.newInputStream(archiveFile)), checksum))) {
+			if (in.readInt() != MAGIC) {
+				throw new IOException("Not a sample archive: " + archiveFile);
+			}
+			final int version = in.readInt();
+			if (version != VERSION) {
+				throw new IOException("Unsupported sample archive version " + version + ": " + archiveFile);
+			}
+			final int numberOfVariables = in.readInt();
+			final List<String> variableNames = new ArrayList<>(numberOfVariables);
+			for (int i = 0; i < numberOfVariables; i++) {
+				variableNames.add(in.readUTF());
+			}
+			final int numberOfConfigurations = in.readInt();
+			final List<LiteralSet> configurations = new ArrayList<>(numberOfConfigurations);
+			final byte[] bits = new byte[(numberOfVariables + 7) >>> 3];
+			for (int i = 0; i < numberOfConfigurations; i++) {
+				in.readFully(bits);
+				final int[] literals = new int[numberOfVariables];
+				for (int j = 0; j < numberOfVariables; j++) {
+					literals[j] = ((bits[j >>> 3] & (1 << (j & 7))) != 0) ? j + 1 : -(j + 1);
+				}
+				configurations.add(new LiteralSet(literals, LiteralSet.Order.INDEX, false));
+			}
+			final long expectedChecksum = checksum.getValue();
+			if (in.readLong() != expectedChecksum) {
+				throw new IOException("Corrupt sample archive: " + archiveFile);
+			}
+			return new SampleArchive(variableNames, configurations);
+		}
+	}
+
+	private int getRecordSize() {
+		return (variableNames.size() + 7) >>> 3;
+	}
+
+}
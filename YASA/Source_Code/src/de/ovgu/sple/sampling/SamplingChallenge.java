@@ -3,6 +3,7 @@ package de.ovgu.sple.sampling;
 import java.io.*;
 import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.function.*;
 import java.util.stream.*;
 
@@ -14,7 +15,7 @@ import de.ovgu.featureide.fm.core.base.*;
 import de.ovgu.featureide.fm.core.functional.*;
 import de.ovgu.featureide.fm.core.init.*;
 import de.ovgu.featureide.fm.core.io.manager.*;
-import de.ovgu.featureide.fm.core.job.*;
+import de.ovgu.featureide.fm.core.job.monitor.*;
 
 public class SamplingChallenge {
 
@@ -26,6 +27,26 @@ public class SamplingChallenge {
 	private static int randomSampleSize = 10000;
 	private static int logFrequency = 1;
 	private static boolean verbosity;
+	private static boolean exportConfigs = false;
+	private static boolean testSample = false;
+	private static int threads = 1;
+	private static long memoryLimit = (Runtime.getRuntime().maxMemory() / 10) * 8;
+	private static long memoryFactor = 200;
+	private static boolean incremental = false;
+	private static int generatorThreads = 1;
+	private static boolean clusters = false;
+	private static final Map<Path, Path> previousModelFiles = new HashMap<>();
+	private static final String[] PHASES = { "Load", "Sample", "Write" };
+	/**
+	 * Guards the FeatureIDE model loading and CNF creation, which rely on
+	 * shared singletons that are not safe for concurrent use.
+	 */
+	private static final Object FEATURE_IDE_LOCK = new Object();
+	/**
+	 * Collects the output of the model that is processed by the current thread
+	 * in parallel mode, such that it is printed as one block.
+	 */
+	private static final ThreadLocal<StringBuilder> taskLog = new ThreadLocal<>();
 
 	public static void main(String[] args) throws IOException {
 		FMCoreLibrary.getInstance().install();
@@ -50,40 +71,179 @@ public class SamplingChallenge {
 			case "-logFrequency":
 				logFrequency = Integer.parseInt(args[++i]);
 				break;
+			case "-exportConfigs":
+				exportConfigs = true;
+				break;
+			case "-test":
+				testSample = true;
+				break;
+			case "-threads":
+				threads = Integer.parseInt(args[++i]);
+				break;
+			case "-memoryLimit":
+				memoryLimit = Long.parseLong(args[++i]) << 20;
+				break;
+			case "-memoryFactor":
+				memoryFactor = Long.parseLong(args[++i]);
+				break;
+			case "-incremental":
+				incremental = true;
+				break;
+			case "-generatorThreads":
+				generatorThreads = Integer.parseInt(args[++i]);
+				break;
+			case "-clusters":
+				clusters = true;
+				break;
 			}
 		}
 		verbosity = logFrequency > 0;
+		// The generator prints its progress directly, which would interleave in
+		// parallel mode
+		TWiseConfigurationGenerator.VERBOSE = verbosity && (threads <= 1);
+
+		final List<Path> modelFiles = Files.walk(in) //
+				.filter(Files::isRegularFile) //
+				.filter(file -> file.getFileName().toString().equals("model.xml")) //
+				.sorted() //
+				.collect(Collectors.toList());
 
-		Files.walk(in).filter(Files::isRegularFile).forEach(SamplingChallenge::processFile);
+		// Versions of a system are processed one after another in incremental
+		// mode, as each version depends on the sample of its predecessor
+		final List<List<Path>> modelChains = new ArrayList<>();
+		Path lastSystemPath = null;
+		Path lastModelFile = null;
+		for (Path modelFile : modelFiles) {
+			final Path systemPath = getSystemPath(modelFile);
+			if (incremental && systemPath.equals(lastSystemPath)) {
+				previousModelFiles.put(modelFile, lastModelFile);
+				modelChains.get(modelChains.size() - 1).add(modelFile);
+			} else {
+				modelChains.add(new ArrayList<>(Arrays.asList(modelFile)));
+			}
+			lastSystemPath = systemPath;
+			lastModelFile = modelFile;
+		}
+
+		final CSVWriter statisticsWriter = createStatisticsWriter();
+		if (threads <= 1) {
+			for (Path modelFile : modelFiles) {
+				writeStatistics(statisticsWriter, processFile(modelFile));
+			}
+		} else {
+			processFilesParallel(modelChains, statisticsWriter);
+		}
 	}
 
-	private static void processFile(Path modelFile) {
-		if (!modelFile.getFileName().toString().equals("model.xml")) {
-			return;
+	/**
+	 * Processes multiple model versions at once. Before a model is loaded, its
+	 * heap usage is estimated from the size of the model file (times
+	 * {@link #memoryFactor}) and reserved from a budget of
+	 * {@link #memoryLimit} bytes. Statistics are written in the order of the
+	 * model files, independent of the order in which the tasks finish. The
+	 * models of one chain are processed sequentially by the same task.
+	 */
+	private static void processFilesParallel(List<List<Path>> modelChains, CSVWriter statisticsWriter)
+			throws IOException {
+		final MemoryBudget memoryBudget = new MemoryBudget(memoryLimit);
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			final List<Future<List<List<String>>>> results = new ArrayList<>(modelChains.size());
+			for (List<Path> modelChain : modelChains) {
+				results.add(executor.submit(() -> {
+					final List<List<String>> chainStatistics = new ArrayList<>(modelChain.size());
+					for (Path modelFile : modelChain) {
+						final long reservation = memoryBudget.acquire(Files.size(modelFile) * memoryFactor);
+						taskLog.set(new StringBuilder());
+						try {
+							chainStatistics.add(processFile(modelFile));
+						} finally {
+							memoryBudget.release(reservation);
+							System.out.print(taskLog.get());
+							taskLog.remove();
+						}
+					}
+					return chainStatistics;
+				}));
+			}
+			for (Future<List<List<String>>> result : results) {
+				try {
+					for (List<String> statistics : result.get()) {
+						writeStatistics(statisticsWriter, statistics);
+					}
+				} catch (ExecutionException e) {
+					e.getCause().printStackTrace();
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			executor.shutdownNow();
 		}
+	}
+
+	private static CSVWriter createStatisticsWriter() throws IOException {
+		final CSVWriter csvWriter = new CSVWriter();
+		csvWriter.setOutputDirectory(out);
+		csvWriter.setFileName("Sample_Statistics_" + t + ".csv");
+		csvWriter.setKeepLines(false);
+		final List<String> header = new ArrayList<>(
+				Arrays.asList("Model", "Coverage (t)", "Features", "Constraints", "Sample Size", "Time"));
+		header.addAll(MemoryStatistics.getHeader(PHASES));
+		csvWriter.setHeader(header);
+		csvWriter.setSeparator(";");
+		csvWriter.flush();
+		return csvWriter;
+	}
+
+	private static void writeStatistics(CSVWriter csvWriter, List<String> statistics) {
+		if (statistics != null) {
+			csvWriter.addLine(statistics);
+			csvWriter.flush();
+		}
+	}
+
+	private static Path getSystemPath(Path modelFile) {
+		return in.relativize(modelFile).getName(0);
+	}
+
+	private static Path getOutputPath(Path modelFile) {
 		Path relativePath = in.relativize(modelFile).getParent();
 		Path systemPath = relativePath.getName(0);
 		Path dataPath = systemPath.relativize(relativePath);
-		Path relativeOutPath = out.resolve(systemPath).resolve("samples").resolve(dataPath).resolve("YASA");
+		return out.resolve(systemPath).resolve("samples").resolve(dataPath).resolve("YASA");
+	}
+
+	private static Path getArchiveFile(Path relativeOutPath) {
+		return relativeOutPath.resolve("products_" + t + "." + SampleArchive.FILE_EXTENSION);
+	}
+
+	private static List<String> processFile(Path modelFile) {
+		Path relativeOutPath = getOutputPath(modelFile);
 //		out / system / samples / date / YASA / products
 		Path productPath = relativeOutPath.resolve("products_" + t);
-		if (Files.exists(productPath)) {
-			System.out.println("Skipping model " + modelFile);
-			return;
+		Path archiveFile = getArchiveFile(relativeOutPath);
+		if (Files.exists(archiveFile) || Files.exists(productPath)) {
+			log("Skipping model " + modelFile);
+			return null;
 		}
 		
+		final MemoryStatistics memoryStatistics = new MemoryStatistics(threads <= 1);
+		memoryStatistics.start("Load");
 		long startTime = System.nanoTime();
 		if (verbosity) {
-			System.out.println("Read model... " + modelFile);
+			log("Read model... " + modelFile);
 		}
 		
-		IFeatureModel fm = FeatureModelIO.getInstance().load(modelFile);
-
-
-		if (verbosity) {
-			System.out.println("Compute CNF... ");
+		final IFeatureModel fm;
+		final CNF cnf;
+		synchronized (FEATURE_IDE_LOCK) {
+			fm = FeatureModelIO.getInstance().load(modelFile);
+			if (verbosity) {
+				log("Compute CNF... ");
+			}
+			cnf = new FeatureModelFormula(fm).getCNF();
 		}
-		CNF cnf = new FeatureModelFormula(fm).getCNF();
 		
 		final List<String> features = Functional
 				.toList(fm.getFeatures().stream()
@@ -93,64 +253,60 @@ public class SamplingChallenge {
 				.collect(Collectors.toList()));
 
 		if (verbosity) {
-			System.out.println("\t#Features:      " + fm.getNumberOfFeatures());
-			System.out.println("\t#Constraints:   " + fm.getConstraintCount());
-			System.out.println("\t#Real Features: " + features.size());
+			log("\t#Features:      " + fm.getNumberOfFeatures());
+			log("\t#Constraints:   " + fm.getConstraintCount());
+			log("\t#Real Features: " + features.size());
+		}
+		if (clusters) {
+			printClusterStatistics(cnf);
 		}
 
 		if (verbosity) {
-			System.out.println("Run generator... ");
+			log("Run generator... ");
 		}
-		List<LiteralSet> result = createSample(fm, cnf);
+		memoryStatistics.start("Sample");
+		final Path previousModelFile = previousModelFiles.get(modelFile);
+		final Path previousArchiveFile = previousModelFile != null ? getArchiveFile(getOutputPath(previousModelFile))
+				: null;
+		List<LiteralSet> result = (previousArchiveFile != null) && Files.exists(previousArchiveFile)
+				? createIncrementalSample(fm, cnf, previousArchiveFile)
+				: createSample(fm, cnf);
 //		List<LiteralSet> result = Collections.emptyList();
 		long endTime = System.nanoTime();
 
-		System.out.println(((endTime - startTime) / 1_000_000) / 1000.0);
-		write(relativeOutPath, productPath, cnf, result, startTime, endTime);
-//		System.out.println(test(fm, cnf, result));
+		log(String.valueOf(((endTime - startTime) / 1_000_000) / 1000.0));
+		memoryStatistics.start("Write");
+		write(relativeOutPath, archiveFile, productPath, cnf, result, startTime, endTime);
+		memoryStatistics.stop();
+		if (testSample) {
+			log(String.valueOf(test(fm, cnf, archiveFile)));
+		}
+
+		final List<String> statistics = new ArrayList<>(Arrays.asList(in.relativize(modelFile).getParent().toString(),
+				Integer.toString(t), Integer.toString(fm.getNumberOfFeatures()),
+				Integer.toString(fm.getConstraintCount()), Integer.toString(result.size()),
+				Long.toString((endTime - startTime) / 1_000_000)));
+		statistics.addAll(memoryStatistics.getValues(PHASES));
+		return statistics;
 	}
 
-	private static void getCompletelyConnectedVertices(int literal, Set<Vertex> connected, ModalImplicationGraph g) {
-		final int var = Math.abs(literal);
-		Vertex vPos = g.getVertex(var);
-		Vertex vNeg = g.getVertex(-var);
-		
-		List<Integer> newAdj = new ArrayList<>();
-		
-		Set<Integer> connectedVars = getConnectedVertices(literal, g);
-		for (Integer connectedVar : connectedVars) {
-			Set<Integer> reverseConnectedVertices = getConnectedVertices(connectedVar, g);
-			connectedVars.retainAll(reverseConnectedVertices);
+	private static void printClusterStatistics(CNF cnf) {
+		if (cnf.getClauses().isEmpty()) {
+			return;
 		}
-		
-		if (connected.add(null))
-		{
-			newAdj.add(null);
-		}
-		g.getComplexClauses().get(vPos.getComplexClauses()[0]);
-	}
-	
-	private static Set<Integer> getConnectedVertices(int literal, ModalImplicationGraph g) {
-		Set<Integer> newAdj = new HashSet<>();
-		addConnectedVertices(g, literal, newAdj);
-		addConnectedVertices(g, -literal, newAdj);
-		newAdj.remove(literal);
-		return newAdj;
-	}
-
-	private static void addConnectedVertices(ModalImplicationGraph g, int literal, Set<Integer> newAdj) {
-		Vertex vertex = g.getVertex(literal);
-		for (int strongEdge : vertex.getStrongEdges()) {
-			newAdj.add(Math.abs(strongEdge));
-		}
-		for (int complexClauseId : vertex.getComplexClauses()) {
-			LiteralSet complexClause = g.getComplexClauses().get(complexClauseId);
-			for (int weakEdge : complexClause.getLiterals()) {
-				newAdj.add(Math.abs(weakEdge));
-			}
+		final ClusterIndex clusterIndex = new ClusterIndex(ModalImplicationGraph.build(cnf, false, false));
+		int largestCluster = 0;
+		for (int i = 0; i < clusterIndex.getClusterCount(); i++) {
+			largestCluster = Math.max(largestCluster, clusterIndex.getClusterSize(i));
 		}
+		int largestComponent = 0;
+		for (int i = 0; i < clusterIndex.getComponentCount(); i++) {
+			largestComponent = Math.max(largestComponent, clusterIndex.getComponentSize(i));
+		}
+		log("\t#Clusters:      " + clusterIndex.getClusterCount() + " (max. " + largestCluster + ")");
+		log("\t#Components:    " + clusterIndex.getComponentCount() + " (max. " + largestComponent + ")");
 	}
-	
+
 	private static boolean isNumber(String name) {
 		try {
 			Integer.parseInt(name);
@@ -161,7 +317,43 @@ public class SamplingChallenge {
 	}
 
 	private static List<LiteralSet> createSample(IFeatureModel fm, CNF cnf) {
-		TWiseConfigurationGenerator gen = new TWiseConfigurationGenerator(cnf, getExpressions(fm, cnf), t);
+		return runGenerator(cnf, getExpressions(fm, cnf), t);
+	}
+
+	private static List<LiteralSet> createIncrementalSample(IFeatureModel fm, CNF cnf, Path previousArchiveFile) {
+		final SampleArchive previousSample;
+		try {
+			previousSample = SampleArchive.read(previousArchiveFile);
+		} catch (IOException e) {
+			e.printStackTrace();
+			return createSample(fm, cnf);
+		}
+		if (verbosity) {
+			log("Reuse sample of " + previousArchiveFile);
+		}
+		final IncrementalSampler sampler = new IncrementalSampler(cnf, getExpressions(fm, cnf), t);
+		final List<LiteralSet> result = sampler.sample(previousSample,
+				uncoveredExpressions -> runGenerator(cnf, uncoveredExpressions, 1));
+		if (verbosity) {
+			log("\t#Reused:        " + sampler.getReusedCount());
+			log("\t#Repaired:      " + sampler.getRepairedCount());
+			log("\t#Dropped:       " + sampler.getDroppedCount());
+			log("\t#Uncovered:     " + sampler.getUncoveredCount());
+			log("\t#Generated:     " + sampler.getGeneratedCount());
+		}
+		return result;
+	}
+
+	private static List<LiteralSet> runGenerator(CNF cnf, List<List<ClauseList>> expressions, int t) {
+		TWiseConfigurationGenerator gen;
+		if (generatorThreads > 1) {
+			final ParallelTWiseConfigurationGenerator parallelGen = new ParallelTWiseConfigurationGenerator(cnf,
+					expressions, t);
+			parallelGen.setThreads(generatorThreads);
+			gen = parallelGen;
+		} else {
+			gen = new TWiseConfigurationGenerator(cnf, expressions, t);
+		}
 		gen.setRandom(new Random(0));
 		gen.setIterations(iterations);
 		gen.setRandomSampleSize(randomSampleSize);
@@ -169,8 +361,12 @@ public class SamplingChallenge {
 		gen.setMigCheckRedundancy(false);
 		gen.setMigDetectStrong(false);
 		gen.setLogFrequency(logFrequency * 1_000);
-		TWiseConfigurationGenerator.VERBOSE = verbosity;
-		return LongRunningWrapper.runMethod(gen);
+		try {
+			return gen.execute(new NullMonitor<List<LiteralSet>>());
+		} catch (Exception e) {
+			e.printStackTrace();
+			return null;
+		}
 	}
 
 	private static List<List<ClauseList>> getExpressions(IFeatureModel fm, CNF cnf) {
@@ -182,26 +378,21 @@ public class SamplingChallenge {
 		return expressions;
 	}
 
-	private static void write(Path relativeOutPath, Path productPath, CNF cnf, List<LiteralSet> result, long startTime, long endTime) {
+	private static void write(Path relativeOutPath, Path archiveFile, Path productPath, CNF cnf, List<LiteralSet> result, long startTime, long endTime) {
 		try {
-			Files.createDirectories(productPath);
-//			CSVWriter csvWriter = new CSVWriter();
-//			csvWriter.setAppend(false);
-//			csvWriter.setOutputDirectory(relativeOutPath);
-//			csvWriter.setFileName("Sample_Statistics.csv");
-//
-//			csvWriter.setKeepLines(false);
-//			csvWriter.setHeader(Arrays.asList("Coverage (t)", "Sample Size", "Time", "Memory Usage"));
-//			csvWriter.setSeparator(";");
-//			csvWriter.flush();
-//
-//			csvWriter.createNewLine();
-//			csvWriter.addValue(t);
-//			csvWriter.addValue(result.size());
-//			csvWriter.addValue(((endTime - startTime) / 1_000_000));
-//			csvWriter.addValue("< 1 GiB");
-//			csvWriter.flush();
+			Files.createDirectories(relativeOutPath);
+			new SampleArchive(cnf.getVariables(), result).write(archiveFile);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		if (exportConfigs) {
+			exportConfigs(productPath, cnf, result);
+		}
+	}
 
+	private static void exportConfigs(Path productPath, CNF cnf, List<LiteralSet> result) {
+		try {
+			Files.createDirectories(productPath);
 			int productCounter = 1;
 			for (LiteralSet literalSet : result) {
 				ArrayList<String> configFileContent = new ArrayList<>();
@@ -218,10 +409,26 @@ public class SamplingChallenge {
 		}
 	}
 
-	private static boolean test(IFeatureModel fm, CNF cnf, List<LiteralSet> result) {
+	private static void log(String message) {
+		final StringBuilder log = taskLog.get();
+		if (log != null) {
+			log.append(message).append(System.lineSeparator());
+		} else {
+			System.out.println(message);
+		}
+	}
+
+	private static boolean test(IFeatureModel fm, CNF cnf, Path archiveFile) {
+		List<LiteralSet> sample;
+		try {
+			sample = SampleArchive.read(archiveFile).getConfigurations(cnf.getVariables());
+		} catch (IOException e) {
+			e.printStackTrace();
+			return false;
+		}
 		TWiseConfigurationTester tester = new TWiseConfigurationTester(cnf);
 		tester.setNodes(getExpressions(fm, cnf));
-		tester.setSample(result);
+		tester.setSample(sample);
 		tester.setT(t);
 		return 1 == tester.getCoverage().getCoverage();
 	}